@@ -0,0 +1,53 @@
+package com.ecommerce.backend.Entity;
+
+import com.ecommerce.backend.model.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Arşivlenmiş siparişin küçük indeks kaydı: sipariş ve kalemleri sıkıştırılmış segment dosyasındadır.
+// Geçmiş listesi bu tablodan çıkar; kalemler gerektiğinde (segment, blockOffset, blockLength) bloğundan okunur.
+@Entity
+@Table(name = "archived_orders", indexes = {
+    @Index(name = "idx_archived_orders_user_date_id", columnList = "user_id, order_date, order_id"),
+    @Index(name = "idx_archived_orders_date_id", columnList = "order_date, order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private double totalAmount;
+
+    @Column(nullable = false)
+    private int itemCount;
+
+    @Column(nullable = false)
+    private int segment;
+
+    @Column(nullable = false)
+    private long blockOffset;
+
+    @Column(nullable = false)
+    private int blockLength;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -25,6 +25,11 @@ private Long id;
 @JsonIgnore
 private User user;
 
+// Eşzamanlı sepet yazımlarında kayıp güncellemeyi önler; kalem SQL'leri de bu sürümü artırır
+@Version
+@Column(nullable = false, columnDefinition = "bigint default 0 not null")
+private long version;
+
 @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 private List<CartItem> items = new ArrayList<>();
 
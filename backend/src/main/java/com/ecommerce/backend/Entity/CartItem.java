@@ -12,7 +12,10 @@ import com.ecommerce.backend.Entity.Product;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+    // Bir üründen sepette tek kalem olur; miktar güncellemeleri bu anahtar üzerinden yapılır
+    @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = {"cart_id", "product_id"})
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class CartItem {
     @Id
@@ -30,6 +33,10 @@ public class CartItem {
     
     @Column(nullable = false)
     private int quantity;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
     
     public double getTotalPrice() {
         return product != null ? product.getPrice() * quantity : 0.0;
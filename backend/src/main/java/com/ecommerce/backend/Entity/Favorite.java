@@ -9,7 +9,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "favorites")
+@Table(name = "favorites", indexes = {
+    // Favori id kümesi ve üyelik kontrolü (user_id, product_id) üzerinden okunur
+    @Index(name = "idx_favorites_user_product", columnList = "user_id, product_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,13 +11,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Sipariş geçmişi (user_id, order_date, id) üzerinden keyset ile sayfalanır
+    @Index(name = "idx_orders_user_date_id", columnList = "user_id, order_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
+    // Sipariş ve kalemleri tek JDBC batch'inde eklenebilsin diye sequence kullanılır (IDENTITY batch'i kapatır)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
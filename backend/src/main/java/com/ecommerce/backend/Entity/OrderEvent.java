@@ -0,0 +1,47 @@
+package com.ecommerce.backend.Entity;
+
+import com.ecommerce.backend.model.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Sipariş durum değişikliği outbox kaydı: durumla aynı transaction'da yazılır, arka plandaki
+// dağıtıcı yayınlayınca publishedAt dolar. Kayıtlar silinmez; siparişin durum geçmişi de budur.
+@Entity
+@Table(name = "order_events", indexes = {
+    @Index(name = "idx_order_events_order", columnList = "order_id, id"),
+    @Index(name = "idx_order_events_user", columnList = "user_id, id"),
+    @Index(name = "idx_order_events_pending", columnList = "published_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Sipariş oluşturulurken null
+    @Enumerated(EnumType.STRING)
+    @Column(name = "old_status", length = 32)
+    private OrderStatus oldStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "new_status", nullable = false, length = 32)
+    private OrderStatus newStatus;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+}
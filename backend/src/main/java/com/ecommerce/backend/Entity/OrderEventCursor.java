@@ -0,0 +1,22 @@
+package com.ecommerce.backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// OrderEventBus abonesinin onayladığı son outbox kaydı. Outbox her abone için kendi imlecinden
+// okur; bir kayıt ancak tüm abonelerin imleci onu geçince yayınlanmış sayılır.
+@Entity
+@Table(name = "order_event_cursors")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventCursor {
+    @Id
+    @Column(length = 64)
+    private String subscriber;
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Idempotency-Key ile oluşturulan siparişin kaydı. Sipariş ile aynı transaction'da yazılır;
+// uygulama yeniden başlasa da aynı anahtarla gelen tekrar istekler aynı siparişi alır.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_idempotency_keys", indexes = {
+    @Index(name = "idx_order_idempotency_created_at", columnList = "created_at")
+})
+public class OrderIdempotencyKey {
+    // "userId:anahtar" - anahtarlar kullanıcı bazında tekildir
+    @Id
+    @Column(length = 300)
+    private String id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
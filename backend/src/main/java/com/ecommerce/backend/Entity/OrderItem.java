@@ -13,8 +13,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItem {
+    // Sipariş ve kalemleri tek JDBC batch'inde eklenebilsin diye sequence kullanılır (IDENTITY batch'i kapatır)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,6 +39,13 @@ public class OrderItem {
     @Column(name = "product_image_url")
     private String productImageUrl;
 
+    // Satış özetleri sipariş anındaki kategori ve satıcıya yazılır; ürün sonradan taşınsa da değişmez
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "seller_id")
+    private Long sellerId;
+
     @Column(nullable = false)
     private Integer quantity;
 
@@ -55,6 +64,8 @@ public class OrderItem {
             this.productName = product.getName();
             this.productDescription = product.getDescription();
             this.productImageUrl = product.getImageUrl();
+            this.categoryId = product.getCategoryId();
+            this.sellerId = product.getSellerId();
         }
     }
     
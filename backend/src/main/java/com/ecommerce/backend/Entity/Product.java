@@ -11,11 +11,19 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_price_id", columnList = "price, id"),
+    @Index(name = "idx_products_name_id", columnList = "name, id"),
+    @Index(name = "idx_products_category_id", columnList = "category_id, id"),
+    @Index(name = "idx_products_category_price_id", columnList = "category_id, price, id"),
+    @Index(name = "idx_products_category_name_id", columnList = "category_id, name, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
+    // IDENTITY JDBC batch insert'i devre dışı bıraktığı için sequence kullanılır (toplu içe aktarma)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -0,0 +1,63 @@
+package com.ecommerce.backend.Entity;
+
+import com.ecommerce.backend.model.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Arka planda çalışan CSV içe aktarma işi. lastCommittedLine, commit edilmiş son satırdır;
+// iş yarıda kalırsa (çökme, iptal) bu satırdan sonrasından devam edilir.
+@Entity
+@Table(name = "product_import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJob {
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private Long sellerId;
+
+    @Column(nullable = false)
+    private String filePath;
+
+    private String originalFileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status = ImportJobStatus.QUEUED;
+
+    @Column(nullable = false)
+    private int batchSize;
+
+    @Column(nullable = false)
+    private long lastCommittedLine;
+
+    @Column(nullable = false)
+    private long processedCount;
+
+    @Column(nullable = false)
+    private long successCount;
+
+    @Column(nullable = false)
+    private long errorCount;
+
+    // Sınırlı sayıda hata mesajı, satır satır
+    @Column(columnDefinition = "TEXT")
+    private String errorLog;
+
+    private String message;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Son çalıştırmanın başlangıcı ve o andaki işlenmiş satır sayısı (satır/saniye hesabı için)
+    private LocalDateTime runStartedAt;
+    private long runStartProcessedCount;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ürün başına yorum özeti: yorum yazma işlemleriyle aynı transaction'da artımlı güncellenir,
+// istatistik okuması tek birincil anahtar sorgusudur
+@Entity
+@Table(name = "product_review_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductReviewSummary {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private long reviewCount;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    // 1-5 yıldız histogramı
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+
+    public static ProductReviewSummary empty(Long productId) {
+        return new ProductReviewSummary(productId, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public double getAverageRating() {
+        return reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+    }
+}
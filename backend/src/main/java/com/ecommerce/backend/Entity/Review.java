@@ -9,7 +9,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+    // Ürün sayfasındaki yorum akışı (product_id, review_date, id) üzerinden keyset ile okunur
+    @Index(name = "idx_reviews_product_date_id", columnList = "product_id, review_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,45 @@
+package com.ecommerce.backend.Entity;
+
+import com.ecommerce.backend.model.RollupDimension;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Gün ve kırılım anahtarı (kategori/satıcı/ürün id'si, DAY için 0) başına satış toplamları.
+// İptal edilen siparişler sayılmaz. Tarih aralığı sorguları siparişleri değil bu satırları toplar.
+@Entity
+@Table(name = "sales_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sales_rollups_dimension_key_day", columnNames = {"dimension", "dim_key", "sales_day"})
+}, indexes = {
+    @Index(name = "idx_sales_rollups_dimension_day", columnList = "dimension, sales_day")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollupDimension dimension;
+
+    @Column(name = "dim_key", nullable = false)
+    private Long dimKey;
+
+    @Column(name = "sales_day", nullable = false)
+    private LocalDate salesDay;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private long orderCount;
+}
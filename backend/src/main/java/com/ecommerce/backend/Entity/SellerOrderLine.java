@@ -0,0 +1,60 @@
+package com.ecommerce.backend.Entity;
+
+import com.ecommerce.backend.model.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Satıcı paneli için sipariş kalemlerinin satıcıya göre ayrılmış kopyası. Sipariş oluşturulurken
+// yazılır, durum değişince güncellenir; panel orders/order_items/products join'i yapmadan sayfalanır.
+@Entity
+@Table(name = "seller_order_lines", indexes = {
+    @Index(name = "idx_seller_order_lines_seller_date_id", columnList = "seller_id, order_date, id"),
+    @Index(name = "idx_seller_order_lines_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrderLine {
+    // order_items.id ile aynı
+    @Id
+    private Long id;
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private String productName;
+
+    @Column(name = "product_image_url")
+    private String productImageUrl;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Double unitPrice;
+
+    @Column(nullable = false)
+    private Double lineTotal;
+
+    // Siparişi veren kullanıcının adı; panel users tablosuna gitmeden gösterir
+    @Column(name = "customer_name")
+    private String customerName;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Satıcı başına önceden hesaplanmış toplamlar; iptal edilen siparişler sayılmaz
+@Entity
+@Table(name = "seller_revenue")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerRevenue {
+    @Id
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long unitsSold;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    public static SellerRevenue empty(Long sellerId) {
+        return new SellerRevenue(sellerId, 0, 0, 0.0);
+    }
+}
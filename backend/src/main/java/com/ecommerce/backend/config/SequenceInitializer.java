@@ -0,0 +1,39 @@
+package com.ecommerce.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// IDENTITY'den sequence'a geçen tablolarda sequence'ı mevcut en büyük id'nin ilerisine taşır.
+// Hibernate pooled optimizer sequence değerini blok üst sınırı kabul ettiği için
+// allocationSize kadar pay bırakılır. Diğer başlangıç işlerinden önce çalışmalıdır.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SequenceInitializer implements ApplicationRunner {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // sequence adı -> tablo adı
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "product_seq", "products",
+            "order_seq", "orders",
+            "order_item_seq", "order_items"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SEQUENCES.forEach((sequence, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ALLOCATION_SIZE + 1));
+        });
+    }
+}
@@ -1,45 +1,175 @@
 package com.ecommerce.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
 import com.ecommerce.backend.Entity.Order;
 import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.model.ExportFormat;
+import com.ecommerce.backend.model.OrderStatus;
 import com.ecommerce.backend.model.Role;
-import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.service.OrderArchiveService;
+import com.ecommerce.backend.service.OrderExportService;
+import com.ecommerce.backend.service.OrderOutbox;
+import com.ecommerce.backend.service.OrderService;
+import com.ecommerce.backend.service.FavoriteIdCache;
+import com.ecommerce.backend.service.OrderStatusStream;
+import com.ecommerce.backend.service.ProductLeaderboard;
+import com.ecommerce.backend.service.ReviewService;
 import com.ecommerce.backend.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private UserService userService;
 
     @Autowired
-    private UserService userService;
+    private ReviewService reviewService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderStatusStream orderStatusStream;
+
+    @Autowired
+    private ProductLeaderboard productLeaderboard;
+
+    @Autowired
+    private FavoriteIdCache favoriteIdCache;
 
     // ========== ORDER MANAGEMENT ==========
+    // Yalnızca sıcak tablodaki siparişler; arşivdekiler /orders/archived ile sayfalı gelir
     @GetMapping("/orders")
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return orderService.getAllOrders();
+    }
+
+    // Arşivlenmiş siparişler: özet satırlarla keyset sayfalı; kalemler /api/orders/{id}/items ile alınır
+    @GetMapping("/orders/archived")
+    public ResponseEntity<?> getArchivedOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderService.getArchivedOrderPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Siparişleri kalemleriyle NDJSON (sipariş başına bir satır) veya CSV (kalem başına bir satır) olarak
+    // akış halinde döner. from/to (gün, dahil) ve status filtreleri SQL'de uygulanır.
+    @GetMapping("/orders/export")
+    public void exportOrders(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        OrderStatus orderStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                orderStatus = OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Geçersiz durum: " + status);
+            }
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Başlangıç tarihi bitiş tarihinden sonra olamaz");
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + exportFormat.getExtension() + "\"");
+        orderExportService.export(exportFormat, from, to, orderStatus, response.getOutputStream());
     }
 
     @DeleteMapping("/orders/{id}")
     public ResponseEntity<?> deleteOrder(@PathVariable Long id) {
-        Optional<Order> order = orderRepository.findById(id);
-        if (order.isPresent()) {
-            orderRepository.deleteById(id);
+        // Satıcı kalemleri ve satış özetleri de güncellensin diye servis üzerinden silinir; arşivdeki sipariş de bulunur
+        if (orderService.deleteOrder(id)) {
             return ResponseEntity.ok().build();
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Eski teslim edilmiş/iptal siparişleri hemen arşive taşır (zamanlanmış turu beklemeden)
+    @PostMapping("/orders/archive")
+    public Map<String, Object> archiveOrders() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("archived", orderArchiveService.archive());
+        result.putAll(orderArchiveService.getStats());
+        return result;
+    }
+
+    @GetMapping("/orders/archive/stats")
+    public Map<String, Object> getArchiveStats() {
+        return orderArchiveService.getStats();
+    }
+
+    // Outbox'ta bekleyen olaylar, abone kuyrukları ve açık SSE bağlantıları
+    @GetMapping("/order-events/stats")
+    public Map<String, Object> getOrderEventStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(orderOutbox.getStats());
+        stats.put("streams", orderStatusStream.getStats());
+        return stats;
+    }
+
+    // ========== REVIEW MANAGEMENT ==========
+    // Ürün yorum özetlerini yorumlardan yeniden hesaplar; artımlı güncellemelerdeki kaymaları düzeltir
+    @PostMapping("/reviews/stats/rebuild")
+    public Map<String, Object> rebuildReviewStats() {
+        return reviewService.rebuildSummaries();
+    }
+
+    // Ana sayfa sıralamalarını veritabanından yeniden kurar (zamanlanmış turu beklemeden)
+    @PostMapping("/leaderboards/rebuild")
+    public Map<String, Object> rebuildLeaderboards() {
+        return productLeaderboard.rebuild();
+    }
+
+    @GetMapping("/leaderboards/stats")
+    public Map<String, Object> getLeaderboardStats() {
+        return productLeaderboard.getStats();
+    }
+
+    // Kullanıcı başına favori ürün id kümeleri önbelleği
+    @GetMapping("/favorites/cache-stats")
+    public Map<String, Object> getFavoriteCacheStats() {
+        return favoriteIdCache.stats();
+    }
+
     // ========== USER MANAGEMENT ==========
     @GetMapping("/users")
     public List<User> getAllUsers() {
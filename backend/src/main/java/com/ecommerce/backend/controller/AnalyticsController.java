@@ -0,0 +1,59 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.model.RollupDimension;
+import com.ecommerce.backend.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Satış raporları: sorgular siparişleri taramaz, sales_rollups üzerindeki gün bazlı toplamları okur
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final SalesRollupService salesRollupService;
+
+    // Günlük ciro / adet / sipariş sayısı serisi. Varsayılan aralık son 30 gün.
+    @GetMapping("/sales/daily")
+    public ResponseEntity<?> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(salesRollupService.getDailySeries(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Aralıktaki toplamlar: dimension=CATEGORY|SELLER|PRODUCT için anahtar başına ciroya göre sıralı,
+    // key verilirse yalnızca o anahtar; dimension=DAY aralığın genel toplamıdır
+    @GetMapping("/sales/totals")
+    public ResponseEntity<?> getSalesTotals(
+            @RequestParam(required = false) String dimension,
+            @RequestParam(required = false) Long key,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "20") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(salesRollupService.getTotals(
+                    RollupDimension.fromParam(dimension), start, end, key, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Özetleri siparişlerden paralel olarak yeniden oluşturur
+    @PostMapping("/rebuild")
+    public Map<String, Object> rebuild() {
+        return salesRollupService.rebuild();
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.backend.controller;
 
 import com.ecommerce.backend.Entity.Cart;
+import com.ecommerce.backend.model.CartView;
 import com.ecommerce.backend.service.CartService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +18,12 @@ public Cart getCartByUser(@PathVariable Long userId) {
     return cartService.getCartByUserId(userId);
 }
 
+// Sepet sayfası için sade yanıt: kalem başına ürün id, ad, fiyat, görsel, miktar ve satır toplamı
+@GetMapping("/{userId}/view")
+public CartView getCartView(@PathVariable Long userId) {
+    return cartService.getCartView(userId);
+}
+
 @PostMapping("/{userId}/add")
 public Cart addToCart(
         @PathVariable Long userId,
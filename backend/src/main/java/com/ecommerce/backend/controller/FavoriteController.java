@@ -3,6 +3,7 @@ package com.ecommerce.backend.controller;
 import com.ecommerce.backend.Entity.Favorite;
 import com.ecommerce.backend.service.FavoriteService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,6 +21,16 @@ public class FavoriteController {
         return favoriteService.getAllFavoritesByUserId(userId);
     }
 
+    // Ürün grid'i: /api/favorites/user/1/contains?productIds=3,5,8 -> {"3":true,"5":false,"8":true}
+    @GetMapping("/user/{userId}/contains")
+    public ResponseEntity<?> containsFavorites(@PathVariable Long userId, @RequestParam List<Long> productIds) {
+        try {
+            return ResponseEntity.ok(favoriteService.getFavoriteMembership(userId, productIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     public Favorite getFavoriteById(@PathVariable Long id) {
         return favoriteService.getFavoriteById(id);
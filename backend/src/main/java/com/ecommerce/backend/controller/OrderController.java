@@ -1,18 +1,20 @@
 package com.ecommerce.backend.controller;
 
 import com.ecommerce.backend.Entity.Order;
-import com.ecommerce.backend.Entity.OrderItem;
-import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.Entity.OrderEvent;
+import com.ecommerce.backend.model.OrderItemView;
+import com.ecommerce.backend.service.OrderIdempotencyService;
+import com.ecommerce.backend.service.OrderPricingService;
 import com.ecommerce.backend.service.OrderService;
-import com.ecommerce.backend.service.ProductService;
+import com.ecommerce.backend.service.OrderStatusStream;
 import com.ecommerce.backend.model.OrderStatus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 
@@ -24,72 +26,96 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
-    private final ProductService productService;
+    private final OrderStatusStream orderStatusStream;
 
     @GetMapping("/user/{userId}")
     public List<Order> getAllOrdersByUser(@PathVariable Long userId) {
         return orderService.getAllOrdersByUserId(userId);
     }
+
+    // Sipariş geçmişi: özet satırlarla keyset sayfalı; kalemler /{id}/items ile ayrıca alınır
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<?> getOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistoryPage(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/seller/{sellerId}")
-    public List<Order> getOrdersForSeller(@PathVariable Long sellerId){
+    public List<Order> getOrdersForSeller(@PathVariable Long sellerId) {
         return orderService.getOrdersForSeller(sellerId);
     }
 
+    // Satıcı paneli: satıcının kalemleri sayfalı, önceden hesaplanmış toplamlarıyla birlikte
+    @GetMapping("/seller/{sellerId}/lines")
+    public ResponseEntity<?> getSellerOrderLines(
+            @PathVariable Long sellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderService.getSellerOrderPage(sellerId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
 
     @GetMapping("/{id}")
     public Order getOrderById(@PathVariable Long id) {
         return orderService.getOrderById(id);
     }
 
+    // Kullanıcının siparişlerindeki durum değişiklikleri SSE ile ("status" olayı, id = olay id'si).
+    // Yeniden bağlanan istemcinin Last-Event-ID başlığından sonraki olaylar önce gönderilir.
+    @GetMapping(value = "/user/{userId}/status-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(@PathVariable Long userId,
+                                        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        try {
+            return orderStatusStream.open(userId, lastEventId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    // Siparişin oluşturulmasından itibaren durum değişiklikleri, eskiden yeniye
+    @GetMapping("/{id}/status-history")
+    public List<OrderEvent> getStatusHistory(@PathVariable Long id) {
+        return orderService.getStatusHistory(id);
+    }
+
+    // Geçmiş listesinde açılan tek siparişin kalemleri
+    @GetMapping("/{id}/items")
+    public List<OrderItemView> getOrderItems(@PathVariable Long id) {
+        return orderService.getOrderItems(id);
+    }
+
     
     
+    // Idempotency-Key gönderilirse aynı anahtarla tekrarlanan istekler ilk siparişi döner
     @PostMapping("/user/{userId}")
-    public Order createOrder(@PathVariable Long userId, @RequestBody Map<String, Object> orderRequest) {
-        // Frontend'ten gelen veriyi parse et
-        String orderDateStr = (String) orderRequest.get("orderDate");
-        
-        // Number tiplerini güvenli şekilde çevir
-        Number totalAmountNum = (Number) orderRequest.get("totalAmount");
-        Double totalAmount = totalAmountNum.doubleValue();
-        
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> orderItemsData = (List<Map<String, Object>>) orderRequest.get("orderItems");
-
-        // LocalDateTime'a çevir
-        LocalDateTime orderDate = LocalDateTime.parse(orderDateStr, DateTimeFormatter.ISO_DATE_TIME);
-        
-        // Order oluştur
-        Order order = new Order();
-        order.setOrderDate(orderDate);
-        order.setTotalAmount(totalAmount);
-        
-        // Order'ı önce kaydet ki ID alabilelim
-        Order savedOrder = orderService.saveOrderForUser(userId, order);
-        
-        // OrderItem'ları oluştur
-        List<OrderItem> orderItems = orderItemsData.stream().map(itemData -> {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> productData = (Map<String, Object>) itemData.get("product");
-            Long productId = Long.valueOf(productData.get("id").toString());
-            
-            // Number tiplerini güvenli şekilde çevir
-            Number quantityNum = (Number) itemData.get("quantity");
-            Integer quantity = quantityNum.intValue();
-            
-            Number priceNum = (Number) itemData.get("price");
-            Double price = priceNum.doubleValue();
-            
-            // Product'ı al
-            Product product = productService.getProductById(productId);
-            
-            // Constructor kullanarak OrderItem oluştur (snapshot bilgileri otomatik set edilir)
-            OrderItem orderItem = new OrderItem(savedOrder, product, quantity, price);
-            
-            return orderItem;
-        }).collect(java.util.stream.Collectors.toList());
-        
-        savedOrder.setOrderItems(orderItems);
-        return orderService.saveOrder(savedOrder);
+    public ResponseEntity<?> createOrder(@PathVariable Long userId,
+                                         @RequestBody Map<String, Object> orderRequest,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey != null && idempotencyKey.length() > OrderIdempotencyService.MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key en fazla " + OrderIdempotencyService.MAX_KEY_LENGTH + " karakter olabilir");
+        }
+        try {
+            return ResponseEntity.ok(orderService.createOrder(userId, orderRequest, idempotencyKey));
+        } catch (OrderPricingService.PriceMismatchException e) {
+            // Sunucu fiyatları döner; istemci sepeti güncelleyip aynı anahtarla tekrar deneyebilir
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", e.getMessage(),
+                    "prices", e.getPrices(),
+                    "totalAmount", e.getTotalAmount()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -1,5 +1,6 @@
 package com.ecommerce.backend.controller;
 import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.model.ProductSort;
 import com.ecommerce.backend.service.ProductService;
 import com.ecommerce.backend.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +12,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/products")
@@ -24,8 +26,25 @@ public class ProductAdminController {
     private ProductRepository productRepository;
 
     @GetMapping
-    public List<Product> getAllProducts(){
-        return productRepository.findAll();
+    public ResponseEntity<?> getAllProducts(
+        @RequestParam(defaultValue = "false") boolean unpaged,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) String sort
+    ){
+        if (unpaged) {
+            return ResponseEntity.ok(productRepository.findAll());
+        }
+        try {
+            return ResponseEntity.ok(productService.getProductPage(null, ProductSort.fromParam(sort), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/cache-stats")
+    public Map<String, Object> getCacheStats() {
+        return productService.getCacheStats();
     }
 
     @PostMapping
@@ -1,6 +1,11 @@
 package com.ecommerce.backend.controller;
 
 import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.model.ProductSort;
+import com.ecommerce.backend.model.RankedProduct;
+import com.ecommerce.backend.Entity.ProductImportJob;
+import com.ecommerce.backend.service.ProductImportJobService;
+import com.ecommerce.backend.service.ProductImportService;
 import com.ecommerce.backend.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -17,12 +22,45 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductImportJobService productImportJobService;
 
+    // Varsayılan olarak keyset sayfalı döner; eski tam liste davranışı için unpaged=true
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<?> getAllProducts(
+        @RequestParam(defaultValue = "false") boolean unpaged,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) String sort
+    ) {
+        if (unpaged) {
+            return ResponseEntity.ok(productService.getAllProducts());
+        }
+        try {
+            return ResponseEntity.ok(productService.getProductPage(null, ProductSort.fromParam(sort), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
+    // Ana sayfa "kategorinin en iyileri" rayı: Bayes ortalamasına göre, az yorumlu ürünler önsel ortalamaya çekilir
+    @GetMapping("/top-rated")
+    public List<RankedProduct> getTopRated(
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return productService.getTopRated(categoryId, limit);
+    }
+
+    // Ana sayfa "bu hafta yükselenler" rayı: kayan penceredeki satış ve yorum hareketine göre
+    @GetMapping("/trending")
+    public List<RankedProduct> getTrending(
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return productService.getTrending(categoryId, limit);
+    }
+
     @GetMapping("/{id}")
     public Product getProductById(@PathVariable Long id) {
         return productService.getProductById(id);
@@ -36,9 +74,17 @@ public class ProductController {
     @PostMapping("/bulk-upload")
     public ResponseEntity<Map<String, Object>> bulkUploadProducts(
             @RequestParam("file") MultipartFile file,
-            @RequestParam("sellerId") Long sellerId) {
+            @RequestParam("sellerId") Long sellerId,
+            @RequestParam(defaultValue = "standard") String mode,
+            @RequestParam(required = false) Integer batchSize) {
+        if ("async".equalsIgnoreCase(mode)) {
+            return submitImportJob(file, sellerId, batchSize);
+        }
         try {
-            Map<String, Object> result = productService.bulkUploadFromCSV(file, sellerId);
+            // mode=streaming: büyük dosyalar için akış halinde, batch'li içe aktarma
+            Map<String, Object> result = "streaming".equalsIgnoreCase(mode)
+                    ? productImportService.importStreaming(file, sellerId, batchSize)
+                    : productService.bulkUploadFromCSV(file, sellerId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -48,6 +94,50 @@ public class ProductController {
         }
     }
     
+    // mode=async: dosya kuyruğa alınır, hemen iş id'si döner; ilerleme /import-jobs/{jobId} ile izlenir
+    private ResponseEntity<Map<String, Object>> submitImportJob(MultipartFile file, Long sellerId, Integer batchSize) {
+        try {
+            ProductImportJob job = productImportJobService.submit(file, sellerId, batchSize);
+            return ResponseEntity.accepted().body(Map.of(
+                "success", true,
+                "jobId", job.getId(),
+                "status", job.getStatus()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Dosya yüklenirken hata oluştu: " + e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/import-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getImportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(productImportJobService.describe(productImportJobService.getJob(jobId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/import-jobs/{jobId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelImportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(productImportJobService.describe(productImportJobService.cancel(jobId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/import-jobs/{jobId}/resume")
+    public ResponseEntity<Map<String, Object>> resumeImportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(productImportJobService.describe(productImportJobService.resume(jobId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         return productService.deleteProduct(id);
@@ -59,10 +149,28 @@ public class ProductController {
     }
     
     @GetMapping("/search")
-    public List<Product> searchProducts(
+    public ResponseEntity<?> searchProducts(
         @RequestParam(required = false) String query,
-        @RequestParam(required = false) Long categoryId
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean unpaged,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) String sort
     ) {
+        if (unpaged) {
+            return ResponseEntity.ok(searchUnpaged(query, categoryId));
+        }
+        try {
+            if (query != null && !query.isBlank()) {
+                return ResponseEntity.ok(productService.searchPage(query, categoryId, cursor, size));
+            }
+            return ResponseEntity.ok(productService.getProductPage(categoryId, ProductSort.fromParam(sort), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private List<Product> searchUnpaged(String query, Long categoryId) {
         if (query != null && categoryId != null) {
             return productService.searchByNameAndCategory(query, categoryId);
         } else if (categoryId != null && query == null) {
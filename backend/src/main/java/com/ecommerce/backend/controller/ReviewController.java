@@ -1,11 +1,13 @@
 package com.ecommerce.backend.controller;
 
+import com.ecommerce.backend.Entity.ProductReviewSummary;
 import com.ecommerce.backend.Entity.Review;
 import com.ecommerce.backend.service.ReviewService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,9 +18,22 @@ public class ReviewController {
 
     private final ReviewService reviewService;
 
+    // Varsayılan olarak hafif yorum satırlarıyla keyset sayfalı döner (ürün sayfası bunu ve /stats'ı kullanır);
+    // ürün ve kullanıcı dahil tam liste için unpaged=true
     @GetMapping("/product/{productId}")
-    public List<Review> getReviewsByProduct(@PathVariable Long productId) {
-        return reviewService.getReviewsByProductId(productId);
+    public ResponseEntity<?> getReviewsByProduct(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (unpaged) {
+            return ResponseEntity.ok(reviewService.getReviewsByProductId(productId));
+        }
+        try {
+            return ResponseEntity.ok(reviewService.getReviewFeed(productId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/user/{userId}")
@@ -26,14 +41,37 @@ public class ReviewController {
         return reviewService.getReviewsByUserId(userId);
     }
 
+    // Listeleme sayfası: /api/reviews/stats?productIds=1,2,3 -> ürün id'sine göre ortalama ve sayı
+    @GetMapping("/stats")
+    public ResponseEntity<?> getReviewStatsBatch(@RequestParam List<Long> productIds) {
+        try {
+            Map<Long, Map<String, Object>> stats = new LinkedHashMap<>();
+            reviewService.getReviewSummaries(productIds).forEach((productId, summary) -> stats.put(productId, Map.of(
+                "averageRating", summary.getAverageRating(),
+                "reviewCount", summary.getReviewCount()
+            )));
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/product/{productId}/stats")
     public ResponseEntity<Map<String, Object>> getProductReviewStats(@PathVariable Long productId) {
-        Double averageRating = reviewService.getAverageRatingByProductId(productId);
-        Long reviewCount = reviewService.getReviewCountByProductId(productId);
-        
+        ProductReviewSummary summary = reviewService.getReviewSummary(productId);
+
+        // Yıldız sayısına göre sıralı histogram
+        Map<String, Long> ratingCounts = new LinkedHashMap<>();
+        ratingCounts.put("1", summary.getRating1());
+        ratingCounts.put("2", summary.getRating2());
+        ratingCounts.put("3", summary.getRating3());
+        ratingCounts.put("4", summary.getRating4());
+        ratingCounts.put("5", summary.getRating5());
+
         Map<String, Object> stats = Map.of(
-            "averageRating", averageRating,
-            "reviewCount", reviewCount
+            "averageRating", summary.getAverageRating(),
+            "reviewCount", summary.getReviewCount(),
+            "ratingCounts", ratingCounts
         );
         
         return ResponseEntity.ok(stats);
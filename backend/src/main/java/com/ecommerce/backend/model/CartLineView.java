@@ -0,0 +1,33 @@
+package com.ecommerce.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Sepet görünümündeki tek satır: yalnızca listede gösterilen ürün alanları taşınır
+@Data
+@NoArgsConstructor
+public class CartLineView {
+    // Sorgu satırındaki sepet id'si; yanıtta CartView.cartId olarak bir kez yer alır
+    @JsonIgnore
+    private Long cartId;
+    private Long productId;
+    private String name;
+    private double price;
+    private String imageUrl;
+    private int quantity;
+
+    // JPQL constructor ifadesi de bunu kullanır: boş sepette LEFT JOIN kalem alanlarını null döndürür
+    public CartLineView(Long cartId, Long productId, String name, Double price, String imageUrl, Integer quantity) {
+        this.cartId = cartId;
+        this.productId = productId;
+        this.name = name;
+        this.price = price != null ? price : 0.0;
+        this.imageUrl = imageUrl;
+        this.quantity = quantity != null ? quantity : 0;
+    }
+
+    public double getLineTotal() {
+        return price * quantity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// GET /api/cart/{userId}/view yanıtı: kalemler, ürün özeti ve toplamlar tek sorgudan üretilir
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartView {
+    private Long cartId;
+    private List<CartLineView> items;
+    private int itemCount;
+    private double totalPrice;
+
+    public static CartView of(Long cartId, List<CartLineView> items) {
+        int itemCount = 0;
+        double totalPrice = 0.0;
+        for (CartLineView item : items) {
+            itemCount += item.getQuantity();
+            totalPrice += item.getLineTotal();
+        }
+        return new CartView(cartId, items, itemCount, totalPrice);
+    }
+}
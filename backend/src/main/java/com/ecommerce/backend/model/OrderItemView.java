@@ -0,0 +1,19 @@
+package com.ecommerce.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Açılan siparişin kalemleri: açıklama snapshot'ı ve Product nesnesi taşınmaz
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemView {
+    private Long id;
+    // Ürün silinmişse null
+    private Long productId;
+    private String productName;
+    private String productImageUrl;
+    private Integer quantity;
+    private Double unitPrice;
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.backend.model;
+
+import java.time.LocalDateTime;
+
+// Aboneye iletilen durum değişikliği; id outbox kaydının id'sidir, aynı olay tekrar gelebilir
+public final class OrderStatusEvent {
+    private final Long id;
+    private final Long orderId;
+    private final Long userId;
+    private final OrderStatus oldStatus;
+    private final OrderStatus newStatus;
+    private final LocalDateTime createdAt;
+
+    public OrderStatusEvent(Long id, Long orderId, Long userId, OrderStatus oldStatus, OrderStatus newStatus,
+                            LocalDateTime createdAt) {
+        this.id = id;
+        this.orderId = orderId;
+        this.userId = userId;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public OrderStatus getOldStatus() {
+        return oldStatus;
+    }
+
+    public OrderStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Sipariş geçmişi listesindeki tek satır: kalemler yüklenmez, yalnızca kalem sayısı taşınır
+@Data
+@NoArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private double totalAmount;
+    private int itemCount;
+
+    // JPQL constructor ifadesi kullanır: COUNT Long döner
+    public OrderSummary(Long id, LocalDateTime orderDate, OrderStatus status, Double totalAmount, Long itemCount) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount != null ? totalAmount : 0.0;
+        this.itemCount = itemCount != null ? itemCount.intValue() : 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.backend.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opak sayfa imleci: "sıralama|son id|son sıralama değeri" bilgisinin Base64 hali.
+// Sıralama adı imlece gömülür ki başka bir sıralamayla karıştırılmasın.
+public final class PageCursor {
+
+    private final String sort;
+    private final Long id;
+    private final String value;
+
+    private PageCursor(String sort, Long id, String value) {
+        this.sort = sort;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static String encode(String sort, Long id, Object value) {
+        String raw = sort + "|" + id + "|" + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("Sayfa imleci bu sıralamaya ait değil");
+            }
+            return new PageCursor(parts[0], Long.valueOf(parts[1]), parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Geçersiz sayfa imleci: " + cursor);
+        }
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Double getValueAsDouble() {
+        return Double.valueOf(value);
+    }
+
+    public LocalDateTime getValueAsDateTime() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Geçersiz sayfa imleci değeri: " + value);
+        }
+    }
+}
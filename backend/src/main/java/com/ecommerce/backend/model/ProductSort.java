@@ -0,0 +1,19 @@
+package com.ecommerce.backend.model;
+
+import java.util.Locale;
+
+public enum ProductSort {
+    ID,
+    PRICE_ASC,
+    PRICE_DESC,
+    NAME;
+
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) return ID;
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Geçersiz sıralama: " + value);
+        }
+    }
+}
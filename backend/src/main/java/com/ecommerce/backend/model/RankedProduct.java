@@ -0,0 +1,24 @@
+package com.ecommerce.backend.model;
+
+import com.ecommerce.backend.Entity.Product;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ana sayfa raylarındaki tek satır: sıralama puanı ve puanın dayandığı sayılar
+@Data
+@NoArgsConstructor
+public class RankedProduct {
+    private Product product;
+    private double score;
+    private long reviewCount;
+    private double averageRating;
+    // Kayan penceredeki hareket: satılan adet + ağırlıklı yorum sayısı
+    private long recentActivity;
+
+    public RankedProduct(double score, long reviewCount, double averageRating, long recentActivity) {
+        this.score = score;
+        this.reviewCount = reviewCount;
+        this.averageRating = averageRating;
+        this.recentActivity = recentActivity;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Ürün sayfasındaki yorum akışının tek satırı: ürün ve kullanıcı varlıkları yüklenmez,
+// yalnızca yorumu yazanın kullanıcı adı taşınır
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewView {
+    private Long id;
+    private Integer rating;
+    private String comment;
+    private LocalDateTime reviewDate;
+    private String reviewerName;
+}
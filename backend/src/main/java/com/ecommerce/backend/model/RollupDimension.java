@@ -0,0 +1,20 @@
+package com.ecommerce.backend.model;
+
+import java.util.Locale;
+
+// Satış özetlerinin kırılımı; DAY dışındakiler de gün bazında tutulur
+public enum RollupDimension {
+    DAY,
+    CATEGORY,
+    SELLER,
+    PRODUCT;
+
+    public static RollupDimension fromParam(String value) {
+        if (value == null || value.isBlank()) return DAY;
+        try {
+            return RollupDimension.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Geçersiz kırılım: " + value);
+        }
+    }
+}
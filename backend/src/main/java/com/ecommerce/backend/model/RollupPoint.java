@@ -0,0 +1,18 @@
+package com.ecommerce.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Günlük satış serisindeki tek nokta
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupPoint {
+    private LocalDate day;
+    private double revenue;
+    private long units;
+    private long orderCount;
+}
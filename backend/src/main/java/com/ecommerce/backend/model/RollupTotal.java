@@ -0,0 +1,22 @@
+package com.ecommerce.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Bir kırılım anahtarının (kategori/satıcı/ürün id'si) tarih aralığındaki toplamı
+@Data
+@NoArgsConstructor
+public class RollupTotal {
+    private Long key;
+    private double revenue;
+    private long units;
+    private long orderCount;
+
+    // JPQL constructor ifadesi kullanır: SUM boş aralıkta null döner
+    public RollupTotal(Long key, Double revenue, Long units, Long orderCount) {
+        this.key = key;
+        this.revenue = revenue != null ? revenue : 0.0;
+        this.units = units != null ? units : 0;
+        this.orderCount = orderCount != null ? orderCount : 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.backend.model;
+
+import com.ecommerce.backend.Entity.SellerOrderLine;
+import com.ecommerce.backend.Entity.SellerRevenue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// GET /api/orders/seller/{sellerId}/lines yanıtı: satıcının kalem sayfası ve önceden hesaplanmış toplamları
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrderPage {
+    private List<SellerOrderLine> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private SellerRevenue totals;
+
+    public static SellerOrderPage of(CursorPage<SellerOrderLine> page, SellerRevenue totals) {
+        return new SellerOrderPage(page.getItems(), page.getNextCursor(), page.isHasMore(), totals);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.Entity.ArchivedOrder;
+import com.ecommerce.backend.model.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    // orders tablosundaki geçmiş sorgularıyla aynı sıra ve imleç: en yeni önce, (orderDate, id)
+    @Query("SELECT new com.ecommerce.backend.model.OrderSummary(a.orderId, a.orderDate, a.status, a.totalAmount, CAST(a.itemCount AS Long)) " +
+           "FROM ArchivedOrder a WHERE a.userId = :userId ORDER BY a.orderDate DESC, a.orderId DESC")
+    List<OrderSummary> findFirstSummaryPageByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.backend.model.OrderSummary(a.orderId, a.orderDate, a.status, a.totalAmount, CAST(a.itemCount AS Long)) " +
+           "FROM ArchivedOrder a WHERE a.userId = :userId AND (a.orderDate, a.orderId) < (:afterDate, :afterId) " +
+           "ORDER BY a.orderDate DESC, a.orderId DESC")
+    List<OrderSummary> findNextSummaryPageByUserId(Long userId, LocalDateTime afterDate, Long afterId, Pageable pageable);
+
+    List<ArchivedOrder> findByUserIdOrderByOrderDateDescOrderIdDesc(Long userId);
+
+    // Yönetici arşiv listesi, en yeni önce. İlk sayfa ve (orderDate, orderId) imlecinden sonraki sayfalar
+    // ayrı sorgulardır; ikisi de (order_date, order_id) indeksinde doğrudan konumlanır
+    @Query("SELECT new com.ecommerce.backend.model.OrderSummary(a.orderId, a.orderDate, a.status, a.totalAmount, CAST(a.itemCount AS Long)) " +
+           "FROM ArchivedOrder a ORDER BY a.orderDate DESC, a.orderId DESC")
+    List<OrderSummary> findFirstSummaryPage(Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.backend.model.OrderSummary(a.orderId, a.orderDate, a.status, a.totalAmount, CAST(a.itemCount AS Long)) " +
+           "FROM ArchivedOrder a WHERE (a.orderDate, a.orderId) < (:afterDate, :afterId) " +
+           "ORDER BY a.orderDate DESC, a.orderId DESC")
+    List<OrderSummary> findNextSummaryPage(LocalDateTime afterDate, Long afterId, Pageable pageable);
+}
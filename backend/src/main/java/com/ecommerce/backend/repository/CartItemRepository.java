@@ -0,0 +1,46 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.Entity.CartItem;
+import com.ecommerce.backend.model.CartLineView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Sepet kalemleri (cart_id, product_id) anahtarıyla tek SQL ifadesiyle güncellenir;
+// sepetin tamamı yüklenip kaydedilmez
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    // Sepet görünümü tek sorguda: sepet id'si, kalemler ve ürün özeti. Sepet boşsa kalem alanları null
+    // olan tek satır, sepet yoksa boş liste döner
+    @Query("SELECT new com.ecommerce.backend.model.CartLineView(c.id, p.id, p.name, p.price, p.imageUrl, ci.quantity) " +
+            "FROM Cart c LEFT JOIN c.items ci LEFT JOIN ci.product p " +
+            "WHERE c.user.id = :userId ORDER BY ci.id")
+    List<CartLineView> findCartLinesByUserId(Long userId);
+
+    // Ürün sepette varsa miktarı artırır, yoksa yeni kalem ekler
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "MERGE INTO cart_items ci " +
+            "USING (VALUES (CAST(:cartId AS BIGINT), CAST(:productId AS BIGINT), CAST(:quantity AS INT))) " +
+            "AS src(cart_id, product_id, quantity) " +
+            "ON ci.cart_id = src.cart_id AND ci.product_id = src.product_id " +
+            "WHEN MATCHED THEN UPDATE SET ci.quantity = ci.quantity + src.quantity, ci.version = ci.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (cart_id, product_id, quantity) " +
+            "VALUES (src.cart_id, src.product_id, src.quantity)", nativeQuery = true)
+    int upsertIncrement(Long cartId, Long productId, int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CartItem ci SET ci.quantity = :quantity, ci.version = ci.version + 1 WHERE ci.cart.id = :cartId AND ci.product.id = :productId")
+    int updateQuantity(Long cartId, Long productId, int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId AND ci.product.id = :productId")
+    int deleteByCartIdAndProductId(Long cartId, Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteByCartId(Long cartId);
+}
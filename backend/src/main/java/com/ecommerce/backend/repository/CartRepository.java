@@ -12,7 +12,19 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     
     @Query("SELECT c FROM Cart c WHERE c.user.id = :userId")
     Optional<Cart> findByUserId(Long userId);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
+
+    // Sepet, kalemleri ve ürünleriyle tek sorguda yüklenir
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.product WHERE c.id = :cartId")
+    Optional<Cart> findByIdWithItems(Long cartId);
     
+    // Kalemler SQL ile değiştiğinde sepet sürümü artırılır; eski sürümle yapılan save'ler çakışma alır
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.version = c.version + 1 WHERE c.id = :cartId")
+    int incrementVersion(Long cartId);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM CartItem ci WHERE ci.product.id = :productId")
@@ -18,6 +18,12 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @Query("SELECT f FROM Favorite f JOIN FETCH f.product WHERE f.user.id = :userId")
     List<Favorite> findAllByUserIdWithProducts(Long userId);
     
+    // Yalnızca id'ler: ürünler yüklenmez, (user_id, product_id) indeksinden okunur
+    @Query("SELECT f.product.id FROM Favorite f WHERE f.user.id = :userId")
+    List<Long> findProductIdsByUserId(Long userId);
+
+    boolean existsByUserIdAndProductId(Long userId, Long productId);
+
     @Query("SELECT f FROM Favorite f WHERE f.product.id = :productId")
     List<Favorite> findByProductId(Long productId);
     
@@ -0,0 +1,21 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.Entity.OrderEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    List<OrderEvent> findByOrderIdOrderByIdAsc(Long orderId);
+
+    // SSE yeniden bağlantısında kaçırılan olaylar
+    List<OrderEvent> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
+    // Kaçırılan olaylar tekrar gönderim sınırını aşınca istemci bu olaydan itibaren devam eder
+    Optional<OrderEvent> findTopByUserIdOrderByIdDesc(Long userId);
+}
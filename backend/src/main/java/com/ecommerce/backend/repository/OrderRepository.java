@@ -1,11 +1,16 @@
 package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.model.OrderItemView;
+import com.ecommerce.backend.model.OrderSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
  
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -16,6 +21,26 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.product WHERE o.user.id = :userId")
     List<Order> findAllByUserIdWithOrderItemsAndProducts(Long userId);
 
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.product WHERE o.id = :orderId")
+    Optional<Order> findByIdWithOrderItemsAndProducts(Long orderId);
+
+    // Sipariş geçmişi sayfası: en yeni sipariş önce, (orderDate, id) imlecinden devam edilir.
+    // Pageable yalnızca LIMIT için kullanılır. İlk sayfa ve sonraki sayfalar ayrı sorgulardır.
+    @Query("SELECT new com.ecommerce.backend.model.OrderSummary(o.id, o.orderDate, o.status, o.totalAmount, COUNT(oi.id)) " +
+           "FROM Order o LEFT JOIN o.orderItems oi WHERE o.user.id = :userId " +
+           "GROUP BY o.id, o.orderDate, o.status, o.totalAmount ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findFirstSummaryPageByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.backend.model.OrderSummary(o.id, o.orderDate, o.status, o.totalAmount, COUNT(oi.id)) " +
+           "FROM Order o LEFT JOIN o.orderItems oi WHERE o.user.id = :userId " +
+           "AND (o.orderDate, o.id) < (:afterDate, :afterId) " +
+           "GROUP BY o.id, o.orderDate, o.status, o.totalAmount ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findNextSummaryPageByUserId(Long userId, LocalDateTime afterDate, Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.backend.model.OrderItemView(oi.id, p.id, oi.productName, oi.productImageUrl, oi.quantity, oi.unitPrice) " +
+           "FROM OrderItem oi LEFT JOIN oi.product p WHERE oi.order.id = :orderId ORDER BY oi.id")
+    List<OrderItemView> findItemViewsByOrderId(Long orderId);
+
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId")
     List<Order> findAllByUserId(Long userId);
         
@@ -0,0 +1,31 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.Entity.ProductImportJob;
+import com.ecommerce.backend.model.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, String> {
+    List<ProductImportJob> findByStatusIn(Collection<ImportJobStatus> statuses);
+
+    // Kuyruktaki işi tek bir iş parçacığı alabilir; iş QUEUED değilse 0 döner
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE ProductImportJob j SET j.status = com.ecommerce.backend.model.ImportJobStatus.RUNNING, " +
+           "j.runStartedAt = :startedAt, j.runStartProcessedCount = j.processedCount " +
+           "WHERE j.id = :id AND j.status = com.ecommerce.backend.model.ImportJobStatus.QUEUED")
+    int claimQueued(String id, LocalDateTime startedAt);
+
+    // Henüz başlamamış işi iptal eder; iş bu arada başladıysa 0 döner
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE ProductImportJob j SET j.status = com.ecommerce.backend.model.ImportJobStatus.CANCELLED, " +
+           "j.finishedAt = :finishedAt WHERE j.id = :id AND j.status = com.ecommerce.backend.model.ImportJobStatus.QUEUED")
+    int cancelQueued(String id, LocalDateTime finishedAt);
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.Entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.Query;
 
@@ -11,4 +13,44 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory_Id(Long categoryId);
     @Query("SELECT p FROM Product p WHERE p.seller.id = :sellerId")
     List<Product> findBySellerId(Long sellerId);
-}
\ No newline at end of file
+
+    // Sipariş fiyatlandırması: yalnızca (id, price) çiftleri, tek sorguda
+    @Query("SELECT p.id, p.price FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findPricesByIds(Collection<Long> ids);
+
+    // Keyset sayfalama, ilk sayfa: sıralama Pageable'dan gelir, OFFSET her zaman 0'dır
+    @Query("SELECT p FROM Product p")
+    List<Product> findFirstPage(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
+    List<Product> findFirstPageInCategory(Long categoryId, Pageable pageable);
+
+    // Sonraki sayfalar: son görülen (değer, id) çiftinden satır değeri karşılaştırmasıyla devam edilir.
+    // Koşulda OR/IS NULL olmadığı için (değer, id) indeksinde doğrudan konumlanılabilir.
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<Product> findNextPageById(Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.id > :afterId ORDER BY p.id ASC")
+    List<Product> findNextPageByIdInCategory(Long categoryId, Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE (p.price, p.id) > (:afterPrice, :afterId) ORDER BY p.price ASC, p.id ASC")
+    List<Product> findNextPageByPriceAsc(Double afterPrice, Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND (p.price, p.id) > (:afterPrice, :afterId) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findNextPageByPriceAscInCategory(Long categoryId, Double afterPrice, Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE (p.price, p.id) < (:afterPrice, :afterId) ORDER BY p.price DESC, p.id DESC")
+    List<Product> findNextPageByPriceDesc(Double afterPrice, Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND (p.price, p.id) < (:afterPrice, :afterId) " +
+           "ORDER BY p.price DESC, p.id DESC")
+    List<Product> findNextPageByPriceDescInCategory(Long categoryId, Double afterPrice, Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE (p.name, p.id) > (:afterName, :afterId) ORDER BY p.name ASC, p.id ASC")
+    List<Product> findNextPageByName(String afterName, Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND (p.name, p.id) > (:afterName, :afterId) " +
+           "ORDER BY p.name ASC, p.id ASC")
+    List<Product> findNextPageByNameInCategory(Long categoryId, String afterName, Long afterId, Pageable pageable);
+}
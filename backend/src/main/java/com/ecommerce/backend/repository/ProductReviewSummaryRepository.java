@@ -0,0 +1,9 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.Entity.ProductReviewSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductReviewSummaryRepository extends JpaRepository<ProductReviewSummary, Long> {
+}
@@ -1,23 +1,40 @@
 package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.Entity.Review;
+import com.ecommerce.backend.model.ReviewView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     List<Review> findByProductIdOrderByReviewDateDesc(Long productId);
     
     List<Review> findByUserIdOrderByReviewDateDesc(Long userId);
+
+    // Ürün yorum akışı: en yeni yorum önce, (reviewDate, id) imlecinden devam edilir.
+    // Pageable yalnızca LIMIT için kullanılır. İlk sayfa ve sonraki sayfalar ayrı sorgulardır; koşulda
+    // OR/IS NULL olmadığı için ikisi de (product_id, review_date, id) sırasında doğrudan konumlanır.
+    @Query("SELECT new com.ecommerce.backend.model.ReviewView(r.id, r.rating, r.comment, r.reviewDate, u.username) " +
+           "FROM Review r JOIN r.user u WHERE r.product.id = :productId " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<ReviewView> findFirstFeedPageByProductId(Long productId, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.backend.model.ReviewView(r.id, r.rating, r.comment, r.reviewDate, u.username) " +
+           "FROM Review r JOIN r.user u WHERE r.product.id = :productId " +
+           "AND (r.reviewDate, r.id) < (:afterDate, :afterId) " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<ReviewView> findNextFeedPageByProductId(Long productId, LocalDateTime afterDate, Long afterId, Pageable pageable);
     
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product.id = :productId")
-    Double findAverageRatingByProductId(@Param("productId") Long productId);
-    
-    @Query("SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId")
-    Long countByProductId(@Param("productId") Long productId);
-    
+    // Güncelleme/silme sırasında özet eski puanla tutarlı kalsın diye satır kilitlenir
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Review> findWithLockById(Long id);
+
     boolean existsByProductIdAndUserId(Long productId, Long userId);
 } 
\ No newline at end of file
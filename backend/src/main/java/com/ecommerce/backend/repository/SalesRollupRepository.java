@@ -0,0 +1,29 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.Entity.SalesRollup;
+import com.ecommerce.backend.model.RollupDimension;
+import com.ecommerce.backend.model.RollupPoint;
+import com.ecommerce.backend.model.RollupTotal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    @Query("SELECT new com.ecommerce.backend.model.RollupPoint(r.salesDay, r.revenue, r.units, r.orderCount) " +
+           "FROM SalesRollup r WHERE r.dimension = com.ecommerce.backend.model.RollupDimension.DAY " +
+           "AND r.salesDay BETWEEN :from AND :to ORDER BY r.salesDay")
+    List<RollupPoint> findDailySeries(LocalDate from, LocalDate to);
+
+    // key null ise aralıktaki tüm anahtarlar ciroya göre sıralanır; Pageable yalnızca LIMIT için kullanılır
+    @Query("SELECT new com.ecommerce.backend.model.RollupTotal(r.dimKey, SUM(r.revenue), SUM(r.units), SUM(r.orderCount)) " +
+           "FROM SalesRollup r WHERE r.dimension = :dimension AND r.salesDay BETWEEN :from AND :to " +
+           "AND (:key IS NULL OR r.dimKey = :key) " +
+           "GROUP BY r.dimKey ORDER BY SUM(r.revenue) DESC, r.dimKey")
+    List<RollupTotal> findTotals(RollupDimension dimension, LocalDate from, LocalDate to, Long key, Pageable pageable);
+}
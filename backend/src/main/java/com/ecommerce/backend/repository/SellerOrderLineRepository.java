@@ -0,0 +1,24 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.Entity.SellerOrderLine;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SellerOrderLineRepository extends JpaRepository<SellerOrderLine, Long> {
+
+    // Satıcının kalemleri en yeni sipariş önce, (orderDate, id) imlecinden devam edilir.
+    // Pageable yalnızca LIMIT için kullanılır. İlk sayfa ve sonraki sayfalar ayrı sorgulardır.
+    @Query("SELECT l FROM SellerOrderLine l WHERE l.sellerId = :sellerId ORDER BY l.orderDate DESC, l.id DESC")
+    List<SellerOrderLine> findFirstPageBySellerId(Long sellerId, Pageable pageable);
+
+    @Query("SELECT l FROM SellerOrderLine l WHERE l.sellerId = :sellerId " +
+           "AND (l.orderDate, l.id) < (:afterDate, :afterId) " +
+           "ORDER BY l.orderDate DESC, l.id DESC")
+    List<SellerOrderLine> findNextPageBySellerId(Long sellerId, LocalDateTime afterDate, Long afterId, Pageable pageable);
+}
@@ -3,21 +3,63 @@ package com.ecommerce.backend.service;
 import com.ecommerce.backend.Entity.Cart;
 import com.ecommerce.backend.Entity.CartItem;
 import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.repository.CartItemRepository;
 import com.ecommerce.backend.repository.CartRepository;
 import com.ecommerce.backend.repository.ProductRepository;
 import com.ecommerce.backend.repository.UserRepository;
 import com.ecommerce.backend.Entity.Product;
-import lombok.RequiredArgsConstructor;
+import com.ecommerce.backend.model.CartLineView;
+import com.ecommerce.backend.model.CartView;
+import com.ecommerce.backend.util.StripedLocks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+// Sepet yazımları kullanıcı id'sine göre paylaştırılmış bir kilitle aynı süreçte sıraya girer;
+// süreçler arası çakışmalar @Version ile yakalanır ve işlem sınırlı sayıda yeniden denenir.
+// Aynı anda sepet oluşturma user_id unique kısıtına takılırsa diğer sürecin sepeti kullanılır.
 @Service
-@RequiredArgsConstructor
 public class CartService {
 
 private final CartRepository cartRepository;
+private final CartItemRepository cartItemRepository;
 private final ProductRepository productRepository;
 private final UserRepository userRepository;
+private final ProductService productService;
+private final CartWriteBehindStore cartStore;
+private final TransactionTemplate transactionTemplate;
+private final StripedLocks userLocks;
+private final int maxAttempts;
+
+public CartService(CartRepository cartRepository,
+                   CartItemRepository cartItemRepository,
+                   ProductRepository productRepository,
+                   UserRepository userRepository,
+                   ProductService productService,
+                   CartWriteBehindStore cartStore,
+                   PlatformTransactionManager transactionManager,
+                   @Value("${cart.lock-stripes:64}") int lockStripes,
+                   @Value("${cart.max-attempts:5}") int maxAttempts) {
+    this.cartRepository = cartRepository;
+    this.cartItemRepository = cartItemRepository;
+    this.productRepository = productRepository;
+    this.userRepository = userRepository;
+    this.productService = productService;
+    this.cartStore = cartStore;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.userLocks = new StripedLocks(lockStripes);
+    this.maxAttempts = Math.max(1, maxAttempts);
+}
 
 public Cart getCart(Long cartId) {
     Cart cart = cartRepository.findById(cartId).orElse(new Cart());
@@ -31,6 +73,11 @@ public Cart getCart(Long cartId) {
 }
 
 public Cart addToCart(Long cartId, Long productId, int quantity) {
+    dropFromStore(cartId);
+    return retrying(() -> transactionTemplate.execute(status -> addToCartOnce(cartId, productId, quantity)));
+}
+
+private Cart addToCartOnce(Long cartId, Long productId, int quantity) {
     Cart cart = cartRepository.findById(cartId).orElse(new Cart());
     
     // Items listesi null ise yeni ArrayList oluştur
@@ -38,8 +85,7 @@ public Cart addToCart(Long cartId, Long productId, int quantity) {
         cart.setItems(new ArrayList<>());
     }
 
-    Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
+    Product product = productService.getProductById(productId);
 
     // Mevcut ürün sepette var mı kontrol et
     CartItem existingItem = cart.getItems().stream()
@@ -63,106 +109,230 @@ public Cart addToCart(Long cartId, Long productId, int quantity) {
 }
 
 public Cart removeItem(Long cartId, Long itemId) {
-    Cart cart = cartRepository.findById(cartId)
-            .orElseThrow(() -> new RuntimeException("Sepet bulunamadı"));
+    dropFromStore(cartId);
+    return retrying(() -> transactionTemplate.execute(status -> {
+        Cart cart = cartRepository.findById(cartId)
+                .orElseThrow(() -> new RuntimeException("Sepet bulunamadı"));
 
-    cart.getItems().removeIf(item -> item.getId().equals(itemId));
-    return cartRepository.save(cart);
+        cart.getItems().removeIf(item -> item.getId().equals(itemId));
+        return cartRepository.save(cart);
+    }));
 }
 
+// İstemcinin gönderdiği sürüm eskiyse çakışma hatası döner; yeniden denenmez
 public Cart saveCart(Cart cart) {
+    if (cart.getId() != null) {
+        dropFromStore(cart.getId());
+    }
     return cartRepository.save(cart);
 }
 
 public Cart getCartByUserId(Long userId) {
-    Cart cart = cartRepository.findByUserId(userId).orElseGet(() -> {
-        // Kullanıcının sepeti yoksa yeni sepet oluştur
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
-        Cart newCart = new Cart();
-        newCart.setUser(user);
-        newCart.setItems(new ArrayList<>());
-        return cartRepository.save(newCart);
-    });
-    
-    // Items'ı manuel olarak yükle (LAZY loading için)
-    if (cart.getItems() != null) {
-        cart.getItems().size(); // LAZY loading'i tetikle
+    if (cartStore.isEnabled()) {
+        return userLocks.withLock(userId, () -> toCart(cartStore.get(userId, this::loadState)));
     }
-    
-    return cart;
+    // Sepet yoksa kullanıcı kilidi altında oluşturulur; kalemler ve ürünler tek sorguda yüklenir
+    Long cartId = cartRepository.findIdByUserId(userId).orElseGet(() -> getOrCreateCartId(userId));
+    return loadCart(cartId);
 }
 
-public Cart addToCartForUser(Long userId, Long productId, int quantity) {
-    Cart cart = getCartByUserId(userId);
-    
-    // Items listesi null ise yeni ArrayList oluştur
-    if (cart.getItems() == null) {
-        cart.setItems(new ArrayList<>());
+// Sepet sayfası için sade görünüm: kalemler ve ürün alanları tek sorguda, entity/proxy yüklenmeden
+public CartView getCartView(Long userId) {
+    if (cartStore.isEnabled()) {
+        return userLocks.withLock(userId, () -> toCartView(cartStore.get(userId, this::loadState)));
     }
 
-    Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
+    List<CartLineView> rows = cartItemRepository.findCartLinesByUserId(userId);
+    if (rows.isEmpty()) {
+        return CartView.of(getOrCreateCartId(userId), List.of());
+    }
+    Long cartId = rows.get(0).getCartId();
+    // Boş sepette LEFT JOIN'in ürettiği tek null satır atlanır
+    List<CartLineView> lines = rows.stream().filter(row -> row.getProductId() != null).toList();
+    return CartView.of(cartId, lines);
+}
 
-    // Mevcut ürün sepette var mı kontrol et
-    CartItem existingItem = cart.getItems().stream()
-            .filter(item -> item.getProduct().getId().equals(productId))
-            .findFirst()
-            .orElse(null);
-    
-    if (existingItem != null) {
-        // Mevcut ürünün miktarını artır
-        existingItem.setQuantity(existingItem.getQuantity() + quantity);
-    } else {
-        // Yeni ürün ekle
-        CartItem newItem = new CartItem();
-        newItem.setCart(cart);
-        newItem.setProduct(product);
-        newItem.setQuantity(quantity);
-        cart.getItems().add(newItem);
+// Sepet kalemleri (cart_id, product_id) üzerinden tek ifadeyle güncellenir; sepet boyutundan bağımsız
+public Cart addToCartForUser(Long userId, Long productId, int quantity) {
+    // Ürün yoksa hata fırlatır
+    productService.getProductById(productId);
+
+    if (cartStore.isEnabled()) {
+        return mutateStoredCart(userId, state -> {
+            state.add(productId, quantity);
+            return true;
+        });
     }
-    
-    return cartRepository.save(cart);
+    return mutateCart(userId, cartId -> {
+        cartItemRepository.upsertIncrement(cartId, productId, quantity);
+        return true;
+    });
 }
 
 public void clearCartForUser(Long userId) {
-    Cart cart = cartRepository.findByUserId(userId).orElse(null);
-    if (cart != null) {
-        cart.getItems().clear();
-        cartRepository.save(cart);
+    if (cartStore.isEnabled()) {
+        mutateStoredCart(userId, CartWriteBehindStore.CartState::clear);
+        return;
     }
+    if (cartRepository.findIdByUserId(userId).isEmpty()) return;
+    mutateCart(userId, cartId -> cartItemRepository.deleteByCartId(cartId) > 0);
 }
 
 public Cart updateQuantityForUser(Long userId, Long productId, int quantity) {
-    Cart cart = getCartByUserId(userId);
-    
-    if (cart.getItems() != null) {
-        CartItem existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElse(null);
-        
-        if (existingItem != null) {
-            if (quantity <= 0) {
-                cart.getItems().remove(existingItem);
-            } else {
-                existingItem.setQuantity(quantity);
+    if (cartStore.isEnabled()) {
+        return mutateStoredCart(userId, state -> {
+            if (!state.setQuantity(productId, quantity)) {
+                throw new RuntimeException("Ürün sepette bulunamadı");
             }
-            return cartRepository.save(cart);
-        }
+            return true;
+        });
     }
-    
-    throw new RuntimeException("Ürün sepette bulunamadı");
+    return mutateCart(userId, cartId -> {
+        int affected = quantity <= 0
+                ? cartItemRepository.deleteByCartIdAndProductId(cartId, productId)
+                : cartItemRepository.updateQuantity(cartId, productId, quantity);
+        if (affected == 0) {
+            throw new RuntimeException("Ürün sepette bulunamadı");
+        }
+        return true;
+    });
 }
 
 public Cart removeItemByProductId(Long userId, Long productId) {
-    Cart cart = getCartByUserId(userId);
-    
-    if (cart.getItems() != null) {
-        cart.getItems().removeIf(item -> item.getProduct().getId().equals(productId));
-        return cartRepository.save(cart);
+    if (cartStore.isEnabled()) {
+        return mutateStoredCart(userId, state -> state.remove(productId));
     }
-    
+    return mutateCart(userId, cartId -> cartItemRepository.deleteByCartIdAndProductId(cartId, productId) > 0);
+}
+
+// Kullanıcının kilidi altında, tek transaction'da kalem SQL'ini çalıştırır ve sepet sürümünü artırır.
+// Değişiklik olduysa true dönmeli
+private Cart mutateCart(Long userId, CartMutation mutation) {
+    return retrying(() -> userLocks.withLock(userId, () -> {
+        Long cartId = getOrCreateCartId(userId);
+        return transactionTemplate.execute(status -> {
+            if (mutation.apply(cartId)) {
+                cartRepository.incrementVersion(cartId);
+            }
+            return loadCart(cartId);
+        });
+    }));
+}
+
+// Checkout öncesi çağrılır: bellekteki sepet değişiklikleri veritabanına yazılır
+public void flushCart(Long userId) {
+    if (cartStore.isEnabled()) {
+        userLocks.withLock(userId, () -> {
+            cartStore.flush(userId);
+            return null;
+        });
+    }
+}
+
+// cart.store.mode=memory: değişiklik bellekte yapılır, veritabanına zamanlanmış flush ile yazılır
+private Cart mutateStoredCart(Long userId, Function<CartWriteBehindStore.CartState, Boolean> mutation) {
+    return userLocks.withLock(userId, () -> {
+        CartWriteBehindStore.CartState state = cartStore.get(userId, this::loadState);
+        mutation.apply(state);
+        return toCart(state);
+    });
+}
+
+private CartWriteBehindStore.CartState loadState(Long userId) {
+    Long cartId = getOrCreateCartId(userId);
+    return transactionTemplate.execute(status -> {
+        Cart cart = loadCart(cartId);
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        for (CartItem item : cart.getItems()) {
+            items.put(item.getProduct().getId(), item.getQuantity());
+        }
+        return new CartWriteBehindStore.CartState(cart.getId(), items, cart.getVersion());
+    });
+}
+
+// Bellekteki sepetten yanıt nesnesi üretilir; ürünler önbellekten tek seferde alınır
+private Cart toCart(CartWriteBehindStore.CartState state) {
+    Map<Long, Integer> quantities = state.getItems();
+    Cart cart = new Cart();
+    cart.setId(state.getCartId());
+    cart.setVersion(state.getVersion());
+    List<CartItem> items = new ArrayList<>(quantities.size());
+    for (Product product : productService.getProductsByIds(quantities.keySet())) {
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(quantities.get(product.getId()));
+        items.add(item);
+    }
+    cart.setItems(items);
     return cart;
 }
-}
\ No newline at end of file
+
+private CartView toCartView(CartWriteBehindStore.CartState state) {
+    Map<Long, Integer> quantities = state.getItems();
+    List<CartLineView> lines = new ArrayList<>(quantities.size());
+    for (Product product : productService.getProductsByIds(quantities.keySet())) {
+        lines.add(new CartLineView(state.getCartId(), product.getId(), product.getName(),
+                product.getPrice(), product.getImageUrl(), quantities.get(product.getId())));
+    }
+    return CartView.of(state.getCartId(), lines);
+}
+
+private void dropFromStore(Long cartId) {
+    if (cartStore.isEnabled()) {
+        cartStore.flushAndDrop(cartId);
+    }
+}
+
+private Long getOrCreateCartId(Long userId) {
+    return userLocks.withLock(userId, () -> {
+        try {
+            return transactionTemplate.execute(status -> findOrCreateCartId(userId));
+        } catch (DataIntegrityViolationException e) {
+            // Başka bir süreç aynı anda oluşturduysa onun sepeti kullanılır; yoksa gerçek bir kısıt hatasıdır
+            return cartRepository.findIdByUserId(userId).orElseThrow(() -> e);
+        }
+    });
+}
+
+// Kilit altında çağrılır; başka bir süreç aynı anda oluşturursa user_id unique kısıtı hata verir
+private Long findOrCreateCartId(Long userId) {
+    return cartRepository.findIdByUserId(userId).orElseGet(() -> {
+        // Kullanıcının sepeti yoksa yeni sepet oluştur
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
+        Cart newCart = new Cart();
+        newCart.setUser(user);
+        newCart.setItems(new ArrayList<>());
+        return cartRepository.saveAndFlush(newCart).getId();
+    });
+}
+
+private Cart loadCart(Long cartId) {
+    return cartRepository.findByIdWithItems(cartId)
+            .orElseThrow(() -> new RuntimeException("Sepet bulunamadı"));
+}
+
+// Yalnızca sürüm çakışmasında işlemi kısa, rastgele bir beklemeyle tekrarlar; diğer hatalar hemen döner
+private <T> T retrying(Supplier<T> action) {
+    for (int attempt = 1; ; attempt++) {
+        try {
+            return action.get();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (attempt >= maxAttempts) {
+                throw e;
+            }
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt + 1));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+}
+
+@FunctionalInterface
+private interface CartMutation {
+    boolean apply(Long cartId);
+}
+}
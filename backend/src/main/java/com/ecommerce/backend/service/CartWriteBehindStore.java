@@ -0,0 +1,458 @@
+package com.ecommerce.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// cart.store.mode=memory iken sepetler kullanıcı id'sine göre bellekte tutulur (boyut sınırlı LRU +
+// boşta kalma süresi). Değişen sepetler periyodik olarak, LRU'dan çıkarılırken ve kapanışta
+// JDBC batch'leri halinde cart / cart_items tablolarına yazılır. Kirli bir sepet yazılana kadar
+// "evicted" haritasında bekler; bu sırada gelen okuma veritabanı yerine bu kopyayı kullanır.
+// Yazılamayan bir sepet yalnızca kendisini kirli bırakır; diğer sepetlerin yazılmasını engellemez.
+@Slf4j
+@Component
+public class CartWriteBehindStore {
+
+    // Yalnızca değişen kalemler yazılır; ürün bu arada silindiyse kaynak satır oluşmaz ve kalem atlanır
+    private static final String UPSERT_SQL = "MERGE INTO cart_items ci " +
+            "USING (SELECT CAST(? AS BIGINT) AS cart_id, p.id AS product_id, CAST(? AS INT) AS quantity " +
+            "FROM products p WHERE p.id = ?) AS src " +
+            "ON ci.cart_id = src.cart_id AND ci.product_id = src.product_id " +
+            "WHEN MATCHED AND ci.quantity <> src.quantity THEN " +
+            "UPDATE SET ci.quantity = src.quantity, ci.version = ci.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (cart_id, product_id, quantity) " +
+            "VALUES (src.cart_id, src.product_id, src.quantity)";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?";
+    private static final String VERSION_SQL = "UPDATE cart SET version = version + 1 WHERE id = ?";
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final int flushBatchSize;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LinkedHashMap<Long, CartState> entries;
+    // LRU/TTL ile çıkarılmış ama henüz yazılmamış sepetler
+    private final Map<Long, CartState> evicted = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public CartWriteBehindStore(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${cart.store.mode:database}") String mode,
+                                @Value("${cart.store.max-size:10000}") int maxSize,
+                                @Value("${cart.store.ttl-seconds:1800}") long ttlSeconds,
+                                @Value("${cart.store.flush-interval-ms:2000}") long flushIntervalMillis,
+                                @Value("${cart.store.flush-batch-size:200}") int flushBatchSize) {
+        this.enabled = "memory".equalsIgnoreCase(mode);
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CartState> eldest) {
+                if (size() <= CartWriteBehindStore.this.maxSize) return false;
+                if (eldest.getValue().isDirty()) {
+                    evicted.put(eldest.getKey(), eldest.getValue());
+                }
+                return true;
+            }
+        };
+
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cart-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushScheduled,
+                    flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Kullanıcının kilidi altında çağrılmalı; sepet bellekte yoksa loader ile veritabanından yüklenir
+    public CartState get(Long userId, Function<Long, CartState> loader) {
+        CartState state;
+        synchronized (this) {
+            state = entries.get(userId);
+            if (state == null) {
+                state = evicted.remove(userId);
+                if (state != null) {
+                    entries.put(userId, state);
+                }
+            }
+        }
+        if (state == null) {
+            state = loader.apply(userId);
+            synchronized (this) {
+                entries.put(userId, state);
+            }
+        }
+        state.touch();
+        if (!evicted.isEmpty()) {
+            try {
+                scheduler.execute(this::flushEvicted);
+            } catch (RejectedExecutionException e) {
+                // Kapanış sırasında: bekleyen sepetler shutdown() içinde yazılır
+            }
+        }
+        return state;
+    }
+
+    // Checkout öncesi: kullanıcının bekleyen değişiklikleri hemen yazılır. Zamanlanmış flush'ın aldığı ama
+    // henüz commit etmediği farklar da beklenir; dönüşte o ana kadarki tüm değişiklikler veritabanındadır.
+    public void flush(Long userId) {
+        CartState state;
+        synchronized (this) {
+            state = entries.get(userId);
+        }
+        if (state == null) {
+            state = evicted.get(userId);
+        }
+        if (state == null) return;
+        while (true) {
+            if (state.isDirty()) {
+                // Checkout hatayı görmeli: tek sepet doğrudan yazılır, hata yukarı iletilir
+                writeGroup(List.of(state));
+            }
+            state.awaitWrites();
+            // Başka iş parçacığının yazması başarısız olduysa fark geri eklenmiştir; bu kez burada yazılır
+            if (!state.isDirty()) break;
+        }
+        evicted.remove(userId, state);
+    }
+
+    // Sepet id'si ile yazılan eski uç noktalar için: sepet yazılır ve bellekten çıkarılır
+    public void flushAndDrop(Long cartId) {
+        List<Map.Entry<Long, CartState>> matches = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<Long, CartState> entry : entries.entrySet()) {
+                if (entry.getValue().cartId.equals(cartId)) matches.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        for (Map.Entry<Long, CartState> entry : evicted.entrySet()) {
+            if (entry.getValue().cartId.equals(cartId)) matches.add(entry);
+        }
+        for (Map.Entry<Long, CartState> match : matches) {
+            flush(match.getKey());
+            synchronized (this) {
+                entries.remove(match.getKey(), match.getValue());
+            }
+        }
+    }
+
+    // Silinen ürünün kalemleri veritabanından ayrıca silinir; burada yalnızca bellekteki kopyalar temizlenir
+    public void removeProduct(Long productId) {
+        List<CartState> states;
+        synchronized (this) {
+            states = new ArrayList<>(entries.values());
+        }
+        states.addAll(evicted.values());
+        for (CartState state : states) {
+            state.discard(productId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) return;
+        // shutdownNow kullanılmaz: çalışan flush'ı kesmek H2 dosyasını kapatabilir
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Adımlar birbirinden bağımsızdır; biri başarısız olsa da diğer sepetler yazılmaya çalışılır
+        try {
+            flushEvicted();
+        } catch (RuntimeException e) {
+            log.error("Kapanışta çıkarılmış sepetler yazılamadı", e);
+        }
+        try {
+            flushDirty();
+        } catch (RuntimeException e) {
+            log.error("Kapanışta kirli sepetler yazılamadı", e);
+        }
+    }
+
+    // Başarısız sepetler kirli kalır ve bir sonraki turda tekrar denenir
+    private void flushScheduled() {
+        try {
+            expireIdle();
+        } catch (RuntimeException e) {
+            log.error("Boştaki sepetler çıkarılamadı", e);
+        }
+        try {
+            flushEvicted();
+        } catch (RuntimeException e) {
+            log.error("Çıkarılmış sepetler yazılamadı", e);
+        }
+        try {
+            flushDirty();
+        } catch (RuntimeException e) {
+            log.error("Kirli sepetler yazılamadı", e);
+        }
+    }
+
+    private void expireIdle() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            entries.entrySet().removeIf(entry -> {
+                CartState state = entry.getValue();
+                if (now - state.lastAccess < ttlMillis) return false;
+                if (state.isDirty()) {
+                    evicted.put(entry.getKey(), state);
+                }
+                return true;
+            });
+        }
+    }
+
+    private void flushEvicted() {
+        if (evicted.isEmpty()) return;
+        List<Map.Entry<Long, CartState>> pending = new ArrayList<>(evicted.entrySet());
+        write(pending.stream().map(Map.Entry::getValue).toList());
+        for (Map.Entry<Long, CartState> entry : pending) {
+            if (!entry.getValue().isDirty()) {
+                evicted.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void flushDirty() {
+        List<CartState> dirty = new ArrayList<>();
+        synchronized (this) {
+            for (CartState state : entries.values()) {
+                if (state.isDirty()) dirty.add(state);
+            }
+        }
+        write(dirty);
+    }
+
+    // Sepetler flushBatchSize'lık gruplar halinde yazılır. Bir grup başarısız olursa sepetleri tek tek
+    // yeniden denenir; yalnızca yazılamayan sepet kirli kalır, sonraki gruplar atlanmaz.
+    private void write(List<CartState> states) {
+        for (int from = 0; from < states.size(); from += flushBatchSize) {
+            List<CartState> group = states.subList(from, Math.min(from + flushBatchSize, states.size()));
+            try {
+                writeGroup(group);
+            } catch (RuntimeException e) {
+                if (group.size() == 1) {
+                    log.warn("Sepet {} yazılamadı, sonraki turda tekrar denenecek", group.get(0).cartId, e);
+                    continue;
+                }
+                log.warn("{} sepetlik grup yazılamadı, sepetler tek tek deneniyor", group.size(), e);
+                for (CartState state : group) {
+                    try {
+                        writeGroup(List.of(state));
+                    } catch (RuntimeException single) {
+                        log.warn("Sepet {} yazılamadı, sonraki turda tekrar denenecek", state.cartId, single);
+                    }
+                }
+            }
+        }
+    }
+
+    // Grup tek transaction ve üç JDBC batch ile yazılır; hata olursa farklar geri eklenir ve hata iletilir
+    private void writeGroup(List<CartState> group) {
+        List<Snapshot> snapshots = new ArrayList<>(group.size());
+        for (CartState state : group) {
+            Snapshot snapshot = state.takeSnapshot();
+            if (snapshot != null) snapshots.add(snapshot);
+        }
+        if (snapshots.isEmpty()) return;
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> versions = new ArrayList<>(snapshots.size());
+        for (Snapshot snapshot : snapshots) {
+            Long cartId = snapshot.state.cartId;
+            snapshot.changed.forEach((productId, quantity) ->
+                    upserts.add(new Object[]{cartId, quantity, productId}));
+            for (Long productId : snapshot.removed) {
+                deletes.add(new Object[]{cartId, productId});
+            }
+            versions.add(new Object[]{cartId});
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!upserts.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+                if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                jdbcTemplate.batchUpdate(VERSION_SQL, versions);
+            });
+        } catch (RuntimeException e) {
+            snapshots.forEach(Snapshot::restore);
+            throw e;
+        }
+        snapshots.forEach(Snapshot::complete);
+    }
+
+    // Bir kullanıcının bellekteki sepeti. Değişiklikler ürün bazında izlenir, flush yalnızca farkı yazar
+    public static final class CartState {
+        private final Long cartId;
+        private final LinkedHashMap<Long, Integer> items;
+        private final Set<Long> changed = new HashSet<>();
+        private final Set<Long> removed = new HashSet<>();
+        private long version;
+        // Alınmış ama henüz commit edilmemiş ya da geri eklenmemiş fark sayısı
+        private int writesInFlight;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        public CartState(Long cartId, Map<Long, Integer> items, long version) {
+            this.cartId = cartId;
+            this.items = new LinkedHashMap<>(items);
+            this.version = version;
+        }
+
+        public Long getCartId() {
+            return cartId;
+        }
+
+        public synchronized long getVersion() {
+            return version;
+        }
+
+        public synchronized Map<Long, Integer> getItems() {
+            return new LinkedHashMap<>(items);
+        }
+
+        public synchronized void add(Long productId, int quantity) {
+            items.merge(productId, quantity, Integer::sum);
+            markChanged(productId);
+        }
+
+        // Ürün sepette yoksa false döner; miktar 0 veya altıysa kalem silinir
+        public synchronized boolean setQuantity(Long productId, int quantity) {
+            if (!items.containsKey(productId)) return false;
+            if (quantity <= 0) return remove(productId);
+            items.put(productId, quantity);
+            markChanged(productId);
+            return true;
+        }
+
+        public synchronized boolean remove(Long productId) {
+            if (items.remove(productId) == null) return false;
+            changed.remove(productId);
+            removed.add(productId);
+            version++;
+            return true;
+        }
+
+        public synchronized boolean clear() {
+            if (items.isEmpty()) return false;
+            removed.addAll(items.keySet());
+            changed.clear();
+            items.clear();
+            version++;
+            return true;
+        }
+
+        synchronized boolean isDirty() {
+            return !changed.isEmpty() || !removed.isEmpty();
+        }
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        private void markChanged(Long productId) {
+            changed.add(productId);
+            removed.remove(productId);
+            version++;
+        }
+
+        private synchronized void discard(Long productId) {
+            items.remove(productId);
+            changed.remove(productId);
+            removed.remove(productId);
+        }
+
+        private synchronized Snapshot takeSnapshot() {
+            if (!isDirty()) return null;
+            Map<Long, Integer> changedItems = new LinkedHashMap<>();
+            for (Long productId : changed) {
+                changedItems.put(productId, items.get(productId));
+            }
+            Snapshot snapshot = new Snapshot(this, changedItems, new HashSet<>(removed));
+            changed.clear();
+            removed.clear();
+            writesInFlight++;
+            return snapshot;
+        }
+
+        private synchronized void completed() {
+            writesInFlight--;
+            notifyAll();
+        }
+
+        // Yazma başarısız olursa fark geri eklenir; arada yapılan yeni değişiklikler korunur
+        private synchronized void restore(Snapshot snapshot) {
+            for (Long productId : snapshot.changed.keySet()) {
+                if (items.containsKey(productId) && !removed.contains(productId)) changed.add(productId);
+            }
+            for (Long productId : snapshot.removed) {
+                if (!items.containsKey(productId)) removed.add(productId);
+            }
+            completed();
+        }
+
+        // Şu ana kadar alınan tüm farklar commit edilene ya da geri eklenene kadar bekler
+        private synchronized void awaitWrites() {
+            boolean interrupted = false;
+            while (writesInFlight > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Snapshot {
+        private final CartState state;
+        private final Map<Long, Integer> changed;
+        private final Set<Long> removed;
+
+        private Snapshot(CartState state, Map<Long, Integer> changed, Set<Long> removed) {
+            this.state = state;
+            this.changed = changed;
+            this.removed = removed;
+        }
+
+        private void restore() {
+            state.restore(this);
+        }
+
+        private void complete() {
+            state.completed();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.repository.FavoriteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Kullanıcı id -> favori ürün id'leri (sıralı long[]) LRU önbelleği. Üyelik kontrolü ikili arama ile yapılır,
+// ürün nesnesi yüklenmez. Dizi yayımlandıktan sonra değişmez; ekleme/çıkarma yeni dizi yazar.
+@Component
+public class FavoriteIdCache {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final FavoriteRepository favoriteRepository;
+    private final int maxUsers;
+    private final LinkedHashMap<Long, long[]> entries;
+    // Yükleme sürerken gelen değişiklik, eski kümenin önbelleğe yazılmasını engeller
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public FavoriteIdCache(FavoriteRepository favoriteRepository,
+                           @Value("${favorite.cache.max-users:10000}") int maxUsers) {
+        this.favoriteRepository = favoriteRepository;
+        this.maxUsers = maxUsers;
+        // accessOrder=true: en uzun süredir okunmayan kullanıcı ilk çıkarılır
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                if (size() > FavoriteIdCache.this.maxUsers) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Önbellekte yoksa tek bir id sorgusuyla yüklenir
+    public long[] get(Long userId) {
+        synchronized (this) {
+            long[] cached = entries.get(userId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        long[] loaded = toSortedArray(favoriteRepository.findProductIdsByUserId(userId));
+        synchronized (this) {
+            if (generation.get() == loadGeneration && maxUsers > 0) {
+                entries.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public static boolean contains(long[] productIds, long productId) {
+        return Arrays.binarySearch(productIds, productId) >= 0;
+    }
+
+    // Kullanıcı önbellekte değilse bir şey yapılmaz; bir sonraki okuma veritabanından yükler
+    public synchronized void added(Long userId, Long productId) {
+        generation.incrementAndGet();
+        long[] current = entries.get(userId);
+        if (current == null) return;
+        int index = Arrays.binarySearch(current, productId);
+        if (index >= 0) return;
+        int insertAt = -index - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = productId;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        entries.put(userId, updated);
+    }
+
+    public synchronized void removed(Long userId, Long productId) {
+        generation.incrementAndGet();
+        long[] current = entries.get(userId);
+        if (current == null) return;
+        int index = Arrays.binarySearch(current, productId);
+        if (index < 0) return;
+        long[] updated = current.length == 1 ? EMPTY : new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        entries.put(userId, updated);
+    }
+
+    // Ürün silinince tüm kullanıcıların favorilerinden de silinir
+    public synchronized void productRemoved(Long productId) {
+        generation.incrementAndGet();
+        for (Long userId : List.copyOf(entries.keySet())) {
+            removed(userId, productId);
+        }
+    }
+
+    public synchronized void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            long productIds = 0;
+            for (long[] ids : entries.values()) {
+                productIds += ids.length;
+            }
+            stats.put("users", entries.size());
+            stats.put("productIds", productIds);
+        }
+        stats.put("maxUsers", maxUsers);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    // Aynı ürün birden fazla kez favorilenmiş olabilir; küme tekrarsızdır
+    private static long[] toSortedArray(List<Long> productIds) {
+        return productIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+}
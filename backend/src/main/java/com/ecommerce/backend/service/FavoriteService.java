@@ -9,16 +9,22 @@ import com.ecommerce.backend.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class FavoriteService {
+    public static final int MAX_MEMBERSHIP_BATCH = 200;
 
     private final FavoriteRepository favoriteRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final FavoriteIdCache favoriteIdCache;
 
     public List<Favorite> getAllFavorites() {
         return favoriteRepository.findAllWithProducts();
@@ -59,14 +65,40 @@ public class FavoriteService {
         favorite.setUser(user);
         favorite.setProduct(product);
         
-        return favoriteRepository.save(favorite);
+        Favorite saved = favoriteRepository.save(favorite);
+        favoriteIdCache.added(userId, productId);
+        return saved;
+    }
+
+    // Ürün grid'indeki kalp ikonları için: istenen her ürün id'si -> favoride mi (istek sırasıyla)
+    public Map<Long, Boolean> getFavoriteMembership(Long userId, Collection<Long> productIds) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(productIds);
+        if (uniqueIds.size() > MAX_MEMBERSHIP_BATCH) {
+            throw new IllegalArgumentException("En fazla " + MAX_MEMBERSHIP_BATCH + " ürün sorgulanabilir");
+        }
+        long[] favoriteIds = favoriteIdCache.get(userId);
+        Map<Long, Boolean> membership = new LinkedHashMap<>();
+        for (Long productId : uniqueIds) {
+            membership.put(productId, FavoriteIdCache.contains(favoriteIds, productId));
+        }
+        return membership;
     }
 
     public void deleteFavorite(Long id) {
+        Favorite favorite = favoriteRepository.findById(id).orElse(null);
         favoriteRepository.deleteById(id);
+        if (favorite == null) return;
+        // Proxy'de getId() kullanıcıyı/ürünü yüklemez
+        Long userId = favorite.getUser().getId();
+        Long productId = favorite.getProduct().getId();
+        // Aynı ürün için başka bir favori kaydı kaldıysa ürün kümede kalır
+        if (!favoriteRepository.existsByUserIdAndProductId(userId, productId)) {
+            favoriteIdCache.removed(userId, productId);
+        }
     }
 
     public void deleteAllFavorites() {
         favoriteRepository.deleteAll();
+        favoriteIdCache.clear();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,741 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.ArchivedOrder;
+import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.Entity.OrderItem;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.model.OrderItemView;
+import com.ecommerce.backend.model.OrderStatus;
+import com.ecommerce.backend.model.OrderSummary;
+import com.ecommerce.backend.repository.ArchivedOrderRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Soğuk sipariş arşivi. min-age-days'ten eski, teslim edilmiş ya da iptal edilmiş siparişler kalemleriyle
+// birlikte gzip'li NDJSON bloklar halinde yalnızca sona eklenen segment dosyalarına yazılır; archived_orders'a
+// küçük bir indeks kaydı eklenir ve sipariş sıcak tablolardan silinir. Okumalar indeksteki bloğu açar.
+// Blok yazılıp fsync edildikten sonra indeks ekleme ve silme tek transaction'dır: arada kesilirse sipariş
+// sıcak tabloda kalır, sahipsiz blok okunmaz ve sipariş bir sonraki turda yeniden arşivlenir.
+// Segmentte indekssiz sipariş verisi bırakılmaz: kullanılmayan ya da silinen siparişi içeren blok sıfırlanır.
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    private static final String CANDIDATES_SQL = "SELECT id, user_id, order_date, status, total_amount FROM orders " +
+            "WHERE status IN ('TESLIM_EDILDI', 'IPTAL_EDILDI') AND order_date < ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String ITEMS_SQL = "SELECT id, order_id, product_id, product_name, product_description, " +
+            "product_image_url, category_id, seller_id, quantity, unit_price FROM order_items WHERE order_id IN (%s) ORDER BY order_id, id";
+    private static final String LOCK_SQL = "SELECT id, status FROM orders WHERE id IN (%s) FOR UPDATE";
+    private static final String INDEX_SQL = "INSERT INTO archived_orders (order_id, user_id, order_date, status, " +
+            "total_amount, item_count, segment, block_offset, block_length, archived_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String BLOCKS_SQL = "SELECT order_id, segment, block_offset, block_length FROM archived_orders";
+    private static final String BLOCKS_ORDER_BY = " ORDER BY segment, block_offset";
+    private static final String SAME_BLOCK_SQL = "SELECT order_id FROM archived_orders " +
+            "WHERE segment = ? AND block_offset = ? AND order_id <> ?";
+    private static final String MOVE_BLOCK_SQL = "UPDATE archived_orders SET segment = ?, block_offset = ?, block_length = ? " +
+            "WHERE segment = ? AND block_offset = ? AND order_id <> ?";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{6})\\.ndjson\\.gz");
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ProductService productService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final long segmentMaxBytes;
+    private final long intervalMinutes;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Aynı anda tek arşivleme turu; satış özetlerinin yeniden oluşturulması da bu kilitle çalışır
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final AtomicLong archivedSinceStart = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile int lastRunArchived;
+    private int currentSegment = -1;
+    private ScheduledExecutorService scheduler;
+
+    public OrderArchiveService(ArchivedOrderRepository archivedOrderRepository,
+                               ProductService productService,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${order.archive.dir:./order-archive}") String directory,
+                               @Value("${order.archive.min-age-days:180}") int minAgeDays,
+                               @Value("${order.archive.batch-size:200}") int batchSize,
+                               @Value("${order.archive.segment-max-bytes:67108864}") long segmentMaxBytes,
+                               @Value("${order.archive.interval-minutes:60}") long intervalMinutes) {
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.productService = productService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    // interval-minutes=0 ise yalnızca yönetici isteğiyle çalışır
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (intervalMinutes <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (RuntimeException e) {
+                // Sipariş sıcak tabloda kalır, sonraki turda yeniden denenir
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    // Uygun siparişleri batch-size'lık bloklar halinde arşivler; arşivlenen sipariş sayısını döner
+    public int archive() {
+        runLock.lock();
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+            int archived = 0;
+            long afterId = 0;
+            while (true) {
+                List<ArchiveRow> orders = jdbcTemplate.query(CANDIDATES_SQL, (rs, rowNum) -> new ArchiveRow(
+                        rs.getLong("id"),
+                        rs.getObject("user_id", Long.class),
+                        rs.getTimestamp("order_date").toLocalDateTime(),
+                        rs.getString("status"),
+                        rs.getDouble("total_amount")), Timestamp.valueOf(cutoff), afterId, batchSize);
+                if (orders.isEmpty()) break;
+                afterId = orders.get(orders.size() - 1).id;
+                int fetched = orders.size();
+                loadItems(orders);
+                archived += archiveBlock(orders);
+                if (fetched < batchSize) break;
+            }
+            lastRunAt = LocalDateTime.now();
+            lastRunArchived = archived;
+            archivedSinceStart.addAndGet(archived);
+            return archived;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    // Arşivleme turuyla aynı anda çalışmaması gereken işler için (sipariş sıcak ve arşiv arasında taşınırken)
+    public <T> T runExclusive(Supplier<T> action) {
+        runLock.lock();
+        try {
+            return action.get();
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public boolean isArchived(Long orderId) {
+        return archivedOrderRepository.existsById(orderId);
+    }
+
+    // Blok yazıldıktan sonra değişen ya da silinen sipariş varsa blok sıfırlanır ve kalanlarla yeniden yazılır;
+    // arşivlenmeyen siparişin kopyası segmentte kalmaz
+    private int archiveBlock(List<ArchiveRow> orders) throws IOException {
+        List<ArchiveRow> pending = new ArrayList<>(orders);
+        while (!pending.isEmpty()) {
+            Block block = writeBlock(pending);
+            Set<Long> changed;
+            try {
+                changed = commit(pending, block);
+            } catch (RuntimeException e) {
+                erase(block);
+                throw e;
+            }
+            if (changed.isEmpty()) return pending.size();
+            erase(block);
+            pending.removeIf(order -> changed.contains(order.id));
+        }
+        return 0;
+    }
+
+    public Optional<Order> findOrder(Long orderId) {
+        return archivedOrderRepository.findById(orderId).map(entry -> {
+            JsonNode node = readBlock(entry).get(orderId);
+            return toOrders(List.of(node)).get(0);
+        });
+    }
+
+    // Kullanıcının arşivdeki siparişleri, en yeni önce
+    public List<Order> findOrdersByUser(Long userId) {
+        return readOrders(archivedOrderRepository.findByUserIdOrderByOrderDateDescOrderIdDesc(userId));
+    }
+
+    // Sipariş segmentten de silinir: bloktaki diğer siparişler yeni bir bloğa yazılıp indeksleri taşınır,
+    // eski blok commit sonrası sıfırlanır (geri alınırsa yeni blok sıfırlanır). Transaction içinde ve
+    // runExclusive altında çağrılmalı.
+    public boolean delete(Long orderId) {
+        Optional<ArchivedOrder> found = archivedOrderRepository.findById(orderId);
+        if (found.isEmpty()) return false;
+        ArchivedOrder entry = found.get();
+        Block oldBlock = new Block(entry.getSegment(), entry.getBlockOffset(), entry.getBlockLength());
+        List<Long> remaining = jdbcTemplate.queryForList(SAME_BLOCK_SQL, Long.class,
+                oldBlock.segment, oldBlock.offset, orderId);
+        Block newBlock = null;
+        if (!remaining.isEmpty()) {
+            Map<Long, JsonNode> nodes = readBlock(oldBlock.segment, oldBlock.offset, oldBlock.length);
+            List<JsonNode> kept = new ArrayList<>(remaining.size());
+            for (Long id : remaining) {
+                kept.add(nodes.get(id));
+            }
+            try {
+                newBlock = appendBlock(gzip(kept));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jdbcTemplate.update(MOVE_BLOCK_SQL, newBlock.segment, newBlock.offset, newBlock.length,
+                    oldBlock.segment, oldBlock.offset, orderId);
+        }
+        archivedOrderRepository.deleteById(orderId);
+
+        Block unusedOnRollback = newBlock;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        eraseQuietly(oldBlock);
+                    } else if (unusedOnRollback != null) {
+                        eraseQuietly(unusedOnRollback);
+                    }
+                }
+            });
+        } else {
+            eraseQuietly(oldBlock);
+        }
+        return true;
+    }
+
+    // İndeks kayıtlarının sırası korunur; her blok bir kez açılır
+    private List<Order> readOrders(List<ArchivedOrder> entries) {
+        if (entries.isEmpty()) return List.of();
+        Map<String, Map<Long, JsonNode>> blocks = new HashMap<>();
+        List<JsonNode> nodes = new ArrayList<>(entries.size());
+        for (ArchivedOrder entry : entries) {
+            Map<Long, JsonNode> block = blocks.computeIfAbsent(entry.getSegment() + ":" + entry.getBlockOffset(),
+                    key -> readBlock(entry));
+            nodes.add(block.get(entry.getOrderId()));
+        }
+        return toOrders(nodes);
+    }
+
+    public Optional<List<OrderItemView>> findItemViews(Long orderId) {
+        return findOrder(orderId).map(order -> order.getOrderItems().stream()
+                .map(item -> new OrderItemView(item.getId(),
+                        item.getProduct() != null ? item.getProduct().getId() : null,
+                        item.getProductName(), item.getProductImageUrl(), item.getQuantity(), item.getUnitPrice()))
+                .collect(Collectors.toList()));
+    }
+
+    public List<OrderSummary> findSummaryPage(Long userId, LocalDateTime afterDate, Long afterId, int limit) {
+        if (afterDate == null) {
+            return archivedOrderRepository.findFirstSummaryPageByUserId(userId, PageRequest.of(0, limit));
+        }
+        return archivedOrderRepository.findNextSummaryPageByUserId(userId, afterDate, afterId, PageRequest.of(0, limit));
+    }
+
+    // Tüm kullanıcıların arşivdeki siparişleri yalnızca indeksten okunur; bloklar açılmaz
+    public List<OrderSummary> findSummaryPage(LocalDateTime afterDate, Long afterId, int limit) {
+        if (afterDate == null) {
+            return archivedOrderRepository.findFirstSummaryPage(PageRequest.of(0, limit));
+        }
+        return archivedOrderRepository.findNextSummaryPage(afterDate, afterId, PageRequest.of(0, limit));
+    }
+
+    // Arşivdeki tüm siparişleri blok blok verir; yalnızca indekste kaydı olan siparişler döner
+    public void forEachArchivedBlock(Consumer<List<Order>> consumer) {
+        forEachArchivedBlock(null, null, null, consumer);
+    }
+
+    // from dahil, to hariç; filtreler indekste uygulanır, yalnızca eşleşen siparişlerin blokları açılır
+    public void forEachArchivedBlock(LocalDateTime from, LocalDateTime to, OrderStatus status, Consumer<List<Order>> consumer) {
+        StringBuilder sql = new StringBuilder(BLOCKS_SQL);
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add("order_date >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            conditions.add("order_date < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        if (status != null) {
+            conditions.add("status = ?");
+            params.add(status.name());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(BLOCKS_ORDER_BY);
+
+        BlockCollector collector = new BlockCollector(consumer);
+        jdbcTemplate.query(sql.toString(), rs -> {
+            collector.add(rs.getLong("order_id"), rs.getInt("segment"), rs.getLong("block_offset"), rs.getInt("block_length"));
+        }, params.toArray());
+        collector.flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("archivedOrders", archivedOrderRepository.count());
+        stats.put("archivedSinceStart", archivedSinceStart.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunArchived", lastRunArchived);
+        stats.put("minAgeDays", minAgeDays);
+        long segments = 0;
+        long bytes = 0;
+        if (Files.isDirectory(directory)) {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.filter(this::isSegment).toList()) {
+                    segments++;
+                    bytes += Files.size(file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        stats.put("segments", segments);
+        stats.put("segmentBytes", bytes);
+        return stats;
+    }
+
+    private void loadItems(List<ArchiveRow> orders) {
+        Map<Long, ArchiveRow> byId = new HashMap<>();
+        for (ArchiveRow order : orders) {
+            byId.put(order.id, order);
+        }
+        jdbcTemplate.query(String.format(ITEMS_SQL, joinIds(byId.keySet())), rs -> {
+            byId.get(rs.getLong("order_id")).items.add(new ArchiveItem(
+                    rs.getLong("id"),
+                    rs.getObject("product_id", Long.class),
+                    rs.getString("product_name"),
+                    rs.getString("product_description"),
+                    rs.getString("product_image_url"),
+                    rs.getObject("category_id", Long.class),
+                    rs.getObject("seller_id", Long.class),
+                    rs.getInt("quantity"),
+                    rs.getDouble("unit_price")));
+        });
+    }
+
+    // Diğer okumalar için bloğun yerini değiştirmez; yalnızca baytlarını sıfırlar
+    private void erase(Block block) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(block.segment), StandardOpenOption.WRITE)) {
+            ByteBuffer zeros = ByteBuffer.allocate(block.length);
+            while (zeros.hasRemaining()) {
+                channel.write(zeros, block.offset + zeros.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    private void eraseQuietly(Block block) {
+        try {
+            erase(block);
+        } catch (IOException e) {
+            log.error("Arşiv bloğu sıfırlanamadı: segment {} offset {}", block.segment, block.offset, e);
+        }
+    }
+
+    private byte[] gzip(List<JsonNode> nodes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator json = jsonFactory.createGenerator(new GZIPOutputStream(bytes))) {
+            json.setCodec(objectMapper);
+            json.setRootValueSeparator(new SerializedString("\n"));
+            for (JsonNode node : nodes) {
+                json.writeTree(node);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private Block writeBlock(List<ArchiveRow> orders) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator json = jsonFactory.createGenerator(new GZIPOutputStream(bytes))) {
+            json.setRootValueSeparator(new SerializedString("\n"));
+            for (ArchiveRow order : orders) {
+                json.writeStartObject();
+                json.writeNumberField("id", order.id);
+                writeNullableNumber(json, "userId", order.userId);
+                json.writeStringField("orderDate", order.orderDate.toString());
+                json.writeStringField("status", order.status);
+                json.writeNumberField("totalAmount", order.totalAmount);
+                json.writeArrayFieldStart("items");
+                for (ArchiveItem item : order.items) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", item.id);
+                    writeNullableNumber(json, "productId", item.productId);
+                    json.writeStringField("productName", item.productName);
+                    json.writeStringField("productDescription", item.productDescription);
+                    json.writeStringField("productImageUrl", item.productImageUrl);
+                    writeNullableNumber(json, "categoryId", item.categoryId);
+                    writeNullableNumber(json, "sellerId", item.sellerId);
+                    json.writeNumberField("quantity", item.quantity);
+                    json.writeNumberField("unitPrice", item.unitPrice);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        }
+        return appendBlock(bytes.toByteArray());
+    }
+
+    private Block appendBlock(byte[] data) throws IOException {
+        int segment = segmentFor(data.length);
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long offset = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+            return new Block(segment, offset, data.length);
+        }
+    }
+
+    // Blok yazıldıktan sonra değişen (ör. durum) ya da silinen siparişlerin id'lerini döner; bu durumda hiçbir
+    // sipariş arşivlenmez ve blok kalanlarla yeniden yazılır. Boş küme dönerse hepsi arşivlenmiştir.
+    private Set<Long> commit(List<ArchiveRow> orders, Block block) {
+        Map<Long, ArchiveRow> byId = new HashMap<>();
+        for (ArchiveRow order : orders) {
+            byId.put(order.id, order);
+        }
+        return transactionTemplate.execute(status -> {
+            List<Long> unchanged = new ArrayList<>();
+            jdbcTemplate.query(String.format(LOCK_SQL, joinIds(byId.keySet())), rs -> {
+                ArchiveRow order = byId.get(rs.getLong("id"));
+                if (order.status.equals(rs.getString("status"))) {
+                    unchanged.add(order.id);
+                }
+            });
+            if (unchanged.size() < byId.size()) {
+                Set<Long> changed = new HashSet<>(byId.keySet());
+                unchanged.forEach(changed::remove);
+                return changed;
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(unchanged.size());
+            for (Long id : unchanged) {
+                ArchiveRow order = byId.get(id);
+                rows.add(new Object[]{order.id, order.userId, Timestamp.valueOf(order.orderDate), order.status,
+                        order.totalAmount, order.items.size(), block.segment, block.offset, block.length, now});
+            }
+            jdbcTemplate.batchUpdate(INDEX_SQL, rows);
+            String ids = joinIds(unchanged);
+            jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + ids + ")");
+            jdbcTemplate.update("DELETE FROM orders WHERE id IN (" + ids + ")");
+            return Set.<Long>of();
+        });
+    }
+
+    private Map<Long, JsonNode> readBlock(ArchivedOrder entry) {
+        try {
+            return readBlock(entry.getSegment(), entry.getBlockOffset(), entry.getBlockLength());
+        } catch (UncheckedIOException e) {
+            // Bu arada bloktaki başka bir sipariş silinip blok taşınmış olabilir; güncel yerinden bir kez daha okunur
+            ArchivedOrder current = archivedOrderRepository.findById(entry.getOrderId()).orElseThrow(() -> e);
+            if (current.getSegment() == entry.getSegment() && current.getBlockOffset() == entry.getBlockOffset()) {
+                throw e;
+            }
+            return readBlock(current.getSegment(), current.getBlockOffset(), current.getBlockLength());
+        }
+    }
+
+    private Map<Long, JsonNode> readBlock(int segment, long offset, int length) {
+        byte[] data = new byte[length];
+        try {
+            try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new EOFException("Arşiv segmenti eksik: " + segmentPath(segment));
+                    }
+                }
+            }
+            Map<Long, JsonNode> nodes = new HashMap<>();
+            try (MappingIterator<JsonNode> records = objectMapper.readerFor(JsonNode.class)
+                    .readValues(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+                while (records.hasNext()) {
+                    JsonNode node = records.next();
+                    nodes.put(node.get("id").asLong(), node);
+                }
+            }
+            return nodes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Kalemler hâlâ var olan ürünlere bağlanır (tek önbellek/sorgu turu); silinmiş ürünün kalemi snapshot'la kalır
+    private List<Order> toOrders(List<JsonNode> nodes) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (JsonNode node : nodes) {
+            for (JsonNode item : node.get("items")) {
+                Long productId = nullableLong(item, "productId");
+                if (productId != null) productIds.add(productId);
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productService.getProductsByIds(productIds)) {
+                products.put(product.getId(), product);
+            }
+        }
+
+        List<Order> orders = new ArrayList<>(nodes.size());
+        for (JsonNode node : nodes) {
+            Order order = new Order();
+            order.setId(node.get("id").asLong());
+            // Yalnızca id taşıyan kullanıcı; Order JSON'unda user zaten yazılmaz
+            Long userId = nullableLong(node, "userId");
+            if (userId != null) {
+                User user = new User();
+                user.setId(userId);
+                order.setUser(user);
+            }
+            order.setOrderDate(LocalDateTime.parse(node.get("orderDate").asText()));
+            order.setStatus(OrderStatus.valueOf(node.get("status").asText()));
+            order.setTotalAmount(node.get("totalAmount").asDouble());
+            List<OrderItem> items = new ArrayList<>();
+            for (JsonNode itemNode : node.get("items")) {
+                OrderItem item = new OrderItem();
+                item.setId(itemNode.get("id").asLong());
+                item.setOrder(order);
+                Long productId = nullableLong(itemNode, "productId");
+                Product product = productId != null ? products.get(productId) : null;
+                item.setProduct(product);
+                item.setProductName(nullableText(itemNode, "productName"));
+                item.setProductDescription(nullableText(itemNode, "productDescription"));
+                item.setProductImageUrl(nullableText(itemNode, "productImageUrl"));
+                // Kategori/satıcı snapshot'ı olmadan yazılmış eski bloklarda ürünün güncel değerleri kullanılır
+                if (itemNode.has("categoryId") || itemNode.has("sellerId") || product == null) {
+                    item.setCategoryId(nullableLong(itemNode, "categoryId"));
+                    item.setSellerId(nullableLong(itemNode, "sellerId"));
+                } else {
+                    item.setCategoryId(product.getCategoryId());
+                    item.setSellerId(product.getSellerId());
+                }
+                item.setQuantity(itemNode.get("quantity").asInt());
+                item.setUnitPrice(itemNode.get("unitPrice").asDouble());
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    // Son segment dolduysa yenisine geçilir; segmentlere yalnızca eklenir, silinen bloklar yerinde sıfırlanır
+    private int segmentFor(int blockLength) throws IOException {
+        if (currentSegment < 0) {
+            Files.createDirectories(directory);
+            currentSegment = 1;
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        currentSegment = Math.max(currentSegment, Integer.parseInt(matcher.group(1)));
+                    }
+                }
+            }
+        }
+        Path path = segmentPath(currentSegment);
+        if (Files.exists(path) && Files.size(path) > 0 && Files.size(path) + blockLength > segmentMaxBytes) {
+            currentSegment++;
+        }
+        return currentSegment;
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%06d.ndjson.gz", segment));
+    }
+
+    private boolean isSegment(Path file) {
+        return SEGMENT_NAME.matcher(file.getFileName().toString()).matches();
+    }
+
+    private static String joinIds(Iterable<Long> ids) {
+        StringBuilder joined = new StringBuilder();
+        for (Long id : ids) {
+            if (joined.length() > 0) joined.append(',');
+            joined.append(id);
+        }
+        return joined.toString();
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String field, Long value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+
+    private static Long nullableLong(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asLong();
+    }
+
+    private static String nullableText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // forEachArchivedBlock: (segment, offset) sırasıyla gelen indeks satırlarını bloklara toplar
+    private final class BlockCollector {
+        private final Consumer<List<Order>> consumer;
+        private final Set<Long> orderIds = new HashSet<>();
+        private int segment = -1;
+        private long offset = -1;
+        private int length;
+
+        private BlockCollector(Consumer<List<Order>> consumer) {
+            this.consumer = consumer;
+        }
+
+        private void add(long orderId, int segment, long offset, int length) {
+            if (segment != this.segment || offset != this.offset) {
+                flush();
+                this.segment = segment;
+                this.offset = offset;
+                this.length = length;
+            }
+            orderIds.add(orderId);
+        }
+
+        private void flush() {
+            if (orderIds.isEmpty()) return;
+            List<JsonNode> nodes = new ArrayList<>(orderIds.size());
+            readBlock(segment, offset, length).forEach((id, node) -> {
+                if (orderIds.contains(id)) nodes.add(node);
+            });
+            orderIds.clear();
+            consumer.accept(toOrders(nodes));
+        }
+    }
+
+    private static final class ArchiveRow {
+        private final long id;
+        private final Long userId;
+        private final LocalDateTime orderDate;
+        private final String status;
+        private final double totalAmount;
+        private final List<ArchiveItem> items = new ArrayList<>();
+
+        private ArchiveRow(long id, Long userId, LocalDateTime orderDate, String status, double totalAmount) {
+            this.id = id;
+            this.userId = userId;
+            this.orderDate = orderDate;
+            this.status = status;
+            this.totalAmount = totalAmount;
+        }
+    }
+
+    private static final class ArchiveItem {
+        private final long id;
+        private final Long productId;
+        private final String productName;
+        private final String productDescription;
+        private final String productImageUrl;
+        private final Long categoryId;
+        private final Long sellerId;
+        private final int quantity;
+        private final double unitPrice;
+
+        private ArchiveItem(long id, Long productId, String productName, String productDescription,
+                            String productImageUrl, Long categoryId, Long sellerId, int quantity, double unitPrice) {
+            this.id = id;
+            this.productId = productId;
+            this.productName = productName;
+            this.productDescription = productDescription;
+            this.productImageUrl = productImageUrl;
+            this.categoryId = categoryId;
+            this.sellerId = sellerId;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+        }
+    }
+
+    private static final class Block {
+        private final int segment;
+        private final long offset;
+        private final int length;
+
+        private Block(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
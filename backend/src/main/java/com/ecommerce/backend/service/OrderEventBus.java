@@ -0,0 +1,186 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.model.OrderStatusEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Uygulama içi olay yolu: her abonenin sınırlı bir kuyruğu, kendi iş parçacığı ve outbox'ta kendi imleci
+// vardır. OrderOutbox her aboneye kuyruğunda yer olan kadar olay verir (backpressure); abone bir batch'i
+// işleyince imleci ilerler. Abone hatası kendi iş parçacığında geri çekilmeyle yeniden denenir; denemeler
+// tükenirse olaylar atılmaz, abone bir süre bekletilip onayladığı son kayıttan yeniden beslenir.
+@Component
+public class OrderEventBus {
+
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public OrderEventBus(@Value("${order.events.queue-capacity:1000}") int queueCapacity,
+                         @Value("${order.events.max-batch-size:100}") int maxBatchSize,
+                         @Value("${order.events.max-attempts:5}") int maxAttempts,
+                         @Value("${order.events.retry-backoff-ms:200}") long retryBackoffMillis) {
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    // Handler olayları toplu alır; aynı olay yeniden gönderilebileceği için idempotent olmalı.
+    // Ad outbox imlecinin anahtarıdır, yeniden başlatmalar arasında değişmemeli.
+    public void subscribe(String name, Consumer<List<OrderStatusEvent>> handler) {
+        Subscription subscription = new Subscription(name, handler);
+        subscriptions.add(subscription);
+        subscription.worker.start();
+    }
+
+    // Yalnızca outbox dağıtıcısı kullanır
+    List<Subscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", subscription.name);
+            entry.put("queued", subscription.queue.size());
+            entry.put("capacity", queueCapacity);
+            entry.put("acknowledged", subscription.acknowledged);
+            entry.put("delivered", subscription.delivered.get());
+            entry.put("retries", subscription.retries.get());
+            entry.put("failed", subscription.failed.get());
+            entry.put("stalled", subscription.isStalled(System.currentTimeMillis()));
+            stats.add(entry);
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscription subscription : subscriptions) {
+            subscription.running = false;
+            subscription.worker.interrupt();
+        }
+    }
+
+    final class Subscription {
+        private final String name;
+        private final Consumer<List<OrderStatusEvent>> handler;
+        private final BlockingQueue<OrderStatusEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Thread worker;
+        private volatile boolean running = true;
+        // İşlenen son olayın id'si; outbox imleci yükleyene kadar -1
+        private volatile long acknowledged = -1;
+        // Denemeler tükenince dolar; dağıtıcı kuyruğu boşaltıp imleçten yeniden okuyana kadar işçi bekler
+        private volatile long stalledUntil;
+        private volatile boolean rewindRequested;
+
+        private Subscription(String name, Consumer<List<OrderStatusEvent>> handler) {
+            this.name = name;
+            this.handler = handler;
+            this.worker = new Thread(this::run, "order-events-" + name);
+            this.worker.setDaemon(true);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        long getAcknowledged() {
+            return acknowledged;
+        }
+
+        // Dağıtıcı imleci veritabanından yükleyince, aboneye olay verilmeden önce çağrılır
+        void initAcknowledged(long eventId) {
+            acknowledged = eventId;
+        }
+
+        int remainingCapacity() {
+            return queue.remainingCapacity();
+        }
+
+        boolean isStalled(long now) {
+            return rewindRequested || now < stalledUntil;
+        }
+
+        boolean isRewindRequested() {
+            return rewindRequested;
+        }
+
+        // Dağıtıcı iş parçacığında: geri alınan batch'ten sonra kuyruğa girmiş olaylar atılır ki
+        // yeniden okunan olaylar sırayı bozmasın; ardından işçi devam eder
+        void rewind() {
+            queue.clear();
+            rewindRequested = false;
+        }
+
+        // Yalnızca dağıtıcı iş parçacığı ekler; kuyruğa sığan olay sayısını döner
+        int offer(List<OrderStatusEvent> events) {
+            int accepted = 0;
+            for (OrderStatusEvent event : events) {
+                if (!queue.offer(event)) break;
+                accepted++;
+            }
+            return accepted;
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    OrderStatusEvent first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) continue;
+                    List<OrderStatusEvent> batch = new ArrayList<>();
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    deliver(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void deliver(List<OrderStatusEvent> batch) throws InterruptedException {
+            long backoff = retryBackoffMillis;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    handler.accept(batch);
+                    delivered.addAndGet(batch.size());
+                    acknowledged = batch.get(batch.size() - 1).getId();
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts) {
+                        // Olay atılmaz: imleç ilerlemez, dağıtıcı bekleme sonrası aynı kayıttan yeniden verir
+                        failed.addAndGet(batch.size());
+                        stalledUntil = System.currentTimeMillis() + backoff;
+                        rewindRequested = true;
+                        while (rewindRequested && running) {
+                            Thread.sleep(10);
+                        }
+                        return;
+                    }
+                    retries.incrementAndGet();
+                    Thread.sleep(backoff);
+                    backoff <<= 1;
+                }
+            }
+        }
+    }
+}
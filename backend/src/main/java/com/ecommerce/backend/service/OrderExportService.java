@@ -0,0 +1,304 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.Entity.OrderItem;
+import com.ecommerce.backend.model.ExportFormat;
+import com.ecommerce.backend.model.OrderStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Yönetici sipariş dışa aktarımı: siparişler ve kalemleri tek sorguyla, ileri yönlü bir imleçle
+// fetch-size'lık bloklar halinde okunur ve doğrudan çıkışa yazılır. Bellekte yalnızca o an yazılan
+// siparişin kalemleri tutulur; entity ve lazy yükleme yoktur. Arşivdeki siparişler sıcak tablodakilerden
+// sonra, aynı filtrelerle arşiv indeksinden seçilip blok blok yazılır. Dışa aktarım sürerken arşivleme ve
+// sipariş silme beklediği için bir sipariş iki kez yazılmaz ya da atlanmaz.
+@Service
+public class OrderExportService {
+
+    private static final String SELECT_SQL = "SELECT o.id AS order_id, o.user_id, o.order_date, o.status, o.total_amount, " +
+            "oi.id AS item_id, oi.product_id, oi.product_name, oi.quantity, oi.unit_price " +
+            "FROM orders o LEFT JOIN order_items oi ON oi.order_id = o.id";
+    private static final String ORDER_BY = " ORDER BY o.id, oi.id";
+
+    private static final String CSV_HEADER = "order_id,user_id,order_date,status,total_amount," +
+            "item_id,product_id,product_name,quantity,unit_price\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderArchiveService orderArchive;
+    private final int fetchSize;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public OrderExportService(JdbcTemplate jdbcTemplate,
+                              OrderArchiveService orderArchive,
+                              @Value("${order.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderArchive = orderArchive;
+        this.fetchSize = fetchSize;
+    }
+
+    // Filtreler SQL'e eklenir; to günü dahildir. Dönen değer yazılan sipariş sayısıdır.
+    public long export(ExportFormat format, LocalDate from, LocalDate to, OrderStatus status, OutputStream out) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Başlangıç tarihi bitiş tarihinden sonra olamaz");
+        }
+        return orderArchive.runExclusive(() -> exportAll(format, from, to, status, out));
+    }
+
+    private long exportAll(ExportFormat format, LocalDate from, LocalDate to, OrderStatus status, OutputStream out) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add("o.order_date >= ?");
+            params.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            conditions.add("o.order_date < ?");
+            params.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        if (status != null) {
+            conditions.add("o.status = ?");
+            params.add(status.name());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(ORDER_BY);
+
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        OrderWriter orderWriter = format == ExportFormat.CSV ? new CsvOrderWriter(writer) : new NdjsonOrderWriter(writer);
+        OrderRowHandler handler = new OrderRowHandler(orderWriter);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        }, handler);
+
+        try {
+            handler.finish();
+            LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+            LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+            orderArchive.forEachArchivedBlock(fromTime, toTime, status, orders -> {
+                for (Order order : orders) {
+                    handler.writeRow(toRow(order));
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return handler.orders;
+    }
+
+    private static OrderRow toRow(Order order) {
+        OrderRow row = new OrderRow(order.getId(), order.getUser() != null ? order.getUser().getId() : null,
+                order.getOrderDate().toString(), order.getStatus().name(), order.getTotalAmount());
+        for (OrderItem item : order.getOrderItems()) {
+            row.items.add(new ItemRow(item.getId(), item.getProduct() != null ? item.getProduct().getId() : null,
+                    item.getProductName(), item.getQuantity(), item.getUnitPrice()));
+        }
+        return row;
+    }
+
+    // Satırlar sipariş id'sine göre sıralı gelir; sipariş id'si değişince biriken sipariş yazılır
+    private static final class OrderRowHandler implements RowCallbackHandler {
+        private final OrderWriter orderWriter;
+        private OrderRow current;
+        private long orders;
+
+        private OrderRowHandler(OrderWriter orderWriter) {
+            this.orderWriter = orderWriter;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("order_id");
+            if (current == null || current.id != orderId) {
+                write();
+                Timestamp orderDate = rs.getTimestamp("order_date");
+                current = new OrderRow(orderId, rs.getObject("user_id", Long.class),
+                        orderDate != null ? orderDate.toLocalDateTime().toString() : null,
+                        rs.getString("status"), rs.getObject("total_amount", Double.class));
+            }
+            Long itemId = rs.getObject("item_id", Long.class);
+            if (itemId != null) {
+                current.items.add(new ItemRow(itemId, rs.getObject("product_id", Long.class),
+                        rs.getString("product_name"), rs.getObject("quantity", Integer.class),
+                        rs.getObject("unit_price", Double.class)));
+            }
+        }
+
+        private void finish() throws IOException {
+            try {
+                write();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Arşivden okunan sipariş tek parça gelir
+        private void writeRow(OrderRow row) {
+            current = row;
+            write();
+        }
+
+        private void write() {
+            if (current == null) return;
+            try {
+                orderWriter.write(current);
+            } catch (IOException e) {
+                // İstemci bağlantıyı kapattıysa sorgu da durur
+                throw new UncheckedIOException(e);
+            }
+            orders++;
+            current = null;
+        }
+    }
+
+    private interface OrderWriter {
+        void write(OrderRow order) throws IOException;
+    }
+
+    // Her satır bir sipariş: kalemler "items" dizisinde
+    private final class NdjsonOrderWriter implements OrderWriter {
+        private final Writer writer;
+
+        private NdjsonOrderWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(OrderRow order) throws IOException {
+            JsonGenerator json = jsonFactory.createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeNumberField("id", order.id);
+            writeNullable(json, "userId", order.userId);
+            json.writeStringField("orderDate", order.orderDate);
+            json.writeStringField("status", order.status);
+            writeNullable(json, "totalAmount", order.totalAmount);
+            json.writeArrayFieldStart("items");
+            for (ItemRow item : order.items) {
+                json.writeStartObject();
+                json.writeNumberField("id", item.id);
+                writeNullable(json, "productId", item.productId);
+                json.writeStringField("productName", item.productName);
+                writeNullable(json, "quantity", item.quantity);
+                writeNullable(json, "unitPrice", item.unitPrice);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        }
+
+        private void writeNullable(JsonGenerator json, String name, Number value) throws IOException {
+            if (value == null) {
+                json.writeNullField(name);
+            } else if (value instanceof Double d) {
+                json.writeNumberField(name, d);
+            } else {
+                json.writeNumberField(name, value.longValue());
+            }
+        }
+    }
+
+    // Her satır bir kalem; sipariş alanları tekrarlanır. Kalemsiz sipariş boş kalem alanlarıyla tek satırdır.
+    private static final class CsvOrderWriter implements OrderWriter {
+        private final Writer writer;
+        private boolean headerWritten;
+
+        private CsvOrderWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(OrderRow order) throws IOException {
+            if (!headerWritten) {
+                writer.write(CSV_HEADER);
+                headerWritten = true;
+            }
+            String orderFields = order.id + "," + value(order.userId) + "," + value(order.orderDate) + "," +
+                    value(order.status) + "," + value(order.totalAmount) + ",";
+            if (order.items.isEmpty()) {
+                writer.write(orderFields + ",,,,\n");
+                return;
+            }
+            for (ItemRow item : order.items) {
+                writer.write(orderFields + item.id + "," + value(item.productId) + "," + quote(item.productName) + "," +
+                        value(item.quantity) + "," + value(item.unitPrice) + "\n");
+            }
+        }
+
+        private static String value(Object value) {
+            return value != null ? value.toString() : "";
+        }
+
+        // RFC 4180: virgül, tırnak veya satır sonu içeren alan tırnaklanır, tırnaklar ikilenir
+        private static String quote(String value) {
+            if (value == null) return "";
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+
+    private static final class OrderRow {
+        private final long id;
+        private final Long userId;
+        private final String orderDate;
+        private final String status;
+        private final Double totalAmount;
+        private final List<ItemRow> items = new ArrayList<>();
+
+        private OrderRow(long id, Long userId, String orderDate, String status, Double totalAmount) {
+            this.id = id;
+            this.userId = userId;
+            this.orderDate = orderDate;
+            this.status = status;
+            this.totalAmount = totalAmount;
+        }
+    }
+
+    private static final class ItemRow {
+        private final long id;
+        private final Long productId;
+        private final String productName;
+        private final Integer quantity;
+        private final Double unitPrice;
+
+        private ItemRow(long id, Long productId, String productName, Integer quantity, Double unitPrice) {
+            this.id = id;
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+        }
+    }
+}
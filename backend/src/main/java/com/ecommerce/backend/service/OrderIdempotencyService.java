@@ -0,0 +1,196 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.OrderIdempotencyKey;
+import com.ecommerce.backend.repository.OrderIdempotencyKeyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Sipariş oluşturma için Idempotency-Key desteği. Anahtar -> sipariş id eşlemesi önce boyut ve
+// süre sınırlı bir LRU bellekte, yoksa order_idempotency_keys tablosunda aranır. Aynı anahtarla
+// eşzamanlı gelen istekler tek bir çalıştırmayı bekler; tekrar istekler ürünlere dokunmadan ve
+// satır eklemeden kayıtlı siparişi alır. Süresi geçmiş kayıtlar tablodan düzenli aralıklarla silinir.
+@Slf4j
+@Service
+public class OrderIdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderIdempotencyKeyRepository keyRepository;
+    private final int maxSize;
+    private final long ttlSeconds;
+    private final long purgeIntervalMinutes;
+    private final LinkedHashMap<String, CachedKey> entries;
+    private final Map<String, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public OrderIdempotencyService(OrderIdempotencyKeyRepository keyRepository,
+                                   @Value("${order.idempotency.max-size:10000}") int maxSize,
+                                   @Value("${order.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                   @Value("${order.idempotency.purge-interval-minutes:60}") long purgeIntervalMinutes) {
+        this.keyRepository = keyRepository;
+        this.maxSize = maxSize;
+        this.ttlSeconds = ttlSeconds;
+        this.purgeIntervalMinutes = purgeIntervalMinutes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedKey> eldest) {
+                return size() > OrderIdempotencyService.this.maxSize;
+            }
+        };
+    }
+
+    // action, verilen kayıt anahtarıyla siparişi ve OrderIdempotencyKey satırını aynı transaction'da yazıp
+    // sipariş id'sini dönmeli
+    public Outcome execute(Long userId, String key, Function<String, Long> action) {
+        String scopedKey = userId + ":" + key;
+
+        Long cached = getCached(scopedKey);
+        if (cached != null) {
+            return new Outcome(cached, true);
+        }
+
+        CompletableFuture<Long> execution = new CompletableFuture<>();
+        CompletableFuture<Long> running = inFlight.putIfAbsent(scopedKey, execution);
+        if (running != null) {
+            // Aynı anahtarla devam eden istek var: onun sonucu beklenir
+            return new Outcome(join(running), true);
+        }
+
+        try {
+            Long orderId = findStored(scopedKey);
+            boolean replayed = orderId != null;
+            if (!replayed) {
+                try {
+                    orderId = action.apply(scopedKey);
+                } catch (RuntimeException e) {
+                    // Başka bir süreç aynı anahtarı bizden önce yazdıysa onun siparişi döner
+                    orderId = findStored(scopedKey);
+                    if (orderId == null) throw e;
+                    replayed = true;
+                }
+            }
+            putCached(scopedKey, orderId);
+            execution.complete(orderId);
+            return new Outcome(orderId, replayed);
+        } catch (RuntimeException | Error e) {
+            // Bekleyen istekler de aynı hatayı alır, asılı kalmaz
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, execution);
+        }
+    }
+
+    public OrderIdempotencyKey newRecord(String scopedKey, Long userId, Long orderId) {
+        return new OrderIdempotencyKey(scopedKey, userId, orderId, LocalDateTime.now());
+    }
+
+    // Süresi geçmiş kayıtlar açılışta ve sonra düzenli aralıklarla, bellekteki anahtarlarla aynı süre
+    // sınırına göre silinir; okumada da süresi geçmiş kayıt yok sayılır
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        deleteExpired();
+        if (purgeIntervalMinutes <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-idempotency-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                deleteExpired();
+            } catch (RuntimeException e) {
+                // Sonraki turda yeniden denenir
+                log.error("Süresi geçmiş idempotency anahtarları silinemedi", e);
+            }
+        }, purgeIntervalMinutes, purgeIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    public int deleteExpired() {
+        return keyRepository.deleteCreatedBefore(LocalDateTime.now().minusSeconds(ttlSeconds));
+    }
+
+    private Long findStored(String scopedKey) {
+        OrderIdempotencyKey stored = keyRepository.findById(scopedKey).orElse(null);
+        if (stored == null) return null;
+        if (stored.getCreatedAt().isBefore(LocalDateTime.now().minusSeconds(ttlSeconds))) {
+            // Süresi geçmiş anahtar yeniden kullanılabilir
+            keyRepository.delete(stored);
+            return null;
+        }
+        return stored.getOrderId();
+    }
+
+    private synchronized Long getCached(String scopedKey) {
+        CachedKey cached = entries.get(scopedKey);
+        if (cached == null) return null;
+        if (cached.expiresAt < System.currentTimeMillis()) {
+            entries.remove(scopedKey);
+            return null;
+        }
+        return cached.orderId;
+    }
+
+    private synchronized void putCached(String scopedKey, Long orderId) {
+        if (maxSize <= 0) return;
+        entries.put(scopedKey, new CachedKey(orderId, System.currentTimeMillis() + ttlSeconds * 1000));
+    }
+
+    private static Long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    public static final class Outcome {
+        private final Long orderId;
+        private final boolean replayed;
+
+        private Outcome(Long orderId, boolean replayed) {
+            this.orderId = orderId;
+            this.replayed = replayed;
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        // true: sipariş bu istekte oluşturulmadı, daha önceki bir istekten döndü
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class CachedKey {
+        private final Long orderId;
+        private final long expiresAt;
+
+        private CachedKey(Long orderId, long expiresAt) {
+            this.orderId = orderId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
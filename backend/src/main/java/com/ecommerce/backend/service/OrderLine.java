@@ -0,0 +1,22 @@
+package com.ecommerce.backend.service;
+
+// Sipariş isteğindeki bir kalem. İstemcinin gönderdiği fiyat yalnızca karşılaştırma içindir;
+// siparişe OrderPricingService'in doldurduğu sunucu fiyatı yazılır.
+final class OrderLine {
+    final Long productId;
+    final int quantity;
+    // İstemci fiyat göndermediyse null
+    final Double submittedPrice;
+    long unitCents = PriceCache.MISSING;
+    long lineCents;
+
+    OrderLine(Long productId, int quantity, Double submittedPrice) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.submittedPrice = submittedPrice;
+    }
+
+    double unitPrice() {
+        return unitCents / 100.0;
+    }
+}
@@ -0,0 +1,243 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.OrderEvent;
+import com.ecommerce.backend.model.OrderStatus;
+import com.ecommerce.backend.model.OrderStatusEvent;
+import com.ecommerce.backend.repository.OrderEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sipariş durum olayları için transactional outbox. record() çağıranın transaction'ında tek bir
+// INSERT yapar; commit sonrası dağıtıcı uyandırılır ve her OrderEventBus abonesine kendi imlecinden
+// sonraki kayıtları sırayla, toplu olarak verir. Abonenin kuyruğu dolu ise kayıtlar outbox'ta kalır.
+// İmleçler order_event_cursors'a yazılır; kayıt ancak tüm aboneler onayladığında yayınlanmış sayılır.
+// Teslim en az bir kezdir: onaylanıp imleç yazılmadan kapanırsa olay açılışta yeniden gönderilir.
+// Kimlik INSERT anında alınır, commit sırası farklı olabilir: imleç yalnızca boşluksuz kimlik aralığında
+// ilerler. Eksik kimlik gap-grace-ms boyunca beklenir, sonra geri alınmış sayılıp atlanır.
+@Slf4j
+@Service
+public class OrderOutbox {
+
+    private static final String INSERT_SQL = "INSERT INTO order_events " +
+            "(order_id, user_id, old_status, new_status, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String NEXT_SQL = "SELECT id, order_id, user_id, old_status, new_status, created_at " +
+            "FROM order_events WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String CURSOR_SQL = "SELECT last_event_id FROM order_event_cursors WHERE subscriber = ?";
+    // Yeni abone yalnızca henüz yayınlanmamış kayıtlardan başlar, geçmişi yeniden almaz
+    private static final String INITIAL_CURSOR_SQL = "SELECT COALESCE(" +
+            "(SELECT MIN(id) - 1 FROM order_events WHERE published_at IS NULL), " +
+            "(SELECT MAX(id) FROM order_events), 0)";
+    private static final String SAVE_CURSOR_SQL =
+            "MERGE INTO order_event_cursors (subscriber, last_event_id) KEY (subscriber) VALUES (?, ?)";
+
+    private final OrderEventRepository eventRepository;
+    private final OrderEventBus eventBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long gapGraceMillis;
+    private final Semaphore signal = new Semaphore(0);
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong skippedGaps = new AtomicLong();
+    // Yalnızca dağıtıcı iş parçacığı kullanır: aboneye verilen son kayıt ve veritabanına yazılan imleç
+    private final Map<OrderEventBus.Subscription, Long> dispatchedThrough = new HashMap<>();
+    private final Map<OrderEventBus.Subscription, Long> savedCursors = new HashMap<>();
+    // Yalnızca dağıtıcı iş parçacığı kullanır: eksik kimlik -> ilk görüldüğü an
+    private final Map<Long, Long> gapsSeenAt = new HashMap<>();
+    private volatile boolean running = true;
+    private Thread dispatcher;
+    // Bu kimliğe kadar olan kayıtlar yayınlanmış işaretlendi
+    private long lastPublishedThrough = -1;
+
+    public OrderOutbox(OrderEventRepository eventRepository,
+                       OrderEventBus eventBus,
+                       JdbcTemplate jdbcTemplate,
+                       @Value("${order.outbox.batch-size:100}") int batchSize,
+                       @Value("${order.outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+                       @Value("${order.outbox.gap-grace-ms:5000}") long gapGraceMillis) {
+        this.eventRepository = eventRepository;
+        this.eventBus = eventBus;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.gapGraceMillis = gapGraceMillis;
+    }
+
+    // Transaction içinde çağrılmalı; durum değişikliği geri alınırsa olay da geri alınır
+    public void record(Long orderId, Long userId, OrderStatus oldStatus, OrderStatus newStatus) {
+        jdbcTemplate.update(INSERT_SQL, orderId, userId,
+                oldStatus != null ? oldStatus.name() : null, newStatus.name(), Timestamp.valueOf(LocalDateTime.now()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    signal.release();
+                }
+            });
+        } else {
+            signal.release();
+        }
+    }
+
+    public List<OrderEvent> getHistory(Long orderId) {
+        return eventRepository.findByOrderIdOrderByIdAsc(orderId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_events WHERE published_at IS NULL", Long.class));
+        stats.put("published", published.get());
+        stats.put("deferred", deferred.get());
+        stats.put("skippedGaps", skippedGaps.get());
+        stats.put("subscribers", eventBus.getStats());
+        return stats;
+    }
+
+    // Tablo oluşturulduktan sonra başlar; önceki çalışmadan kalan kayıtlar da gönderilir
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatcher = new Thread(this::run, "order-outbox");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (dispatcher != null) dispatcher.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                signal.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                signal.drainPermits();
+                // Tam batch verilen abone varsa arkasında bekleyen olabilir; kuyruğu dolu abone sonraki tura kalır
+                boolean more;
+                do {
+                    more = dispatchRound();
+                    saveProgress();
+                } while (running && more);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Veritabanı hatası: kayıtlar outbox'ta durur, sonraki turda yeniden denenir
+                log.warn("Outbox dağıtımı başarısız, sonraki turda yeniden denenecek", e);
+            }
+        }
+    }
+
+    private boolean dispatchRound() {
+        boolean more = false;
+        long now = System.currentTimeMillis();
+        long minThrough = Long.MAX_VALUE;
+        for (OrderEventBus.Subscription subscription : eventBus.getSubscriptions()) {
+            Long through = dispatchedThrough.get(subscription);
+            if (through == null) {
+                through = loadCursor(subscription.getName());
+                subscription.initAcknowledged(through);
+                savedCursors.put(subscription, through);
+            }
+            if (subscription.isRewindRequested()) {
+                // Denemeleri tükenen abone onayladığı son kayıttan yeniden beslenir
+                subscription.rewind();
+                through = subscription.getAcknowledged();
+            }
+            dispatchedThrough.put(subscription, through);
+            minThrough = Math.min(minThrough, through);
+            if (subscription.isStalled(now)) continue;
+
+            int limit = Math.min(batchSize, subscription.remainingCapacity());
+            if (limit == 0) continue;
+            List<OrderStatusEvent> events = jdbcTemplate.query(NEXT_SQL, (rs, rowNum) -> {
+                String oldStatus = rs.getString("old_status");
+                return new OrderStatusEvent(rs.getLong("id"), rs.getLong("order_id"), rs.getObject("user_id", Long.class),
+                        oldStatus != null ? OrderStatus.valueOf(oldStatus) : null,
+                        OrderStatus.valueOf(rs.getString("new_status")),
+                        rs.getTimestamp("created_at").toLocalDateTime());
+            }, through, limit);
+            events = events.subList(0, contiguousPrefix(events, through, now));
+            if (events.isEmpty()) continue;
+
+            int accepted = subscription.offer(events);
+            if (accepted < events.size()) {
+                deferred.addAndGet(events.size() - accepted);
+            }
+            if (accepted > 0) {
+                dispatchedThrough.put(subscription, events.get(accepted - 1).getId());
+            }
+            more |= accepted == batchSize;
+        }
+        // Tüm abonelerin geçtiği boşluklar artık izlenmez
+        long passed = minThrough;
+        gapsSeenAt.keySet().removeIf(id -> id <= passed);
+        return more;
+    }
+
+    // İmleçten sonraki boşluksuz kayıt sayısı. Daha küçük kimlikli bir transaction henüz commit edilmemiş
+    // olabilir; boşluk süre dolana kadar beklenir, dolunca uyarıyla atlanır.
+    private int contiguousPrefix(List<OrderStatusEvent> events, long through, long now) {
+        long expected = through + 1;
+        for (int i = 0; i < events.size(); i++) {
+            long id = events.get(i).getId();
+            if (id != expected) {
+                Long firstSeen = gapsSeenAt.putIfAbsent(expected, now);
+                if (firstSeen == null || now - firstSeen < gapGraceMillis) return i;
+                log.warn("Outbox kimlikleri {}-{} {} ms içinde görünmedi, atlanıyor", expected, id - 1, gapGraceMillis);
+                skippedGaps.incrementAndGet();
+            }
+            expected = id + 1;
+        }
+        return events.size();
+    }
+
+    // Değişen imleçler yazılır; tüm abonelerin onayladığı kayıtlar yayınlanmış işaretlenir.
+    // Abone yoksa hiçbir kayıt işaretlenmez, ilk abone bekleyen kayıtlardan başlar.
+    private void saveProgress() {
+        List<OrderEventBus.Subscription> subscriptions = eventBus.getSubscriptions();
+        long minAcknowledged = Long.MAX_VALUE;
+        for (OrderEventBus.Subscription subscription : subscriptions) {
+            long acknowledged = subscription.getAcknowledged();
+            if (acknowledged < 0) return;
+            Long saved = savedCursors.get(subscription);
+            if (saved == null || saved != acknowledged) {
+                jdbcTemplate.update(SAVE_CURSOR_SQL, subscription.getName(), acknowledged);
+                savedCursors.put(subscription, acknowledged);
+            }
+            minAcknowledged = Math.min(minAcknowledged, acknowledged);
+        }
+        if (subscriptions.isEmpty() || minAcknowledged <= lastPublishedThrough) return;
+
+        int marked = jdbcTemplate.update("UPDATE order_events SET published_at = ? " +
+                        "WHERE published_at IS NULL AND id > ? AND id <= ?",
+                Timestamp.valueOf(LocalDateTime.now()), lastPublishedThrough, minAcknowledged);
+        published.addAndGet(marked);
+        lastPublishedThrough = minAcknowledged;
+    }
+
+    private long loadCursor(String subscriber) {
+        List<Long> cursor = jdbcTemplate.queryForList(CURSOR_SQL, Long.class, subscriber);
+        if (!cursor.isEmpty()) return cursor.get(0);
+        return jdbcTemplate.queryForObject(INITIAL_CURSOR_SQL, Long.class);
+    }
+}
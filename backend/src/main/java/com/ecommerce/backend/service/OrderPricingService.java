@@ -0,0 +1,118 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Product;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sipariş tutarı sunucuda, PriceCache'teki fiyatlardan kuruş cinsinden (long) hesaplanır; istemcinin
+// gönderdiği birim fiyatlar ve toplam yalnızca karşılaştırılır. Tam isabette kalem başına sorgu ve
+// nesne oluşturma yoktur; önbellekte olmayan fiyatlar tek sorguyla yüklenir.
+@Service
+public class OrderPricingService {
+
+    private final PriceCache priceCache;
+
+    public OrderPricingService(PriceCache priceCache) {
+        this.priceCache = priceCache;
+    }
+
+    // Kalemlerin sunucu fiyatlarını doldurur ve sipariş toplamını kuruş olarak döner.
+    // Gönderilen fiyatlar tutmazsa PriceMismatchException, bilinmeyen ürün varsa RuntimeException.
+    long price(List<OrderLine> lines, Double submittedTotal) {
+        List<Long> missing = null;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            if (line.quantity <= 0) {
+                throw new IllegalArgumentException("Geçersiz miktar: " + line.quantity);
+            }
+            line.unitCents = priceCache.getCents(line.productId);
+            if (line.unitCents == PriceCache.MISSING) {
+                if (missing == null) missing = new ArrayList<>();
+                missing.add(line.productId);
+            }
+        }
+        if (missing != null) {
+            Map<Long, Long> loaded = priceCache.load(missing);
+            for (int i = 0; i < lines.size(); i++) {
+                OrderLine line = lines.get(i);
+                if (line.unitCents != PriceCache.MISSING) continue;
+                Long cents = loaded.get(line.productId);
+                if (cents == null) {
+                    throw new RuntimeException("Ürün bulunamadı: " + line.productId);
+                }
+                line.unitCents = cents;
+            }
+        }
+        return settle(lines, submittedTotal);
+    }
+
+    // Transaction içinde yüklenen ürünlerle son kontrol: önbellek commit ile geçersiz kılma arasında
+    // eskimiş olabilir. Fark varsa fiyat güncellenir ve gönderilen tutarlarla yeniden karşılaştırılır.
+    long reprice(List<OrderLine> lines, Map<Long, Product> products, Double submittedTotal, long totalCents) {
+        boolean stale = false;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            Product product = products.get(line.productId);
+            if (product == null) {
+                throw new RuntimeException("Ürün bulunamadı: " + line.productId);
+            }
+            long current = PriceCache.toCents(product.getPrice());
+            if (current != line.unitCents) {
+                priceCache.invalidate(line.productId);
+                line.unitCents = current;
+                stale = true;
+            }
+        }
+        return stale ? settle(lines, submittedTotal) : totalCents;
+    }
+
+    private static long settle(List<OrderLine> lines, Double submittedTotal) {
+        long totalCents = 0;
+        boolean mismatch = false;
+        try {
+            for (int i = 0; i < lines.size(); i++) {
+                OrderLine line = lines.get(i);
+                line.lineCents = Math.multiplyExact(line.unitCents, line.quantity);
+                totalCents = Math.addExact(totalCents, line.lineCents);
+                if (line.submittedPrice != null && PriceCache.toCents(line.submittedPrice) != line.unitCents) {
+                    mismatch = true;
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Sipariş tutarı çok büyük");
+        }
+        if (submittedTotal != null && PriceCache.toCents(submittedTotal) != totalCents) {
+            mismatch = true;
+        }
+        if (mismatch) {
+            throw new PriceMismatchException(lines, totalCents);
+        }
+        return totalCents;
+    }
+
+    // İstemci güncel fiyatlarla sepetini yenileyip tekrar deneyebilsin diye sunucu fiyatlarını taşır
+    public static class PriceMismatchException extends RuntimeException {
+        private final Map<Long, Double> prices = new LinkedHashMap<>();
+        private final double totalAmount;
+
+        private PriceMismatchException(List<OrderLine> lines, long totalCents) {
+            super("Ürün fiyatları güncel değil; sepeti yenileyip tekrar deneyin");
+            for (OrderLine line : lines) {
+                prices.put(line.productId, line.unitPrice());
+            }
+            this.totalAmount = totalCents / 100.0;
+        }
+
+        public Map<Long, Double> getPrices() {
+            return prices;
+        }
+
+        public double getTotalAmount() {
+            return totalAmount;
+        }
+    }
+}
@@ -1,32 +1,134 @@
 package com.ecommerce.backend.service;
 
 import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.Entity.OrderEvent;
+import com.ecommerce.backend.Entity.OrderItem;
+import com.ecommerce.backend.Entity.Product;
 import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.model.CursorPage;
+import com.ecommerce.backend.model.OrderItemView;
 import com.ecommerce.backend.model.OrderStatus;
+import com.ecommerce.backend.model.OrderSummary;
+import com.ecommerce.backend.model.PageCursor;
+import com.ecommerce.backend.model.SellerOrderPage;
 import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.repository.ProductRepository;
 import com.ecommerce.backend.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
-@RequiredArgsConstructor
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String HISTORY_CURSOR = "ORDER_DATE";
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final CartService cartService;
+    private final OrderIdempotencyService idempotencyService;
+    private final SellerOrderIndex sellerOrderIndex;
+    private final SalesRollupService salesRollupService;
+    private final ProductLeaderboard leaderboard;
+    private final OrderOutbox orderOutbox;
+    private final OrderPricingService pricingService;
+    private final OrderArchiveService orderArchive;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
+    public OrderService(OrderRepository orderRepository,
+                        UserRepository userRepository,
+                        ProductRepository productRepository,
+                        CartService cartService,
+                        OrderIdempotencyService idempotencyService,
+                        SellerOrderIndex sellerOrderIndex,
+                        SalesRollupService salesRollupService,
+                        ProductLeaderboard leaderboard,
+                        OrderOutbox orderOutbox,
+                        OrderPricingService pricingService,
+                        OrderArchiveService orderArchive,
+                        PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.cartService = cartService;
+        this.idempotencyService = idempotencyService;
+        this.sellerOrderIndex = sellerOrderIndex;
+        this.salesRollupService = salesRollupService;
+        this.leaderboard = leaderboard;
+        this.orderOutbox = orderOutbox;
+        this.pricingService = pricingService;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Yalnızca sıcak tablo; arşivdeki siparişler getArchivedOrderPage ile sayfalı ya da id ile okunur
     public List<Order> getAllOrders() {
         return orderRepository.findAllWithOrderItemsAndProducts();
     }
 
+    // Arşivdeki siparişler sıcak tablodakilerin ardından eklenir
     public List<Order> getAllOrdersByUserId(Long userId) {
-        return orderRepository.findAllByUserIdWithOrderItemsAndProducts(userId);
+        List<Order> orders = new ArrayList<>(orderRepository.findAllByUserIdWithOrderItemsAndProducts(userId));
+        orders.addAll(orderArchive.findOrdersByUser(userId));
+        return orders;
+    }
+
+    // Sipariş geçmişi: özet satırlar keyset ile sayfalanır, kalemler sipariş açılınca getOrderItems ile alınır.
+    // Sıcak tablo ve arşiv indeksi aynı imleçle okunup birleştirilir; sıcak tablo önce okunduğu için
+    // arada arşivlenen sipariş kaybolmaz, iki tarafta da görünürse bir kez alınır.
+    public CursorPage<OrderSummary> getOrderHistoryPage(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, HISTORY_CURSOR) : null;
+        LocalDateTime afterDate = after != null ? after.getValueAsDateTime() : null;
+        Long afterId = after != null ? after.getId() : null;
+        List<OrderSummary> hot = afterDate == null
+                ? orderRepository.findFirstSummaryPageByUserId(userId, PageRequest.of(0, pageSize + 1))
+                : orderRepository.findNextSummaryPageByUserId(userId, afterDate, afterId, PageRequest.of(0, pageSize + 1));
+        List<OrderSummary> archived = orderArchive.findSummaryPage(userId, afterDate, afterId, pageSize + 1);
+        return CursorPage.of(mergeNewestFirst(hot, archived, pageSize + 1), pageSize,
+                last -> PageCursor.encode(HISTORY_CURSOR, last.getId(), last.getOrderDate()));
+    }
+
+    // Yönetici arşiv listesi: özet satırlar arşiv indeksinden keyset ile sayfalanır, bloklar açılmaz
+    public CursorPage<OrderSummary> getArchivedOrderPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, HISTORY_CURSOR) : null;
+        List<OrderSummary> fetched = orderArchive.findSummaryPage(
+                after != null ? after.getValueAsDateTime() : null, after != null ? after.getId() : null, pageSize + 1);
+        return CursorPage.of(fetched, pageSize,
+                last -> PageCursor.encode(HISTORY_CURSOR, last.getId(), last.getOrderDate()));
+    }
+
+    public List<OrderItemView> getOrderItems(Long orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            return orderArchive.findItemViews(orderId)
+                    .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı"));
+        }
+        return orderRepository.findItemViewsByOrderId(orderId);
     }
 
     public Order getOrderById(Long id) {
         return orderRepository.findById(id)
+                .or(() -> orderArchive.findOrder(id))
                 .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı"));
     }
 
@@ -35,24 +137,192 @@ public class OrderService {
     }
 
     public Order saveOrderForUser(Long userId, Order order) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
-        order.setUser(user);
-        return orderRepository.save(order);
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
+            order.setUser(user);
+            boolean created = order.getId() == null;
+            Order saved = orderRepository.save(order);
+            if (created) {
+                sellerOrderIndex.recordOrder(saved);
+                salesRollupService.recordOrder(saved);
+                leaderboard.recordOrder(saved);
+                orderOutbox.record(saved.getId(), userId, null, saved.getStatus());
+            }
+            return saved;
+        });
     }
 
-    public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+    // Checkout: tutar sunucuda fiyat önbelleğinden hesaplanır, ürünler tek findAllById ile alınır, sipariş
+    // ve kalemleri tek transaction'da sequence id'leriyle JDBC batch halinde eklenir. Sepet boyutu sorgu sayısını artırmaz.
+    public Order createOrder(Long userId, Map<String, Object> orderRequest) {
+        return placeOrder(userId, orderRequest, null);
     }
 
-    public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
+    // Aynı Idempotency-Key ile tekrar gelen istek yeni sipariş oluşturmaz, ilk siparişi döner
+    public Order createOrder(Long userId, Map<String, Object> orderRequest, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return createOrder(userId, orderRequest);
+        }
+
+        AtomicReference<Order> created = new AtomicReference<>();
+        OrderIdempotencyService.Outcome outcome = idempotencyService.execute(userId, idempotencyKey, recordKey -> {
+            Order order = placeOrder(userId, orderRequest, recordKey);
+            created.set(order);
+            return order.getId();
+        });
+        if (!outcome.isReplayed()) {
+            return created.get();
+        }
+        return orderRepository.findByIdWithOrderItemsAndProducts(outcome.getOrderId())
+                .or(() -> orderArchive.findOrder(outcome.getOrderId()))
                 .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı"));
-        order.setStatus(newStatus);
-        return orderRepository.save(order);
+    }
+
+    // recordKey verilirse idempotency kaydı siparişle aynı transaction'da yazılır
+    private Order placeOrder(Long userId, Map<String, Object> orderRequest, String recordKey) {
+        // Frontend'ten gelen veriyi parse et
+        String orderDateStr = (String) orderRequest.get("orderDate");
+        Number totalAmountNum = (Number) orderRequest.get("totalAmount");
+        Double submittedTotal = totalAmountNum != null ? totalAmountNum.doubleValue() : null;
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> orderItemsData = (List<Map<String, Object>>) orderRequest.get("orderItems");
+
+        List<OrderLine> lines = new ArrayList<>(orderItemsData.size());
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (Map<String, Object> itemData : orderItemsData) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> productData = (Map<String, Object>) itemData.get("product");
+            Long productId = Long.valueOf(productData.get("id").toString());
+            Number quantityNum = (Number) itemData.get("quantity");
+            Number priceNum = (Number) itemData.get("price");
+
+            lines.add(new OrderLine(productId, quantityNum.intValue(), priceNum != null ? priceNum.doubleValue() : null));
+            productIds.add(productId);
+        }
+
+        // Tutar istemciden alınmaz; fiyatı tutmayan istek sepet yazılmadan ve transaction açılmadan reddedilir
+        long pricedTotal = pricingService.price(lines, submittedTotal);
+
+        // Sepet bellekte tutuluyorsa sipariş en güncel sepeti görsün diye önce yazılır
+        cartService.flushCart(userId);
+
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
+
+            Map<Long, Product> products = new HashMap<>();
+            for (Product product : productRepository.findAllById(productIds)) {
+                products.put(product.getId(), product);
+            }
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setOrderDate(LocalDateTime.parse(orderDateStr, DateTimeFormatter.ISO_DATE_TIME));
+            long totalCents = pricingService.reprice(lines, products, submittedTotal, pricedTotal);
+            order.setTotalAmount(totalCents / 100.0);
+
+            List<OrderItem> orderItems = new ArrayList<>(lines.size());
+            for (OrderLine line : lines) {
+                // Constructor kullanarak OrderItem oluştur (snapshot bilgileri otomatik set edilir)
+                orderItems.add(new OrderItem(order, products.get(line.productId), line.quantity, line.unitPrice()));
+            }
+            order.setOrderItems(orderItems);
+
+            // Cascade ile kalemler de eklenir; id'ler sequence'tan blok halinde alındığı için insert'ler batch'lenir
+            entityManager.persist(order);
+            sellerOrderIndex.recordOrder(order);
+            salesRollupService.recordOrder(order);
+            leaderboard.recordOrder(order);
+            orderOutbox.record(order.getId(), userId, null, order.getStatus());
+            if (recordKey != null) {
+                // Aynı anahtar başka süreçte yazıldıysa commit'te unique ihlali olur ve sipariş geri alınır
+                entityManager.persist(idempotencyService.newRecord(recordKey, userId, order.getId()));
+            }
+            return order;
+        });
+    }
+
+    // Sipariş sıcak tabloda yoksa arşivden silinir. Arşivleme turu ve satış özeti yeniden oluşturma ile
+    // aynı anda çalışmaz: sipariş arada arşive taşınamaz, özetten iki kez düşülmez. Bulunamazsa false döner.
+    public boolean deleteOrder(Long id) {
+        return orderArchive.runExclusive(() -> transactionTemplate.execute(status -> {
+            Optional<Order> hot = orderRepository.findById(id);
+            if (hot.isPresent()) {
+                Order order = hot.get();
+                sellerOrderIndex.removeOrder(id, order.getStatus());
+                salesRollupService.removeOrder(id, order.getStatus());
+                orderRepository.delete(order);
+                return true;
+            }
+            Optional<Order> archived = orderArchive.findOrder(id);
+            if (archived.isEmpty()) return false;
+            sellerOrderIndex.removeOrder(id, archived.get().getStatus());
+            salesRollupService.removeArchivedOrder(archived.get());
+            return orderArchive.delete(id);
+        }));
+    }
+
+    // Satıcı kalemleri, satıcı toplamları ve satış özetleri durumla aynı transaction'da güncellenir
+    public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı"));
+            OrderStatus oldStatus = order.getStatus();
+            order.setStatus(newStatus);
+            sellerOrderIndex.onStatusChange(orderId, oldStatus, newStatus);
+            salesRollupService.onStatusChange(orderId, oldStatus, newStatus);
+            if (oldStatus != newStatus) {
+                // Bildirimler commit sonrası outbox üzerinden gider; istek abonelerin işini beklemez
+                orderOutbox.record(orderId, order.getUser() != null ? order.getUser().getId() : null, oldStatus, newStatus);
+            }
+            return orderRepository.save(order);
+        });
     }
     
+    // Yalnızca sıcak tablo; arşivdekiler dahil tüm kalemler getSellerOrderPage ile sayfalı okunur
     public List<Order> getOrdersForSeller(Long sellerId) {
         return orderRepository.findAllBySellerId(sellerId);
     }
-} 
\ No newline at end of file
+
+    public List<OrderEvent> getStatusHistory(Long orderId) {
+        if (!orderRepository.existsById(orderId) && !orderArchive.isArchived(orderId)) {
+            throw new RuntimeException("Sipariş bulunamadı");
+        }
+        return orderOutbox.getHistory(orderId);
+    }
+
+    // Satıcı paneli: yalnızca satıcının kalemleri seller_order_lines üzerinden sayfalanır
+    public SellerOrderPage getSellerOrderPage(Long sellerId, String cursor, int size) {
+        return sellerOrderIndex.getPage(sellerId, cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    // İki liste de (orderDate, id) azalan sıradadır
+    private static List<OrderSummary> mergeNewestFirst(List<OrderSummary> hot, List<OrderSummary> archived, int limit) {
+        if (archived.isEmpty()) return hot;
+        List<OrderSummary> merged = new ArrayList<>(limit);
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < hot.size() || j < archived.size())) {
+            OrderSummary next;
+            if (j >= archived.size()) {
+                next = hot.get(i++);
+            } else if (i >= hot.size()) {
+                next = archived.get(j++);
+            } else {
+                OrderSummary a = hot.get(i);
+                OrderSummary b = archived.get(j);
+                int cmp = a.getOrderDate().compareTo(b.getOrderDate());
+                if (cmp == 0) cmp = a.getId().compareTo(b.getId());
+                if (cmp == 0) {
+                    j++;
+                    continue;
+                }
+                next = cmp > 0 ? hot.get(i++) : archived.get(j++);
+            }
+            merged.add(next);
+        }
+        return merged;
+    }
+}
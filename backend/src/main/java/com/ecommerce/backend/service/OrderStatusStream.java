@@ -0,0 +1,315 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.OrderEvent;
+import com.ecommerce.backend.model.OrderStatusEvent;
+import com.ecommerce.backend.repository.OrderEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Kullanıcının siparişlerindeki durum değişikliklerini SSE ile iletir. OrderEventBus abonesidir;
+// olaylar bağlantı başına sınırlı bir tampona alınır ve ortak gönderici iş parçacıklarıyla yazılır.
+// Tamponu dolan (yavaş) bağlantı kapatılır; istemci Last-Event-ID ile yeniden bağlanınca kaçırdığı
+// olaylar order_events'ten tampon boyutunda sayfalarla, tampona girmeden doğrudan tekrar gönderilir.
+// Tekrar gönderim sürerken gelen canlı olaylar bekletilir, gönderilmiş olanlar atılır; böylece sıra
+// korunur. max-replay aşılırsa "resync" olayı gönderilir ve istemci durumu baştan yükler.
+// Boşta bağlantılar heartbeat ile canlı tutulur.
+@Service
+public class OrderStatusStream {
+
+    private final OrderEventBus eventBus;
+    private final OrderEventRepository eventRepository;
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final int bufferSize;
+    private final int maxReplay;
+    private final long timeoutMillis;
+    private final long heartbeatSeconds;
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+
+    public OrderStatusStream(OrderEventBus eventBus,
+                             OrderEventRepository eventRepository,
+                             @Value("${order.sse.max-connections:1000}") int maxConnections,
+                             @Value("${order.sse.max-connections-per-user:5}") int maxConnectionsPerUser,
+                             @Value("${order.sse.buffer-size:32}") int bufferSize,
+                             @Value("${order.sse.max-replay:1000}") int maxReplay,
+                             @Value("${order.sse.timeout-ms:1800000}") long timeoutMillis,
+                             @Value("${order.sse.heartbeat-seconds:20}") long heartbeatSeconds,
+                             @Value("${order.sse.sender-threads:2}") int senderThreads) {
+        this.eventBus = eventBus;
+        this.eventRepository = eventRepository;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.bufferSize = bufferSize;
+        this.maxReplay = maxReplay;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.scheduler = Executors.newScheduledThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-sse");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        eventBus.subscribe("sse", this::dispatch);
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    // Sınır aşılırsa IllegalStateException. lastEventId verilirse sonrasındaki olaylar önce gönderilir.
+    public SseEmitter open(Long userId, Long lastEventId) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            throw new IllegalStateException("Sunucudaki bağlantı sınırına ulaşıldı");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(userId, emitter);
+        AtomicBoolean added = new AtomicBoolean();
+        connections.compute(userId, (id, userConnections) -> {
+            Set<Connection> set = userConnections != null ? userConnections : ConcurrentHashMap.newKeySet();
+            if (set.size() < maxConnectionsPerUser) {
+                set.add(connection);
+                added.set(true);
+            }
+            return set.isEmpty() ? null : set;
+        });
+        if (!added.get()) {
+            connectionCount.decrementAndGet();
+            throw new IllegalStateException("Kullanıcı için bağlantı sınırına ulaşıldı");
+        }
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(error -> connection.close());
+
+        try {
+            // Yanıt başlıkları hemen gitsin; istemci bağlantının açıldığını görür
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            connection.close();
+            return emitter;
+        }
+        if (lastEventId != null) {
+            // Bağlantı canlı dağıtıma kayıtlı ama beklemede; kaçırılanlar gönderilince canlıya geçer
+            scheduler.execute(() -> connection.replay(lastEventId));
+        } else {
+            connection.goLive(0L, false);
+        }
+        return emitter;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connections", connectionCount.get());
+        stats.put("maxConnections", maxConnections);
+        stats.put("sent", sent.get());
+        stats.put("droppedSlowConnections", dropped.get());
+        stats.put("replayed", replayed.get());
+        stats.put("resyncs", resyncs.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        connections.values().forEach(userConnections -> userConnections.forEach(Connection::complete));
+    }
+
+    private void dispatch(List<OrderStatusEvent> events) {
+        for (OrderStatusEvent event : events) {
+            if (event.getUserId() == null) continue;
+            Set<Connection> userConnections = connections.get(event.getUserId());
+            if (userConnections == null) continue;
+            for (Connection connection : userConnections) {
+                connection.offer(event);
+            }
+        }
+    }
+
+    private static OrderStatusEvent toStatusEvent(OrderEvent event) {
+        return new OrderStatusEvent(event.getId(), event.getOrderId(), event.getUserId(),
+                event.getOldStatus(), event.getNewStatus(), event.getCreatedAt());
+    }
+
+    private void heartbeat() {
+        connections.values().forEach(userConnections -> userConnections.forEach(Connection::heartbeat));
+    }
+
+    private final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<OrderStatusEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Aşağıdakiler this ile korunur. Canlıya geçene kadar dağıtılan olaylar pending'de bekler;
+        // pending taşarsa atılır ve kaçırılanlar veritabanından yeniden okunur (olaylar orada zaten kayıtlı)
+        private final List<OrderStatusEvent> pending = new ArrayList<>();
+        private boolean pendingOverflow;
+        private boolean live;
+        // Tampona alınan ya da tekrar gönderilen son olay; daha eskisi yinelenmiş sayılıp atılır
+        private long lastQueuedId;
+
+        private Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        // Dağıtıcı iş parçacığından çağrılır
+        private synchronized void offer(OrderStatusEvent event) {
+            if (closed.get()) return;
+            if (!live) {
+                if (pending.size() < bufferSize) {
+                    pending.add(event);
+                } else {
+                    pending.clear();
+                    pendingOverflow = true;
+                }
+                return;
+            }
+            enqueue(event);
+        }
+
+        // Kaçırılan olaylar sayfa sayfa, gönderim tamamlandıkça okunur; tampon kullanılmaz
+        private void replay(long afterId) {
+            long lastId = afterId;
+            int count = 0;
+            while (!closed.get()) {
+                List<OrderEvent> page = eventRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                        userId, lastId, PageRequest.of(0, bufferSize));
+                for (OrderEvent event : page) {
+                    if (!sendEvent(toStatusEvent(event))) return;
+                    lastId = event.getId();
+                    replayed.incrementAndGet();
+                }
+                count += page.size();
+                if (page.size() < bufferSize) {
+                    // Son sayfa: bekleyen canlı olaylar kaybolmadıysa canlıya geç, kaybolduysa okumaya devam et
+                    if (goLive(lastId, false)) return;
+                } else if (count >= maxReplay) {
+                    resync();
+                    return;
+                }
+            }
+        }
+
+        // Çok fazla olay kaçırılmış: istemci durumu baştan yükler, akış en son olaydan devam eder
+        private void resync() {
+            Long latestId = eventRepository.findTopByUserIdOrderByIdDesc(userId).map(OrderEvent::getId).orElse(0L);
+            if (!send(SseEmitter.event().id(latestId.toString()).name("resync")
+                    .data(Map.of("lastEventId", latestId), MediaType.APPLICATION_JSON))) {
+                return;
+            }
+            resyncs.incrementAndGet();
+            goLive(latestId, true);
+        }
+
+        // Bekleyen olaylar id sırasıyla tampona alınır; force yoksa ve pending taşmışsa false döner
+        private synchronized boolean goLive(long lastSentId, boolean force) {
+            if (pendingOverflow && !force) {
+                pendingOverflow = false;
+                return false;
+            }
+            pendingOverflow = false;
+            lastQueuedId = lastSentId;
+            live = true;
+            pending.sort(Comparator.comparing(OrderStatusEvent::getId));
+            for (OrderStatusEvent event : pending) {
+                enqueue(event);
+            }
+            pending.clear();
+            return true;
+        }
+
+        private void enqueue(OrderStatusEvent event) {
+            if (event.getId() <= lastQueuedId) return;
+            lastQueuedId = event.getId();
+            if (!buffer.offer(event)) {
+                // Yavaş istemci: bağlantı kapatılır, yeniden bağlanınca kaçırdıkları tekrar gönderilir
+                dropped.incrementAndGet();
+                complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                scheduler.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                OrderStatusEvent event;
+                while ((event = buffer.poll()) != null) {
+                    if (!sendEvent(event)) return;
+                }
+                draining.set(false);
+                // Bayrak bırakılırken gelen olay kaçmasın
+                if (buffer.isEmpty() || !draining.compareAndSet(false, true)) return;
+            }
+        }
+
+        private void heartbeat() {
+            send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        private boolean sendEvent(OrderStatusEvent event) {
+            if (!send(SseEmitter.event().id(event.getId().toString()).name("status")
+                    .data(event, MediaType.APPLICATION_JSON))) {
+                return false;
+            }
+            sent.incrementAndGet();
+            return true;
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) return false;
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // İstemci gitmiş
+                close();
+                return false;
+            }
+        }
+
+        private void complete() {
+            close();
+            emitter.complete();
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            connections.computeIfPresent(userId, (id, userConnections) -> {
+                userConnections.remove(this);
+                return userConnections.isEmpty() ? null : userConnections;
+            });
+            connectionCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sipariş fiyatlandırması için ürün id -> kuruş cinsinden birim fiyat önbelleği. Okuma kilitsizdir ve
+// nesne oluşturmaz; eksik fiyatlar tek sorguyla yüklenir. Ürün güncellenince/silinince geçersiz kılınır.
+// Dolunca CLOCK ile yer açılır: okuma yalnızca kaydın kullanıldı bitini işaretler, ekleme sırasında saat
+// ibresi biti temizleyerek ilerler ve son turdan beri okunmamış ilk kaydı çıkarır.
+@Component
+public class PriceCache {
+
+    static final long MISSING = -1;
+
+    private final ProductRepository productRepository;
+    private final int maxSize;
+    private final ConcurrentHashMap<Long, Entry> prices = new ConcurrentHashMap<>();
+    // Saat halkası: her yuvada bir ürün id'si; geçersiz kılınan kaydın yuvası ibre gelince yeniden kullanılır
+    private final Long[] slots;
+    private int usedSlots;
+    private int hand;
+    // Yükleme sürerken gelen geçersiz kılma, eski fiyatın önbelleğe yazılmasını engeller
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PriceCache(ProductRepository productRepository,
+                      @Value("${order.pricing.cache-max-size:100000}") int maxSize) {
+        this.productRepository = productRepository;
+        this.maxSize = maxSize;
+        this.slots = new Long[Math.max(maxSize, 0)];
+    }
+
+    // Önbellekte yoksa MISSING döner
+    long getCents(Long productId) {
+        Entry entry = prices.get(productId);
+        if (entry == null) {
+            misses.increment();
+            return MISSING;
+        }
+        if (!entry.referenced) entry.referenced = true;
+        hits.increment();
+        return entry.cents;
+    }
+
+    // Eksik id'lerin fiyatları tek sorguyla yüklenir ve döner; veritabanında olmayan ürünler dönmez
+    Map<Long, Long> load(Collection<Long> productIds) {
+        Map<Long, Long> loaded = new HashMap<>();
+        if (productIds.isEmpty()) return loaded;
+        long loadGeneration = generation.get();
+        for (Object[] row : productRepository.findPricesByIds(productIds)) {
+            long cents = toCents((Double) row[1]);
+            loaded.put((Long) row[0], cents);
+            put((Long) row[0], cents, loadGeneration);
+        }
+        return loaded;
+    }
+
+    synchronized void put(Long productId, long cents, long loadGeneration) {
+        if (maxSize <= 0) return;
+        Entry current = prices.get(productId);
+        int slot = current != null ? current.slot : claimSlot();
+        slots[slot] = productId;
+        prices.put(productId, new Entry(cents, slot));
+        if (generation.get() != loadGeneration) {
+            // Yükleme sırasında fiyat değişmiş olabilir; bir sonraki okuma veritabanından alır
+            prices.remove(productId);
+        }
+    }
+
+    // Boş yuva yoksa ibre kullanıldı bitlerini temizleyerek ilerler; en fazla iki turda bir yuva bulunur
+    private int claimSlot() {
+        if (usedSlots < slots.length) {
+            return usedSlots++;
+        }
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) % slots.length;
+            Entry entry = prices.get(slots[slot]);
+            if (entry == null || entry.slot != slot) {
+                return slot;
+            }
+            if (entry.referenced) {
+                entry.referenced = false;
+                continue;
+            }
+            if (prices.remove(slots[slot], entry)) {
+                evictions.increment();
+            }
+            return slot;
+        }
+    }
+
+    public void invalidate(Long productId) {
+        generation.incrementAndGet();
+        if (prices.remove(productId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateAll(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            invalidate(productId);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", prices.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("invalidations", invalidations.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private static final class Entry {
+        private final long cents;
+        private final int slot;
+        private volatile boolean referenced;
+
+        private Entry(long cents, int slot) {
+            this.cents = cents;
+            this.slot = slot;
+        }
+    }
+}
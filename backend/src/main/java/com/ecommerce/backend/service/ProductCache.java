@@ -0,0 +1,155 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Category;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.Entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// getProductById ve çoklu id sorguları için boyut ve süre (TTL) sınırlı LRU ürün önbelleği.
+// Yazma işlemleri (kaydet, güncelle, sil, CSV içe aktarma) ilgili id'leri geçersiz kılar.
+// Önbellek kendi kopyasını tutar ve her okumada yeni bir kopya döner; çağıranın değişikliği önbelleğe sızmaz.
+@Component
+public class ProductCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<Long, CachedProduct> entries;
+    // Yükleme sürerken gelen geçersiz kılma, eski okumanın önbelleğe yazılmasını engeller
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(@Value("${product.cache.max-size:10000}") int maxSize,
+                        @Value("${product.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        // accessOrder=true: en uzun süredir okunmayan kayıt ilk çıkarılır
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedProduct> eldest) {
+                if (size() > ProductCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Product get(Long id) {
+        CachedProduct cached = entries.get(id);
+        if (cached == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (cached.expiresAt < System.currentTimeMillis()) {
+            entries.remove(id);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(cached.product);
+    }
+
+    // Veritabanından okumadan önce alınır ve put'a verilir
+    public long generation() {
+        return generation.get();
+    }
+
+    // Okuma başladıktan sonra bir geçersiz kılma olduysa yazılmaz; bir sonraki okuma veritabanından alır
+    public synchronized void put(Product product, long loadGeneration) {
+        if (product == null || product.getId() == null || maxSize <= 0) return;
+        if (generation.get() != loadGeneration) return;
+        entries.put(product.getId(), new CachedProduct(copy(product), System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void invalidate(Long id) {
+        generation.incrementAndGet();
+        if (entries.remove(id) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidateAll(Collection<Long> ids) {
+        for (Long id : ids) {
+            invalidate(id);
+        }
+    }
+
+    public synchronized void clear() {
+        generation.incrementAndGet();
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    // Kategori ve satıcı da kopyalanır; koleksiyon ilişkileri (sipariş, sepet, favori) taşınmaz
+    private static Product copy(Product source) {
+        Product product = new Product();
+        product.setId(source.getId());
+        product.setName(source.getName());
+        product.setDescription(source.getDescription());
+        product.setImageUrl(source.getImageUrl());
+        product.setPrice(source.getPrice());
+        Category category = source.getCategory();
+        if (category != null) {
+            Category categoryCopy = new Category();
+            categoryCopy.setId(category.getId());
+            categoryCopy.setName(category.getName());
+            product.setCategory(categoryCopy);
+        }
+        User seller = source.getSeller();
+        if (seller != null) {
+            User sellerCopy = new User();
+            sellerCopy.setId(seller.getId());
+            sellerCopy.setUsername(seller.getUsername());
+            sellerCopy.setEmail(seller.getEmail());
+            sellerCopy.setPassword(seller.getPassword());
+            sellerCopy.setRole(seller.getRole());
+            sellerCopy.setPhone(seller.getPhone());
+            sellerCopy.setAddress(seller.getAddress());
+            sellerCopy.setCity(seller.getCity());
+            product.setSeller(sellerCopy);
+        }
+        return product;
+    }
+
+    private static final class CachedProduct {
+        private final Product product;
+        private final long expiresAt;
+
+        private CachedProduct(Product product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
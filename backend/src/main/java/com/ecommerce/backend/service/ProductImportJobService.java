@@ -0,0 +1,389 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Category;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.Entity.ProductImportJob;
+import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.model.ImportJobStatus;
+import com.ecommerce.backend.repository.ProductImportJobRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import com.ecommerce.backend.util.CsvPipeline;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// CSV içe aktarmayı arka plan işi olarak çalıştırır. Dosya diske kopyalanır, iş sınırlı bir
+// executor kuyruğuna alınır ve her batch kendi transaction'ında commit edilir. Ürünler ile
+// checkpoint (lastCommittedLine) aynı transaction'da yazıldığından, yarıda kalan bir iş
+// kaldığı yerden tekrar satır eklemeden devam edebilir.
+@Service
+public class ProductImportJobService {
+
+    private static final Set<ImportJobStatus> RESUMABLE = EnumSet.of(
+            ImportJobStatus.INTERRUPTED, ImportJobStatus.CANCELLED, ImportJobStatus.FAILED);
+
+    private final ProductImportJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final ProductImportService importService;
+    private final ProductSearchIndex searchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Path jobDirectory;
+    private final boolean resumeOnStartup;
+
+    // Kuyruktaki ve çalışan işlerin iptal bayrakları
+    private final Map<String, AtomicBoolean> cancelFlags = new ConcurrentHashMap<>();
+    // Executor kuyruğunda bekleyen görevler; iptalde kuyruktan çıkarılır
+    private final Map<String, Runnable> queuedTasks = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductImportJobService(ProductImportJobRepository jobRepository,
+                                   UserRepository userRepository,
+                                   ProductImportService importService,
+                                   ProductSearchIndex searchIndex,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${product.import.job-threads:2}") int threads,
+                                   @Value("${product.import.job-queue-capacity:20}") int queueCapacity,
+                                   @Value("${product.import.job-dir:./import-jobs}") String jobDirectory,
+                                   @Value("${product.import.resume-on-startup:true}") boolean resumeOnStartup) {
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.importService = importService;
+        this.searchIndex = searchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobDirectory = Paths.get(jobDirectory);
+        this.resumeOnStartup = resumeOnStartup;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ProductImportJob submit(MultipartFile file, Long sellerId, Integer batchSize) throws IOException {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Dosya boş");
+        }
+        if (!userRepository.existsById(sellerId)) {
+            throw new RuntimeException("Satıcı bulunamadı");
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        Files.createDirectories(jobDirectory);
+        Path target = jobDirectory.resolve(jobId + ".csv");
+        try (var input = file.getInputStream()) {
+            Files.copy(input, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        ProductImportJob job = new ProductImportJob();
+        job.setId(jobId);
+        job.setSellerId(sellerId);
+        job.setFilePath(target.toAbsolutePath().toString());
+        job.setOriginalFileName(file.getOriginalFilename());
+        job.setBatchSize(importService.resolveBatchSize(batchSize));
+        job.setStatus(ImportJobStatus.QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        enqueue(job);
+        return job;
+    }
+
+    public ProductImportJob getJob(String jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("İçe aktarma işi bulunamadı: " + jobId));
+    }
+
+    public ProductImportJob cancel(String jobId) {
+        getJob(jobId);
+        AtomicBoolean flag = cancelFlags.get(jobId);
+        if (flag != null) {
+            // Çalışan iş bir sonraki batch sınırında durur
+            flag.set(true);
+        }
+        // Henüz başlamadıysa koşullu güncelleme ile iptal edilir; görev kuyruktan da çıkarılır ki
+        // devam ettirildiğinde aynı iş için ikinci bir görev oluşmasın
+        if (jobRepository.cancelQueued(jobId, LocalDateTime.now()) > 0) {
+            if (flag != null) {
+                cancelFlags.remove(jobId, flag);
+            }
+            Runnable task = queuedTasks.remove(jobId);
+            if (task != null) {
+                executor.remove(task);
+            }
+        }
+        return getJob(jobId);
+    }
+
+    public ProductImportJob resume(String jobId) {
+        ProductImportJob job = getJob(jobId);
+        if (!RESUMABLE.contains(job.getStatus())) {
+            throw new RuntimeException("Bu iş devam ettirilemez, durum: " + job.getStatus());
+        }
+        if (!Files.exists(Paths.get(job.getFilePath()))) {
+            throw new RuntimeException("İçe aktarma dosyası bulunamadı: " + job.getOriginalFileName());
+        }
+        job.setStatus(ImportJobStatus.QUEUED);
+        job.setMessage(null);
+        job.setFinishedAt(null);
+        jobRepository.save(job);
+        enqueue(job);
+        return job;
+    }
+
+    public Map<String, Object> describe(ProductImportJob job) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobId", job.getId());
+        result.put("status", job.getStatus());
+        result.put("fileName", job.getOriginalFileName());
+        result.put("processed", job.getProcessedCount());
+        result.put("succeeded", job.getSuccessCount());
+        result.put("failed", job.getErrorCount());
+        result.put("lastCommittedLine", job.getLastCommittedLine());
+        result.put("rowsPerSecond", rowsPerSecond(job));
+        result.put("batchSize", job.getBatchSize());
+        result.put("createdAt", job.getCreatedAt());
+        result.put("startedAt", job.getRunStartedAt());
+        result.put("finishedAt", job.getFinishedAt());
+        result.put("message", job.getMessage());
+        result.put("errors", job.getErrorLog() == null || job.getErrorLog().isEmpty()
+                ? List.of() : List.of(job.getErrorLog().split("\n")));
+        return result;
+    }
+
+    // Uygulama kapanırken RUNNING/QUEUED kalan işler bir sonraki açılışta INTERRUPTED olarak işaretlenir
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        List<ProductImportJob> stale = jobRepository.findByStatusIn(
+                EnumSet.of(ImportJobStatus.RUNNING, ImportJobStatus.QUEUED));
+        for (ProductImportJob job : stale) {
+            job.setStatus(ImportJobStatus.INTERRUPTED);
+            job.setMessage("Uygulama yeniden başlatıldı, satır " + job.getLastCommittedLine() + " sonrasından devam edilecek");
+            jobRepository.save(job);
+            if (resumeOnStartup) {
+                try {
+                    resume(job.getId());
+                } catch (RuntimeException e) {
+                    job.setMessage(e.getMessage());
+                    jobRepository.save(job);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        cancelFlags.values().forEach(flag -> flag.set(true));
+        executor.shutdown();
+    }
+
+    private void enqueue(ProductImportJob job) {
+        String jobId = job.getId();
+        cancelFlags.put(jobId, new AtomicBoolean(false));
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                queuedTasks.remove(jobId, this);
+                ProductImportJobService.this.run(jobId);
+            }
+        };
+        queuedTasks.put(jobId, task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            queuedTasks.remove(jobId, task);
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setMessage("İçe aktarma kuyruğu dolu, daha sonra devam ettirin");
+            jobRepository.save(job);
+        }
+    }
+
+    private void run(String jobId) {
+        // Koşullu güncelleme: iptal edilmiş ya da başka bir görevin aldığı iş çalıştırılmaz
+        if (jobRepository.claimQueued(jobId, LocalDateTime.now()) == 0) return;
+        ProductImportJob job = getJob(jobId);
+
+        AtomicBoolean cancelled = cancelFlags.computeIfAbsent(jobId, id -> new AtomicBoolean(false));
+        try {
+            boolean finished = process(job, cancelled);
+            job = getJob(jobId);
+            if (finished) {
+                job.setStatus(ImportJobStatus.COMPLETED);
+                Files.deleteIfExists(Paths.get(job.getFilePath()));
+            } else if (shuttingDown) {
+                job.setStatus(ImportJobStatus.INTERRUPTED);
+                job.setMessage("Uygulama kapatıldı, satır " + job.getLastCommittedLine() + " sonrasından devam edilecek");
+            } else {
+                job.setStatus(ImportJobStatus.CANCELLED);
+                job.setMessage("İptal edildi, satır " + job.getLastCommittedLine() + " sonrasından devam ettirilebilir");
+            }
+        } catch (Exception e) {
+            job = getJob(jobId);
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setMessage(e.getMessage());
+        } finally {
+            cancelFlags.remove(jobId, cancelled);
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    // Dosyayı checkpoint'ten sonrası için okur; satırlar paralel doğrulanır, batch'ler okunma
+    // sırasıyla commit edilir. İptal edilirse false döner
+    private boolean process(ProductImportJob job, AtomicBoolean cancelled) throws Exception {
+        User seller = userRepository.findById(job.getSellerId())
+                .orElseThrow(() -> new RuntimeException("Satıcı bulunamadı"));
+        Map<String, Category> categoriesByName = importService.loadCategories();
+        CsvPipeline<Product> pipeline = new CsvPipeline<>(job.getBatchSize());
+
+        // İlk kayıt header; checkpoint'e kadar başlayan kayıtlar zaten commit edildi
+        return pipeline.run(Files.newBufferedReader(Paths.get(job.getFilePath()), StandardCharsets.UTF_8),
+                job.getLastCommittedLine(),
+                fields -> ProductService.parseCSVRecord(fields, seller,
+                        name -> Optional.ofNullable(categoriesByName.get(name))),
+                chunk -> {
+                    commitChunk(job.getId(), chunk, job.getBatchSize());
+                    return !cancelled.get();
+                });
+    }
+
+    // Batch'teki ürünler ve işin sayaç/checkpoint güncellemesi tek transaction'da commit edilir
+    private void commitChunk(String jobId, CsvPipeline.Chunk<Product> chunk, int batchSize) {
+        List<Product> products = new ArrayList<>(chunk.getRows().size());
+        List<String> errors = new ArrayList<>();
+        for (CsvPipeline.Row<Product> row : chunk.getRows()) {
+            if (row.isValid()) {
+                products.add(row.getValue());
+            } else {
+                errors.add("Satır " + row.getLine() + ": " + row.getError());
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (Product product : products) {
+                    entityManager.persist(product);
+                }
+                recordProgress(jobId, chunk.getRows().size(), products.size(), errors, chunk.getLastLine());
+            });
+        } catch (RuntimeException e) {
+            // Veritabanı batch'i reddetti (örn. kolona sığmayan değer): aynı parça her devamda yeniden
+            // patlamasın diye satırlar tek tek yazılır, reddedilen satırlar satır hatası olarak kaydedilir
+            commitRowByRow(jobId, chunk);
+            return;
+        }
+        searchIndex.indexAll(products);
+    }
+
+    // Her satır kendi transaction'ında ürün ve checkpoint ile birlikte commit edilir; checkpoint satırın
+    // başladığı satır olduğu için yarıda kesilirse devam eden iş bir sonraki kayıttan başlar
+    private void commitRowByRow(String jobId, CsvPipeline.Chunk<Product> chunk) {
+        List<Product> saved = new ArrayList<>();
+        for (CsvPipeline.Row<Product> row : chunk.getRows()) {
+            if (!row.isValid()) {
+                transactionTemplate.executeWithoutResult(status -> recordProgress(jobId, 1, 0,
+                        List.of("Satır " + row.getLine() + ": " + row.getError()), row.getLine()));
+                continue;
+            }
+            Product product = row.getValue();
+            // Başarısız batch'te sequence'tan alınan id geri alınmadı; persist yeni id ister
+            product.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.persist(product);
+                    recordProgress(jobId, 1, 1, List.of(), row.getLine());
+                });
+                saved.add(product);
+            } catch (RuntimeException e) {
+                product.setId(null);
+                transactionTemplate.executeWithoutResult(status -> recordProgress(jobId, 1, 0,
+                        List.of("Satır " + row.getLine() + ": Kaydedilemedi - " + rootMessage(e)), row.getLine()));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> recordProgress(jobId, 0, 0, List.of(), chunk.getLastLine()));
+        searchIndex.indexAll(saved);
+    }
+
+    // Çağıranın transaction'ında işin sayaçlarını ve checkpoint'ini ilerletir
+    private void recordProgress(String jobId, int processed, int succeeded, List<String> errors, long lastCommittedLine) {
+        ProductImportJob job = entityManager.find(ProductImportJob.class, jobId);
+        job.setProcessedCount(job.getProcessedCount() + processed);
+        job.setSuccessCount(job.getSuccessCount() + succeeded);
+        job.setErrorCount(job.getErrorCount() + errors.size());
+        job.setErrorLog(appendErrors(job.getErrorLog(), errors));
+        job.setLastCommittedLine(lastCommittedLine);
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+        // H2 mesajları SQL'i de içerir; hata günlüğü için yalnızca açıklama kısmı yeterli
+        int sql = message.indexOf("; SQL statement");
+        return sql > 0 ? message.substring(0, sql) : message;
+    }
+
+    private String appendErrors(String errorLog, List<String> newErrors) {
+        int maxErrors = importService.getMaxErrors();
+        List<String> lines = new ArrayList<>();
+        if (errorLog != null && !errorLog.isEmpty()) {
+            lines.addAll(List.of(errorLog.split("\n")));
+        }
+        for (String error : newErrors) {
+            if (lines.size() >= maxErrors) break;
+            lines.add(error.replace('\n', ' '));
+        }
+        return String.join("\n", lines);
+    }
+
+    private static double rowsPerSecond(ProductImportJob job) {
+        if (job.getRunStartedAt() == null) return 0.0;
+        LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+        long millis = Duration.between(job.getRunStartedAt(), end).toMillis();
+        long rows = job.getProcessedCount() - job.getRunStartProcessedCount();
+        return millis <= 0 ? 0.0 : rows * 1000.0 / millis;
+    }
+}
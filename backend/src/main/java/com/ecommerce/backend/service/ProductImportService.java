@@ -0,0 +1,175 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Category;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.repository.CategoryRepository;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import com.ecommerce.backend.util.CsvPipeline;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Büyük satıcı kataloglarını akış halinde içe aktarır: dosya CsvPipeline ile okunup satırlar
+// paralel doğrulanır, kategoriler önceden yüklenmiş bir haritadan çözülür, ürünler JDBC
+// batch'leri halinde yazılır ve her batch sonrasında persistence context temizlenir. Bellekte yalnızca sayaçlar,
+// sınırlı bir hata listesi ve eklenen ürünlerin id'leri tutulur; arama indeksi commit sonrası bu id'lerle güncellenir.
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final int MAX_BATCH_SIZE = 5000;
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${product.import.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Value("${product.import.max-errors:100}")
+    private int maxErrors;
+
+    @Transactional
+    public Map<String, Object> importStreaming(MultipartFile file, Long sellerId, Integer batchSize) throws Exception {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Dosya boş");
+        }
+
+        User seller = userRepository.findById(sellerId)
+                .orElseThrow(() -> new RuntimeException("Satıcı bulunamadı"));
+        Map<String, Category> categoriesByName = loadCategories();
+
+        int effectiveBatchSize = resolveBatchSize(batchSize);
+        entityManager.unwrap(Session.class).setJdbcBatchSize(effectiveBatchSize);
+
+        ImportCounters counters = new ImportCounters(maxErrors);
+        List<Product> batch = new ArrayList<>(effectiveBatchSize);
+        List<Long> importedIds = new ArrayList<>();
+        indexAfterCommit(importedIds, effectiveBatchSize);
+
+        // Satırlar paralel doğrulanır; persist ve flush okunma sırasıyla bu transaction'da yapılır
+        new CsvPipeline<Product>(effectiveBatchSize).run(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8),
+                0,
+                fields -> ProductService.parseCSVRecord(fields, seller,
+                        name -> Optional.ofNullable(categoriesByName.get(name))),
+                chunk -> {
+                    for (CsvPipeline.Row<Product> row : chunk.getRows()) {
+                        counters.processed++;
+                        if (row.isValid()) {
+                            entityManager.persist(row.getValue());
+                            batch.add(row.getValue());
+                            counters.succeeded++;
+                        } else {
+                            counters.addError(row.getLine(), row.getError());
+                        }
+                    }
+                    flushBatch(batch, importedIds);
+                    return true;
+                });
+
+        return counters.toResult(effectiveBatchSize);
+    }
+
+    // Kategoriler tek sorguda yüklenir; satır başına findByName çağrısı yapılmaz
+    Map<String, Category> loadCategories() {
+        Map<String, Category> categoriesByName = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoriesByName.put(category.getName(), category);
+        }
+        return categoriesByName;
+    }
+
+    int getMaxErrors() {
+        return maxErrors;
+    }
+
+    int resolveBatchSize(Integer requested) {
+        int size = requested != null ? requested : defaultBatchSize;
+        return Math.max(1, Math.min(size, MAX_BATCH_SIZE));
+    }
+
+    // Batch'i veritabanına gönder, id'lerini topla ve persistence context'i boşalt
+    private void flushBatch(List<Product> batch, List<Long> importedIds) {
+        if (batch.isEmpty()) return;
+        entityManager.flush();
+        for (Product product : batch) {
+            importedIds.add(product.getId());
+        }
+        entityManager.clear();
+        batch.clear();
+    }
+
+    // Eşzamanlı aramalar geri alınabilecek ürünleri görmesin diye indeks yalnızca commit sonrası güncellenir;
+    // ürünler batch'ler halinde yeniden okunur, geri alınan içe aktarma indekse hiç girmez
+    private void indexAfterCommit(List<Long> importedIds, int batchSize) {
+        Runnable index = () -> {
+            for (int from = 0; from < importedIds.size(); from += batchSize) {
+                searchIndex.indexAll(productRepository.findAllById(
+                        importedIds.subList(from, Math.min(from + batchSize, importedIds.size()))));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.run();
+                }
+            });
+        } else {
+            index.run();
+        }
+    }
+
+    private static final class ImportCounters {
+        private final int maxErrors;
+        private final List<String> errors = new ArrayList<>();
+        private int processed;
+        private int succeeded;
+        private int failed;
+
+        private ImportCounters(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void addError(long lineNumber, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add("Satır " + lineNumber + ": " + message);
+            }
+        }
+
+        private Map<String, Object> toResult(int batchSize) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("totalProcessed", processed);
+            result.put("successCount", succeeded);
+            result.put("errorCount", failed);
+            result.put("errors", errors);
+            result.put("errorsTruncated", failed > errors.size());
+            result.put("batchSize", batchSize);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.Entity.OrderItem;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.model.RankedProduct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ana sayfa rayları için bellek içi ürün sıralamaları: kategori başına Bayes ortalamasına göre en iyi puanlılar
+// ve son window-hours saatteki hareketlere (satılan adet + ağırlıklı yorum) göre yükselenler. Yorum ve siparişler
+// commit edilince artımlı işlenir; top-K okuması sıralı kümenin başından K kayıt almaktır, sorgu çalışmaz.
+// Açılışta ve her rebuild-interval-minutes dakikada bir veritabanından yeniden kurulur; önsel ortalama da o an güncellenir.
+@Component
+public class ProductLeaderboard {
+
+    // Hiç yorum yokken kullanılan önsel ortalama
+    private static final double DEFAULT_PRIOR_MEAN = 3.0;
+
+    private static final String RATINGS_SQL = "SELECT r.product_id, p.category_id, COUNT(*) AS review_count, " +
+            "SUM(r.rating) AS rating_sum FROM reviews r JOIN products p ON p.id = r.product_id " +
+            "GROUP BY r.product_id, p.category_id";
+    private static final String REVIEW_ACTIVITY_SQL = "SELECT r.product_id, p.category_id, " +
+            "DATE_TRUNC('HOUR', r.review_date) AS bucket, COUNT(*) AS amount " +
+            "FROM reviews r JOIN products p ON p.id = r.product_id WHERE r.review_date >= ? " +
+            "GROUP BY r.product_id, p.category_id, DATE_TRUNC('HOUR', r.review_date)";
+    // Arşive yalnızca order.archive.min-age-days'ten eski siparişler taşındığı için pencere sıcak tablodadır
+    private static final String ORDER_ACTIVITY_SQL = "SELECT oi.product_id, p.category_id, " +
+            "DATE_TRUNC('HOUR', o.order_date) AS bucket, SUM(oi.quantity) AS amount " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.order_date >= ? GROUP BY oi.product_id, p.category_id, DATE_TRUNC('HOUR', o.order_date)";
+
+    private static final Comparator<Entry> BY_RATING = Comparator
+            .comparingDouble((Entry e) -> -e.ratingScore)
+            .thenComparingLong(e -> -e.reviewCount)
+            .thenComparingLong(e -> e.productId);
+    private static final Comparator<Entry> BY_ACTIVITY = Comparator
+            .comparingLong((Entry e) -> -e.activity)
+            .thenComparingLong(e -> e.productId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double priorWeight;
+    private final long reviewWeight;
+    private final int windowHours;
+    private final long rebuildIntervalMinutes;
+
+    // Sıralı kümeler skor alanlarına göre sıralıdır: kayıt değiştirilmeden önce çıkarılıp sonra yeniden eklenir
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> rated = new TreeSet<>(BY_RATING);
+    private final Map<Long, TreeSet<Entry>> ratedByCategory = new HashMap<>();
+    private final TreeSet<Entry> trending = new TreeSet<>(BY_ACTIVITY);
+    private final Map<Long, TreeSet<Entry>> trendingByCategory = new HashMap<>();
+    // Saat başı -> ürün id -> o saatteki hareket; pencereden çıkan saatler toplamlardan düşülür
+    private final TreeMap<LocalDateTime, Map<Long, Long>> buckets = new TreeMap<>();
+    private double priorMean = DEFAULT_PRIOR_MEAN;
+    // Okuma yolunun yazma kilidi almadan süresi dolan saat olup olmadığını görmesi için
+    private volatile LocalDateTime oldestBucket;
+
+    // Artımlı güncellemeler transaction bitene kadar okuma kilidini tutar; rebuild yazma kilidiyle
+    // veritabanını okuduğu sırada commit edilmemiş bir güncellemenin iki kez sayılmasını engeller
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile LocalDateTime lastRebuildAt;
+    private ScheduledExecutorService scheduler;
+
+    public ProductLeaderboard(JdbcTemplate jdbcTemplate,
+                              @Value("${leaderboard.rating.prior-weight:10}") double priorWeight,
+                              @Value("${leaderboard.trending.review-weight:3}") long reviewWeight,
+                              @Value("${leaderboard.trending.window-hours:168}") int windowHours,
+                              @Value("${leaderboard.rebuild-interval-minutes:60}") long rebuildIntervalMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.priorWeight = priorWeight;
+        this.reviewWeight = reviewWeight;
+        this.windowHours = windowHours;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        if (rebuildIntervalMinutes <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-leaderboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // Artımlı sıralamalar kullanılmaya devam eder, sonraki turda yeniden denenir
+            }
+        }, rebuildIntervalMinutes, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    public void reviewAdded(Product product, int rating) {
+        Long productId = product.getId();
+        Long categoryId = product.getCategoryId();
+        afterCommit(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            Entry entry = entryFor(productId, categoryId);
+            changeRating(entry, 1, rating);
+            addActivity(entry, now, reviewWeight, now);
+        });
+    }
+
+    public void reviewRemoved(Product product, int rating, LocalDateTime reviewDate) {
+        Long productId = product.getId();
+        afterCommit(() -> {
+            Entry entry = entries.get(productId);
+            // Sayaç eksiye düşmez; kayma bir sonraki yeniden kurulumda düzelir
+            if (entry == null || entry.reviewCount <= 0) return;
+            changeRating(entry, -1, -rating);
+            if (reviewDate != null) {
+                addActivity(entry, reviewDate, -reviewWeight, LocalDateTime.now());
+            }
+            removeIfEmpty(entry);
+        });
+    }
+
+    public void ratingChanged(Product product, int oldRating, int newRating) {
+        if (oldRating == newRating) return;
+        Long productId = product.getId();
+        afterCommit(() -> {
+            Entry entry = entries.get(productId);
+            if (entry == null || entry.reviewCount <= 0) return;
+            changeRating(entry, 0, newRating - oldRating);
+        });
+    }
+
+    // Siparişin kalemleri persist edilmiş olmalı; hareket sipariş tarihinin saatine yazılır
+    public void recordOrder(Order order) {
+        LocalDateTime orderDate = order.getOrderDate();
+        List<long[]> lines = new ArrayList<>(order.getOrderItems().size());
+        List<Long> categories = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            if (product == null) continue;
+            lines.add(new long[]{product.getId(), item.getQuantity()});
+            categories.add(product.getCategoryId());
+        }
+        if (lines.isEmpty()) return;
+        afterCommit(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < lines.size(); i++) {
+                addActivity(entryFor(lines.get(i)[0], categories.get(i)), orderDate, lines.get(i)[1], now);
+            }
+        });
+    }
+
+    // Ürünün kategorisi değiştiyse kategori sıralamaları arasında taşınır
+    public void productChanged(Long productId, Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(productId);
+            if (entry == null || Objects.equals(entry.categoryId, categoryId)) return;
+            detach(entry);
+            entry.categoryId = categoryId;
+            attach(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void productRemoved(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.remove(productId);
+            if (entry != null) detach(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // categoryId null ise tüm ürünler; dönen harita sıralıdır (ürün id -> puan)
+    public Map<Long, RankedProduct> topRated(Long categoryId, int limit) {
+        lock.readLock().lock();
+        try {
+            return top(categoryId != null ? ratedByCategory.get(categoryId) : rated, limit, true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, RankedProduct> trending(Long categoryId, int limit) {
+        return trending(categoryId, limit, LocalDateTime.now());
+    }
+
+    Map<Long, RankedProduct> trending(Long categoryId, int limit, LocalDateTime now) {
+        LocalDateTime windowStart = windowStart(now);
+        LocalDateTime oldest = oldestBucket;
+        if (oldest != null && oldest.isBefore(windowStart)) {
+            lock.writeLock().lock();
+            try {
+                expire(windowStart);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.readLock().lock();
+        try {
+            return top(categoryId != null ? trendingByCategory.get(categoryId) : trending, limit, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sıralamaları veritabanından yeniden kurar; önsel ortalama tüm yorumların ortalaması olur
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        rebuildLock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp windowStart = Timestamp.valueOf(windowStart(now));
+            List<Object[]> ratings = jdbcTemplate.query(RATINGS_SQL, (rs, rowNum) -> new Object[]{
+                    rs.getLong("product_id"), rs.getObject("category_id", Long.class),
+                    rs.getLong("review_count"), rs.getLong("rating_sum")});
+            List<Object[]> reviewActivity = jdbcTemplate.query(REVIEW_ACTIVITY_SQL, this::activityRow, windowStart);
+            List<Object[]> orderActivity = jdbcTemplate.query(ORDER_ACTIVITY_SQL, this::activityRow, windowStart);
+
+            lock.writeLock().lock();
+            try {
+                clear();
+                long reviewCount = 0;
+                long ratingSum = 0;
+                for (Object[] row : ratings) {
+                    reviewCount += (Long) row[2];
+                    ratingSum += (Long) row[3];
+                }
+                priorMean = reviewCount > 0 ? (double) ratingSum / reviewCount : DEFAULT_PRIOR_MEAN;
+                for (Object[] row : ratings) {
+                    changeRating(entryFor((Long) row[0], (Long) row[1]), (Long) row[2], (Long) row[3]);
+                }
+                for (Object[] row : reviewActivity) {
+                    addActivity(entryFor((Long) row[0], (Long) row[1]), (LocalDateTime) row[2], (Long) row[3] * reviewWeight, now);
+                }
+                for (Object[] row : orderActivity) {
+                    addActivity(entryFor((Long) row[0], (Long) row[1]), (LocalDateTime) row[2], (Long) row[3], now);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastRebuildAt = now;
+            Map<String, Object> result = new LinkedHashMap<>(getStats());
+            result.put("durationMs", System.currentTimeMillis() - start);
+            return result;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("products", entries.size());
+            stats.put("rated", rated.size());
+            stats.put("trending", trending.size());
+            stats.put("categories", ratedByCategory.size());
+            stats.put("buckets", buckets.size());
+            stats.put("priorMean", priorMean);
+            stats.put("priorWeight", priorWeight);
+            stats.put("windowHours", windowHours);
+            stats.put("lastRebuildAt", lastRebuildAt);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Object[] activityRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Object[]{rs.getLong("product_id"), rs.getObject("category_id", Long.class),
+                rs.getTimestamp("bucket").toLocalDateTime(), rs.getLong("amount")};
+    }
+
+    private Map<Long, RankedProduct> top(TreeSet<Entry> board, int limit, boolean byRating) {
+        Map<Long, RankedProduct> top = new LinkedHashMap<>();
+        if (board == null) return top;
+        Iterator<Entry> iterator = board.iterator();
+        while (iterator.hasNext() && top.size() < limit) {
+            Entry entry = iterator.next();
+            double averageRating = entry.reviewCount > 0 ? (double) entry.ratingSum / entry.reviewCount : 0.0;
+            top.put(entry.productId, new RankedProduct(byRating ? entry.ratingScore : entry.activity,
+                    entry.reviewCount, averageRating, entry.activity));
+        }
+        return top;
+    }
+
+    // Yalnızca yazma kilidi altında çağrılır
+    private void changeRating(Entry entry, long countDelta, long sumDelta) {
+        detach(entry);
+        entry.reviewCount += countDelta;
+        entry.ratingSum += sumDelta;
+        entry.ratingScore = (priorWeight * priorMean + entry.ratingSum) / (priorWeight + entry.reviewCount);
+        attach(entry);
+    }
+
+    // Yalnızca yazma kilidi altında çağrılır. Pencereden eski hareket yok sayılır, ileri tarih şimdiye çekilir.
+    private void addActivity(Entry entry, LocalDateTime at, long amount, LocalDateTime now) {
+        LocalDateTime windowStart = windowStart(now);
+        expire(windowStart);
+        LocalDateTime hour = (at.isAfter(now) ? now : at).truncatedTo(ChronoUnit.HOURS);
+        if (hour.isBefore(windowStart)) return;
+        Map<Long, Long> bucket = buckets.get(hour);
+        if (bucket == null) {
+            // Silinen hareketin saati artık yoksa düşülecek bir şey de yoktur
+            if (amount < 0) return;
+            bucket = new HashMap<>();
+            buckets.put(hour, bucket);
+            oldestBucket = buckets.firstKey();
+        }
+        long applied = amount < 0 ? -Math.min(-amount, bucket.getOrDefault(entry.productId, 0L)) : amount;
+        if (applied == 0) return;
+        bucket.merge(entry.productId, applied, Long::sum);
+        detach(entry);
+        entry.activity += applied;
+        attach(entry);
+    }
+
+    private void expire(LocalDateTime windowStart) {
+        while (!buckets.isEmpty() && buckets.firstKey().isBefore(windowStart)) {
+            for (Map.Entry<Long, Long> expired : buckets.pollFirstEntry().getValue().entrySet()) {
+                Entry entry = entries.get(expired.getKey());
+                if (entry == null) continue;
+                detach(entry);
+                entry.activity -= expired.getValue();
+                attach(entry);
+                removeIfEmpty(entry);
+            }
+        }
+        oldestBucket = buckets.isEmpty() ? null : buckets.firstKey();
+    }
+
+    private Entry entryFor(Long productId, Long categoryId) {
+        Entry entry = entries.get(productId);
+        if (entry == null) {
+            entry = new Entry(productId, categoryId);
+            entry.ratingScore = priorMean;
+            entries.put(productId, entry);
+        }
+        return entry;
+    }
+
+    private void removeIfEmpty(Entry entry) {
+        if (entry.reviewCount <= 0 && entry.activity <= 0) {
+            detach(entry);
+            entries.remove(entry.productId);
+        }
+    }
+
+    private void attach(Entry entry) {
+        if (entry.reviewCount > 0) {
+            rated.add(entry);
+            if (entry.categoryId != null) {
+                ratedByCategory.computeIfAbsent(entry.categoryId, id -> new TreeSet<>(BY_RATING)).add(entry);
+            }
+        }
+        if (entry.activity > 0) {
+            trending.add(entry);
+            if (entry.categoryId != null) {
+                trendingByCategory.computeIfAbsent(entry.categoryId, id -> new TreeSet<>(BY_ACTIVITY)).add(entry);
+            }
+        }
+    }
+
+    private void detach(Entry entry) {
+        rated.remove(entry);
+        trending.remove(entry);
+        if (entry.categoryId == null) return;
+        TreeSet<Entry> categoryRated = ratedByCategory.get(entry.categoryId);
+        if (categoryRated != null && categoryRated.remove(entry) && categoryRated.isEmpty()) {
+            ratedByCategory.remove(entry.categoryId);
+        }
+        TreeSet<Entry> categoryTrending = trendingByCategory.get(entry.categoryId);
+        if (categoryTrending != null && categoryTrending.remove(entry) && categoryTrending.isEmpty()) {
+            trendingByCategory.remove(entry.categoryId);
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        rated.clear();
+        ratedByCategory.clear();
+        trending.clear();
+        trendingByCategory.clear();
+        buckets.clear();
+        oldestBucket = null;
+    }
+
+    private LocalDateTime windowStart(LocalDateTime now) {
+        return now.truncatedTo(ChronoUnit.HOURS).minusHours(windowHours - 1L);
+    }
+
+    // Değişiklik commit sonrası uygulanır; transaction yoksa hemen
+    private void afterCommit(Runnable change) {
+        rebuildLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                apply(change);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class Entry {
+        private final Long productId;
+        private Long categoryId;
+        private long reviewCount;
+        private long ratingSum;
+        private double ratingScore;
+        private long activity;
+
+        private Entry(Long productId, Long categoryId) {
+            this.productId = productId;
+            this.categoryId = categoryId;
+        }
+    }
+}
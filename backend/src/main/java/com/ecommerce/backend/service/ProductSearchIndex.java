@@ -0,0 +1,328 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ürün adı ve açıklaması üzerinde trigram tabanlı bellek içi arama indeksi.
+// LIKE '%q%' tam tablo taraması yerine aramalar bu indeks üzerinden yapılır.
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final int GRAM_SIZE = 3;
+
+    // Sıralama ağırlıkları: ad eşleşmesi açıklamadan, kelime başı eşleşmesi ise ortadan değerlidir
+    private static final int NAME_MATCH = 4;
+    private static final int NAME_PREFIX_BONUS = 2;
+    private static final int NAME_EXACT_BONUS = 2;
+    private static final int DESCRIPTION_MATCH = 1;
+
+    // Yüksek skor önce; eşitlikte küçük id önce (sayfalar arasında kararlı sıra)
+    private static final Comparator<ScoredId> RANKING = Comparator
+            .comparingInt(ScoredId::score).reversed()
+            .thenComparing(ScoredId::id);
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    // trigram -> ürün id'leri (3 karakter ve üzeri sorgu terimleri için)
+    private final Map<String, Set<Long>> gramPostings = new HashMap<>();
+    // kelimenin ilk 1-2 karakteri -> ürün id'leri (kısa sorgu terimleri için)
+    private final Map<String, Set<Long>> prefixPostings = new HashMap<>();
+    private final Map<Long, Set<Long>> categoryPostings = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuild(productRepository.findAll());
+    }
+
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            gramPostings.clear();
+            prefixPostings.clear();
+            categoryPostings.clear();
+            for (Product product : products) {
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        if (product == null || product.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexAll(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (product.getId() == null) continue;
+                removeDocument(product.getId());
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sorgudaki tüm terimleri (ad veya açıklamada) içeren ürünlerden skora göre en iyi limit tanesini döner.
+    // Tüm eşleşmeler sıralanmaz, limit boyutlu bir yığında seçilir.
+    public List<Long> search(String query, Long categoryId, int limit) {
+        List<String> terms = tokenize(fold(query));
+        if (terms.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = categoryId != null
+                    ? categoryPostings.getOrDefault(categoryId, Set.of())
+                    : null;
+            for (String term : terms) {
+                candidates = intersect(candidates, postingsFor(term));
+                if (candidates.isEmpty()) return List.of();
+            }
+
+            // Yığının tepesinde en kötü sonuç durur; daha iyisi gelince çıkarılır
+            PriorityQueue<ScoredId> best = new PriorityQueue<>(Math.min(limit, candidates.size()) + 1,
+                    RANKING.reversed());
+            for (Long id : candidates) {
+                IndexedProduct document = documents.get(id);
+                int score = score(document, terms);
+                if (score <= 0) continue;
+                ScoredId scoredId = new ScoredId(id, score);
+                if (best.size() < limit) {
+                    best.add(scoredId);
+                } else if (RANKING.compare(scoredId, best.peek()) < 0) {
+                    best.poll();
+                    best.add(scoredId);
+                }
+            }
+
+            List<ScoredId> scored = new ArrayList<>(best);
+            scored.sort(RANKING);
+            List<Long> ids = new ArrayList<>(scored.size());
+            for (ScoredId scoredId : scored) {
+                ids.add(scoredId.id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Türkçe büyük/küçük harf dönüşümü (I→ı, İ→i) ve aksan katlama (ş→s, ğ→g, ü→u, ö→o, ç→c, ı→i)
+    static String fold(String text) {
+        if (text == null || text.isEmpty()) return "";
+        String lower = text.toLowerCase(TURKISH);
+        StringBuilder folded = new StringBuilder(lower.length());
+        boolean hasOtherMarks = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ı' -> folded.append('i');
+                case 'ş' -> folded.append('s');
+                case 'ğ' -> folded.append('g');
+                case 'ü' -> folded.append('u');
+                case 'ö' -> folded.append('o');
+                case 'ç' -> folded.append('c');
+                case 'â' -> folded.append('a');
+                case 'î' -> folded.append('i');
+                case 'û' -> folded.append('u');
+                default -> {
+                    if (c > 127) hasOtherMarks = true;
+                    folded.append(c);
+                }
+            }
+        }
+        if (!hasOtherMarks) return folded.toString();
+        // Diğer dillerden gelen aksanlı karakterleri (é, ñ vb.) de sadeleştir
+        return Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    static List<String> tokenize(String folded) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void addDocument(Product product) {
+        String name = fold(product.getName());
+        String description = fold(product.getDescription());
+        IndexedProduct document = new IndexedProduct(
+                product.getId(), tokenize(name), tokenize(description), product.getCategoryId());
+
+        for (String token : document.allTokens()) {
+            for (String key : keysOf(token)) {
+                document.keys.add(key);
+            }
+        }
+        for (String key : document.keys) {
+            Map<String, Set<Long>> postings = key.length() == GRAM_SIZE ? gramPostings : prefixPostings;
+            postings.computeIfAbsent(key, k -> new HashSet<>()).add(document.id);
+        }
+        if (document.categoryId != null) {
+            categoryPostings.computeIfAbsent(document.categoryId, k -> new HashSet<>()).add(document.id);
+        }
+        documents.put(document.id, document);
+    }
+
+    private void removeDocument(Long productId) {
+        IndexedProduct document = documents.remove(productId);
+        if (document == null) return;
+        for (String key : document.keys) {
+            Map<String, Set<Long>> postings = key.length() == GRAM_SIZE ? gramPostings : prefixPostings;
+            removePosting(postings, key, productId);
+        }
+        if (document.categoryId != null) {
+            removePosting(categoryPostings, document.categoryId, productId);
+        }
+    }
+
+    private static <K> void removePosting(Map<K, Set<Long>> postings, K key, Long productId) {
+        Set<Long> ids = postings.get(key);
+        if (ids == null) return;
+        ids.remove(productId);
+        if (ids.isEmpty()) postings.remove(key);
+    }
+
+    // Bir kelime için indekslenecek anahtarlar: ilk 1-2 karakter ve tüm trigramlar
+    private static List<String> keysOf(String token) {
+        List<String> keys = new ArrayList<>();
+        keys.add(token.substring(0, 1));
+        if (token.length() >= 2) keys.add(token.substring(0, 2));
+        for (int i = 0; i + GRAM_SIZE <= token.length(); i++) {
+            keys.add(token.substring(i, i + GRAM_SIZE));
+        }
+        return keys;
+    }
+
+    private Set<Long> postingsFor(String term) {
+        if (term.length() < GRAM_SIZE) {
+            return prefixPostings.getOrDefault(term, Set.of());
+        }
+        Set<Long> result = null;
+        for (int i = 0; i + GRAM_SIZE <= term.length(); i++) {
+            result = intersect(result, gramPostings.getOrDefault(term.substring(i, i + GRAM_SIZE), Set.of()));
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    // Küçük kümeden büyüğe doğru kesişim; null "henüz filtre yok" demektir
+    private static Set<Long> intersect(Set<Long> current, Set<Long> other) {
+        if (current == null) return other;
+        Set<Long> small = current.size() <= other.size() ? current : other;
+        Set<Long> large = small == current ? other : current;
+        Set<Long> result = new HashSet<>();
+        for (Long id : small) {
+            if (large.contains(id)) result.add(id);
+        }
+        return result;
+    }
+
+    // Trigram eşleşmeleri aday kümesidir; burada gerçek alt dize eşleşmesi doğrulanır ve puanlanır
+    private static int score(IndexedProduct document, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int termScore = 0;
+            for (String token : document.nameTokens) {
+                int position = token.indexOf(term);
+                if (position < 0) continue;
+                int candidate = NAME_MATCH;
+                if (position == 0) candidate += NAME_PREFIX_BONUS;
+                if (token.length() == term.length()) candidate += NAME_EXACT_BONUS;
+                termScore = Math.max(termScore, candidate);
+            }
+            if (termScore == 0) {
+                for (String token : document.descriptionTokens) {
+                    if (term.length() < GRAM_SIZE ? token.startsWith(term) : token.contains(term)) {
+                        termScore = DESCRIPTION_MATCH;
+                        break;
+                    }
+                }
+            }
+            if (termScore == 0) return 0;
+            total += termScore;
+        }
+        return total;
+    }
+
+    private static final class IndexedProduct {
+        private final Long id;
+        private final List<String> nameTokens;
+        private final List<String> descriptionTokens;
+        private final Long categoryId;
+        private final Set<String> keys = new HashSet<>();
+
+        private IndexedProduct(Long id, List<String> nameTokens, List<String> descriptionTokens, Long categoryId) {
+            this.id = id;
+            this.nameTokens = nameTokens;
+            this.descriptionTokens = descriptionTokens;
+            this.categoryId = categoryId;
+        }
+
+        private List<String> allTokens() {
+            List<String> tokens = new ArrayList<>(nameTokens);
+            tokens.addAll(descriptionTokens);
+            return tokens;
+        }
+    }
+
+    private record ScoredId(Long id, int score) {
+    }
+}
@@ -5,34 +5,59 @@ import com.ecommerce.backend.Entity.Category;
 import com.ecommerce.backend.Entity.User;
 import com.ecommerce.backend.Entity.Cart;
 import com.ecommerce.backend.Entity.Favorite;
+import com.ecommerce.backend.model.CursorPage;
+import com.ecommerce.backend.model.PageCursor;
+import com.ecommerce.backend.model.ProductSort;
+import com.ecommerce.backend.model.RankedProduct;
 import com.ecommerce.backend.repository.ProductRepository;
 import com.ecommerce.backend.repository.CategoryRepository;
 import com.ecommerce.backend.repository.UserRepository;
 import com.ecommerce.backend.repository.CartRepository;
 import com.ecommerce.backend.repository.FavoriteRepository;
+import com.ecommerce.backend.util.CsvReader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
-import java.io.BufferedReader;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.function.Function;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
+import org.hibernate.Hibernate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_LEADERBOARD_SIZE = 50;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
     private final FavoriteRepository favoriteRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductCache productCache;
+    private final PriceCache priceCache;
+    private final CartWriteBehindStore cartStore;
+    private final ProductLeaderboard leaderboard;
+    private final FavoriteIdCache favoriteIdCache;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -41,13 +66,90 @@ public class ProductService {
         return productRepository.findAll();
     }
     
+    // Önce önbelleğe bakılır; bulunamazsa veritabanından yüklenip önbelleğe eklenir
+    @Transactional(readOnly = true)
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        long cacheGeneration = productCache.generation();
+        Product cached = productCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ürün bulunamadı: " + id));
+        return cacheLoaded(product, cacheGeneration);
+    }
+
+    // Birden fazla ürünü önbellekten, eksik olanları tek bir findAllById ile getirir (istek sırası korunur)
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        long cacheGeneration = productCache.generation();
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product cached = productCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing)) {
+                found.put(product.getId(), cacheLoaded(product, cacheGeneration));
+            }
+        }
+        List<Product> products = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product product = found.get(id);
+            if (product != null) products.add(product);
+        }
+        return products;
+    }
+
+    // Ana sayfa rayları: sıralama bellekten gelir, ürünler önbellekten; categoryId null ise tüm ürünler
+    public List<RankedProduct> getTopRated(Long categoryId, int limit) {
+        return withProducts(leaderboard.topRated(categoryId, clampLeaderboardSize(limit)));
+    }
+
+    public List<RankedProduct> getTrending(Long categoryId, int limit) {
+        return withProducts(leaderboard.trending(categoryId, clampLeaderboardSize(limit)));
+    }
+
+    private List<RankedProduct> withProducts(Map<Long, RankedProduct> ranked) {
+        List<RankedProduct> result = new ArrayList<>(ranked.size());
+        for (Product product : getProductsByIds(ranked.keySet())) {
+            RankedProduct entry = ranked.get(product.getId());
+            entry.setProduct(product);
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private static int clampLeaderboardSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(productCache.stats());
+        stats.put("prices", priceCache.stats());
+        return stats;
+    }
+
+    // Önbellek kopyası oturum dışında serileştirileceği için LAZY satıcı ilişkisi burada yüklenir
+    private Product cacheLoaded(Product product, long cacheGeneration) {
+        Hibernate.initialize(product.getSeller());
+        productCache.put(product, cacheGeneration);
+        return product;
     }
     
     public ResponseEntity<Product> saveProduct(Product product) {
         Product savedProduct = productRepository.save(product);
+        afterCommit(() -> {
+            productCache.invalidate(savedProduct.getId());
+            priceCache.invalidate(savedProduct.getId());
+            searchIndex.index(savedProduct);
+            leaderboard.productChanged(savedProduct.getId(), savedProduct.getCategoryId());
+        });
         return ResponseEntity.ok(savedProduct);
     }
 
@@ -62,34 +164,38 @@ public class ProductService {
 
         List<Product> successfulProducts = new ArrayList<>();
         List<String> errors = new ArrayList<>();
-        int totalLines = 0;
+        int totalProcessed = 0;
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), "UTF-8"))) {
-            String line;
+        // Tırnaklı alanlar (virgül, satır sonu, "" kaçışı) RFC 4180'e göre ayrıştırılır
+        try (CsvReader reader = new CsvReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
             boolean isFirstLine = true;
 
-            while ((line = reader.readLine()) != null) {
-                totalLines++;
-                
+            while (reader.next()) {
                 // İlk satırı header olarak geç
                 if (isFirstLine) {
                     isFirstLine = false;
                     continue;
                 }
 
+                totalProcessed++;
                 try {
-                    Product product = parseCSVLine(line, seller);
+                    Product product = parseCSVRecord(reader.fields(), seller, categoryRepository::findByName);
                     Product savedProduct = productRepository.save(product);
                     successfulProducts.add(savedProduct);
                 } catch (Exception e) {
-                    errors.add("Satır " + totalLines + ": " + e.getMessage());
+                    errors.add("Satır " + reader.recordLine() + ": " + e.getMessage());
                 }
             }
         }
 
+        afterCommit(() -> {
+            productCache.invalidateAll(successfulProducts.stream().map(Product::getId).toList());
+            searchIndex.indexAll(successfulProducts);
+        });
+
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
-        result.put("totalProcessed", totalLines - 1); // Header satırını çıkar
+        result.put("totalProcessed", totalProcessed);
         result.put("successCount", successfulProducts.size());
         result.put("errorCount", errors.size());
         result.put("errors", errors);
@@ -97,19 +203,18 @@ public class ProductService {
         return result;
     }
 
-    private Product parseCSVLine(String line, User seller) throws Exception {
+    static Product parseCSVRecord(String[] values, User seller, Function<String, Optional<Category>> categoryResolver) {
         // CSV format: name,description,price,imageUrl,categoryName
-        String[] values = line.split(",");
-        
+
         if (values.length < 5) {
             throw new RuntimeException("Eksik veri - 5 kolon gerekli: name,description,price,imageUrl,categoryName");
         }
 
-        String name = values[0].trim().replace("\"", "");
-        String description = values[1].trim().replace("\"", "");
-        String priceStr = values[2].trim().replace("\"", "");
-        String imageUrl = values[3].trim().replace("\"", "");
-        String categoryName = values[4].trim().replace("\"", "");
+        String name = values[0].trim();
+        String description = values[1].trim();
+        String priceStr = values[2].trim();
+        String imageUrl = values[3].trim();
+        String categoryName = values[4].trim();
 
         // Fiyat kontrolü
         double price;
@@ -120,7 +225,7 @@ public class ProductService {
         }
 
         // Kategori kontrolü
-        Category category = categoryRepository.findByName(categoryName)
+        Category category = categoryResolver.apply(categoryName)
                 .orElseThrow(() -> new RuntimeException("Kategori bulunamadı: " + categoryName));
 
         // Ürün oluştur
@@ -136,7 +241,9 @@ public class ProductService {
     }
     
     public ResponseEntity<Product> updateProduct(Long id, Product product) {
-        Product existingProduct = getProductById(id);
+        // Önbellekteki paylaşılan nesne değiştirilmemeli; güncelleme her zaman veritabanındaki kayıt üzerinden yapılır
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Ürün bulunamadı: " + id));
         
         existingProduct.setName(product.getName());
         existingProduct.setDescription(product.getDescription());
@@ -145,20 +252,35 @@ public class ProductService {
         existingProduct.setCategory(product.getCategory());
         
         Product updatedProduct = productRepository.save(existingProduct);
+        afterCommit(() -> {
+            productCache.invalidate(id);
+            priceCache.invalidate(id);
+            searchIndex.index(updatedProduct);
+            leaderboard.productChanged(id, updatedProduct.getCategoryId());
+        });
         return ResponseEntity.ok(updatedProduct);
     }
 
     @Transactional
     public ResponseEntity<Void> deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Ürün bulunamadı: " + id));
         
-        // Sepetlerden kaldır
+        // Sepetlerden kaldır (bellekteki sepetler dahil)
         cartRepository.deleteCartItemsByProductId(id);
+        cartStore.removeProduct(id);
         
         // Favorilerden kaldır  
         favoriteRepository.deleteByProductId(id);
         
         productRepository.delete(product);
+        afterCommit(() -> {
+            productCache.invalidate(id);
+            priceCache.invalidate(id);
+            searchIndex.remove(id);
+            leaderboard.productRemoved(id);
+            favoriteIdCache.productRemoved(id);
+        });
         return ResponseEntity.ok().build();
     }
 
@@ -167,15 +289,126 @@ public class ProductService {
         return productRepository.findBySellerId(sellerId);
     }
 
+    // Sayfasız arama (unpaged=true) eski sözleşmeyi korur ve tüm eşleşmeleri döner; istemciler sayfalı
+    // aramayı (searchPage) kullanmalı
+    @Transactional(readOnly = true)
     public List<Product> searchByName(String query) {
-        return productRepository.findByNameContainingIgnoreCase(query);
+        return findRanked(searchIndex.search(query, null, Integer.MAX_VALUE));
     }
     
     public List<Product> searchByCategory(Long categoryId) {
         return productRepository.findByCategory_Id(categoryId);
     }
     
+    @Transactional(readOnly = true)
     public List<Product> searchByNameAndCategory(String query, Long categoryId) {
-        return productRepository.findByNameContainingIgnoreCaseAndCategory_Id(query, categoryId);
+        return findRanked(searchIndex.search(query, categoryId, Integer.MAX_VALUE));
+    }
+
+    public CursorPage<Product> getProductPage(Long categoryId, ProductSort sort, String cursor, int size) {
+        int pageSize = clampPageSize(size);
+        String sortKey = sort.name();
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, sortKey) : null;
+
+        // Bir fazlasını çek: dönen satır sayısı hasMore bilgisini verir
+        List<Product> fetched = after == null
+                ? findFirstPage(categoryId, sort, pageSize + 1)
+                : findNextPage(categoryId, sort, after, PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.of(fetched, pageSize, last -> PageCursor.encode(sortKey, last.getId(), switch (sort) {
+            case ID -> null;
+            case PRICE_ASC, PRICE_DESC -> last.getPrice();
+            case NAME -> last.getName();
+        }));
+    }
+
+    private List<Product> findFirstPage(Long categoryId, ProductSort sort, int limit) {
+        Sort order = switch (sort) {
+            case ID -> Sort.by("id");
+            case PRICE_ASC -> Sort.by("price", "id");
+            case PRICE_DESC -> Sort.by(Sort.Direction.DESC, "price", "id");
+            case NAME -> Sort.by("name", "id");
+        };
+        Pageable pageable = PageRequest.of(0, limit, order);
+        return categoryId == null
+                ? productRepository.findFirstPage(pageable)
+                : productRepository.findFirstPageInCategory(categoryId, pageable);
+    }
+
+    private List<Product> findNextPage(Long categoryId, ProductSort sort, PageCursor after, Pageable limit) {
+        Long afterId = after.getId();
+        if (categoryId == null) {
+            return switch (sort) {
+                case ID -> productRepository.findNextPageById(afterId, limit);
+                case PRICE_ASC -> productRepository.findNextPageByPriceAsc(after.getValueAsDouble(), afterId, limit);
+                case PRICE_DESC -> productRepository.findNextPageByPriceDesc(after.getValueAsDouble(), afterId, limit);
+                case NAME -> productRepository.findNextPageByName(after.getValue(), afterId, limit);
+            };
+        }
+        return switch (sort) {
+            case ID -> productRepository.findNextPageByIdInCategory(categoryId, afterId, limit);
+            case PRICE_ASC -> productRepository.findNextPageByPriceAscInCategory(
+                    categoryId, after.getValueAsDouble(), afterId, limit);
+            case PRICE_DESC -> productRepository.findNextPageByPriceDescInCategory(
+                    categoryId, after.getValueAsDouble(), afterId, limit);
+            case NAME -> productRepository.findNextPageByNameInCategory(categoryId, after.getValue(), afterId, limit);
+        };
+    }
+
+    // Metin aramasında sonuçlar alaka sırasındadır; imleç son görülen id'yi ve sıradaki konumunu taşır.
+    // İndeks yalnızca istenen sayfanın sonuna kadarki en iyi sonuçları seçer (tam sıralama yapılmaz).
+    // Arada sıra kaymışsa (ürün silinmiş/eklenmiş) son id seçilen aralıkta aranır, yoksa konumdan devam edilir.
+    @Transactional(readOnly = true)
+    public CursorPage<Product> searchPage(String query, Long categoryId, String cursor, int size) {
+        int pageSize = clampPageSize(size);
+        int start = 0;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor after = PageCursor.decode(cursor, "RELEVANCE");
+            afterId = after.getId();
+            try {
+                start = Math.max(0, Integer.parseInt(after.getValue()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Geçersiz sayfa imleci: " + cursor);
+            }
+        }
+        List<Long> rankedIds = searchIndex.search(query, categoryId, start + pageSize + 1);
+        if (afterId != null && (start == 0 || start > rankedIds.size() || !afterId.equals(rankedIds.get(start - 1)))) {
+            int position = rankedIds.indexOf(afterId);
+            if (position >= 0) {
+                start = position + 1;
+                rankedIds = searchIndex.search(query, categoryId, start + pageSize + 1);
+            }
+        }
+        start = Math.min(start, rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(start, Math.min(rankedIds.size(), start + pageSize + 1));
+        List<Product> fetched = findRanked(pageIds);
+        // findRanked silinmiş ürünleri atlayabilir; konum, sayfada tüketilen indeks satırı sayısıdır
+        int pageEnd = start + Math.min(pageIds.size(), pageSize);
+        return CursorPage.of(fetched, pageSize, last -> PageCursor.encode("RELEVANCE", last.getId(), pageEnd));
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // İndeksin döndürdüğü sıralı id'leri önbellek + tek sorguyla yükle, indeks sırasını koru
+    private List<Product> findRanked(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) return List.of();
+        return getProductsByIds(rankedIds);
+    }
+
+    // İndeks güncellemeleri yalnızca commit sonrası yapılır; rollback olursa indeks bozulmaz
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
\ No newline at end of file
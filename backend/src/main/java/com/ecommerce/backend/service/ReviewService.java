@@ -1,33 +1,62 @@
 package com.ecommerce.backend.service;
 
+import com.ecommerce.backend.Entity.ProductReviewSummary;
 import com.ecommerce.backend.Entity.Review;
 import com.ecommerce.backend.Entity.Product;
 import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.model.CursorPage;
+import com.ecommerce.backend.model.PageCursor;
+import com.ecommerce.backend.model.ReviewView;
 import com.ecommerce.backend.repository.ReviewRepository;
 import com.ecommerce.backend.repository.ProductRepository;
 import com.ecommerce.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ReviewService {
+    public static final int MAX_STATS_BATCH = 200;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String FEED_CURSOR = "REVIEW_DATE";
 
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ReviewSummaryService summaryService;
+    private final ProductLeaderboard leaderboard;
 
     public List<Review> getReviewsByProductId(Long productId) {
         return reviewRepository.findByProductIdOrderByReviewDateDesc(productId);
     }
 
+    // Ürün yorum akışı: tek indeksli sorgu, yalnızca listede gösterilen alanlar okunur
+    public CursorPage<ReviewView> getReviewFeed(Long productId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, FEED_CURSOR) : null;
+        List<ReviewView> fetched = after == null
+                ? reviewRepository.findFirstFeedPageByProductId(productId, PageRequest.of(0, pageSize + 1))
+                : reviewRepository.findNextFeedPageByProductId(productId, after.getValueAsDateTime(), after.getId(),
+                        PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize,
+                last -> PageCursor.encode(FEED_CURSOR, last.getId(), last.getReviewDate()));
+    }
+
     public List<Review> getReviewsByUserId(Long userId) {
         return reviewRepository.findByUserIdOrderByReviewDateDesc(userId);
     }
 
+    @Transactional
     public Review createReview(Long productId, Long userId, Integer rating, String comment) {
+        validateRating(rating);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Ürün bulunamadı: " + productId));
         
@@ -40,36 +69,62 @@ public class ReviewService {
         }
 
         Review review = new Review(product, user, rating, comment);
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        summaryService.reviewAdded(productId, rating);
+        leaderboard.reviewAdded(product, rating);
+        return saved;
     }
 
+    // Yorum satırı kilitlenir; aynı yorumun eşzamanlı güncellemesi özetten eski puanı iki kez düşmez
+    @Transactional
     public Review updateReview(Long reviewId, Integer rating, String comment) {
-        Review review = reviewRepository.findById(reviewId)
+        validateRating(rating);
+        Review review = reviewRepository.findWithLockById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Yorum bulunamadı: " + reviewId));
         
+        summaryService.ratingChanged(review.getProduct().getId(), review.getRating(), rating);
+        leaderboard.ratingChanged(review.getProduct(), review.getRating(), rating);
         review.setRating(rating);
         review.setComment(comment);
         return reviewRepository.save(review);
     }
 
+    @Transactional
     public void deleteReview(Long reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
-            throw new RuntimeException("Yorum bulunamadı: " + reviewId);
-        }
-        reviewRepository.deleteById(reviewId);
+        Review review = reviewRepository.findWithLockById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Yorum bulunamadı: " + reviewId));
+        summaryService.reviewRemoved(review.getProduct().getId(), review.getRating());
+        leaderboard.reviewRemoved(review.getProduct(), review.getRating(), review.getReviewDate());
+        reviewRepository.delete(review);
     }
 
-    public Double getAverageRatingByProductId(Long productId) {
-        Double average = reviewRepository.findAverageRatingByProductId(productId);
-        return average != null ? average : 0.0;
+    // Ortalama, sayı ve yıldız dağılımı tek birincil anahtar okumasıyla özet tablosundan gelir
+    public ProductReviewSummary getReviewSummary(Long productId) {
+        return summaryService.getSummary(productId);
     }
 
-    public Long getReviewCountByProductId(Long productId) {
-        return reviewRepository.countByProductId(productId);
+    // Listeleme sayfası için: tekrarlanan id'ler bir kez sorgulanır, sorgu sayısı partinin boyutuna bağlı değildir
+    public Map<Long, ProductReviewSummary> getReviewSummaries(Collection<Long> productIds) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(productIds);
+        if (uniqueIds.size() > MAX_STATS_BATCH) {
+            throw new IllegalArgumentException("Tek istekte en fazla " + MAX_STATS_BATCH + " ürün sorgulanabilir");
+        }
+        return summaryService.getSummaries(uniqueIds);
+    }
+
+    public Map<String, Object> rebuildSummaries() {
+        return summaryService.rebuild();
     }
 
     public Review getReviewById(Long reviewId) {
         return reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Yorum bulunamadı: " + reviewId));
     }
+
+    // Histogram 1-5 yıldız içindir
+    private static void validateRating(Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new RuntimeException("Puan 1 ile 5 arasında olmalı");
+        }
+    }
 } 
\ No newline at end of file
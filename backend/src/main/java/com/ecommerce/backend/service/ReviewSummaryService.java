@@ -0,0 +1,168 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.ProductReviewSummary;
+import com.ecommerce.backend.repository.ProductReviewSummaryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// product_review_summaries tablosunu yorumlarla birlikte artımlı günceller. Yazma metotları çağıranın
+// transaction'ında tek bir MERGE ile çalışır; sayaçlar satır üzerinde toplandığı için eşzamanlı yorumlar
+// birbirinin artışını ezmez. rebuild() özetleri yorumlardan yeniden hesaplayıp kaymaları düzeltir.
+@Service
+public class ReviewSummaryService {
+
+    private static final String APPLY_SQL = "MERGE INTO product_review_summaries s " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+            "CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+            "AS d(product_id, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5) " +
+            "ON s.product_id = d.product_id " +
+            "WHEN MATCHED THEN UPDATE SET s.review_count = s.review_count + d.review_count, " +
+            "s.rating_sum = s.rating_sum + d.rating_sum, s.rating_1 = s.rating_1 + d.rating_1, " +
+            "s.rating_2 = s.rating_2 + d.rating_2, s.rating_3 = s.rating_3 + d.rating_3, " +
+            "s.rating_4 = s.rating_4 + d.rating_4, s.rating_5 = s.rating_5 + d.rating_5 " +
+            "WHEN NOT MATCHED THEN INSERT (product_id, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5) " +
+            "VALUES (d.product_id, d.review_count, d.rating_sum, d.rating_1, d.rating_2, d.rating_3, d.rating_4, d.rating_5)";
+
+    private static final String AGGREGATE_SQL = "SELECT product_id, COUNT(*) AS review_count, SUM(rating) AS rating_sum, " +
+            "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) AS rating_1, SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) AS rating_2, " +
+            "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) AS rating_3, SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) AS rating_4, " +
+            "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) AS rating_5 FROM reviews GROUP BY product_id";
+
+    private static final String INSERT_SQL = "INSERT INTO product_review_summaries " +
+            "(product_id, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ProductReviewSummaryRepository summaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Artımlı güncellemeler transaction bitene kadar okuma kilidini tutar; rebuild yazma kilidiyle
+    // commit edilmemiş bir artışın yeniden hesaplamayla çakışmasını engeller
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public ReviewSummaryService(ProductReviewSummaryRepository summaryRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ProductReviewSummary getSummary(Long productId) {
+        return summaryRepository.findById(productId).orElseGet(() -> ProductReviewSummary.empty(productId));
+    }
+
+    // Tek IN sorgusu; özeti olmayan ürünler boş özetle döner, sıra istenen id sırasıdır
+    public Map<Long, ProductReviewSummary> getSummaries(Collection<Long> productIds) {
+        Map<Long, ProductReviewSummary> found = new HashMap<>();
+        for (ProductReviewSummary summary : summaryRepository.findAllById(productIds)) {
+            found.put(summary.getProductId(), summary);
+        }
+        Map<Long, ProductReviewSummary> summaries = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            summaries.put(productId, found.getOrDefault(productId, ProductReviewSummary.empty(productId)));
+        }
+        return summaries;
+    }
+
+    public void reviewAdded(Long productId, int rating) {
+        long[] delta = new long[5];
+        delta[rating - 1] = 1;
+        apply(productId, 1, rating, delta);
+    }
+
+    public void reviewRemoved(Long productId, int rating) {
+        long[] delta = new long[5];
+        delta[rating - 1] = -1;
+        apply(productId, -1, -rating, delta);
+    }
+
+    public void ratingChanged(Long productId, int oldRating, int newRating) {
+        if (oldRating == newRating) return;
+        long[] delta = new long[5];
+        delta[oldRating - 1] = -1;
+        delta[newRating - 1] += 1;
+        apply(productId, 0, newRating - oldRating, delta);
+    }
+
+    // Özetleri yorumlardan yeniden hesaplar; dönen "drifted" artımlı değerlerden farklı çıkan ürün sayısıdır
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        rebuildLock.writeLock().lock();
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, ProductReviewSummary> current = new HashMap<>();
+                for (ProductReviewSummary summary : summaryRepository.findAll()) {
+                    current.put(summary.getProductId(), summary);
+                }
+                List<ProductReviewSummary> fresh = jdbcTemplate.query(AGGREGATE_SQL, (rs, rowNum) -> new ProductReviewSummary(
+                        rs.getLong("product_id"), rs.getLong("review_count"), rs.getLong("rating_sum"),
+                        rs.getLong("rating_1"), rs.getLong("rating_2"), rs.getLong("rating_3"),
+                        rs.getLong("rating_4"), rs.getLong("rating_5")));
+
+                int drifted = 0;
+                for (ProductReviewSummary summary : fresh) {
+                    if (!summary.equals(current.remove(summary.getProductId()))) drifted++;
+                }
+                // Yorumu kalmayan ürünlerin sıfır olmayan özetleri de kaymadır
+                for (ProductReviewSummary stale : current.values()) {
+                    if (!stale.equals(ProductReviewSummary.empty(stale.getProductId()))) drifted++;
+                }
+
+                jdbcTemplate.update("DELETE FROM product_review_summaries");
+                jdbcTemplate.batchUpdate(INSERT_SQL, fresh.stream().map(summary -> new Object[]{
+                        summary.getProductId(), summary.getReviewCount(), summary.getRatingSum(),
+                        summary.getRating1(), summary.getRating2(), summary.getRating3(),
+                        summary.getRating4(), summary.getRating5()}).toList());
+                result.put("products", fresh.size());
+                result.put("drifted", drifted);
+            });
+            result.put("durationMs", System.currentTimeMillis() - start);
+            return result;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    // Tablo ilk kez oluşturulduğunda mevcut yorumlardan doldurulur
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (summaryRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    private void apply(Long productId, long count, long sum, long[] histogram) {
+        lockUntilCompletion();
+        jdbcTemplate.update(APPLY_SQL, productId, count, sum,
+                histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]);
+    }
+
+    private void lockUntilCompletion() {
+        rebuildLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Transaction yoksa ifade hemen kalıcıdır
+            rebuildLock.readLock().unlock();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+}
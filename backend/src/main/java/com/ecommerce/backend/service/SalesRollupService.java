@@ -0,0 +1,394 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.Entity.OrderItem;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.model.OrderStatus;
+import com.ecommerce.backend.model.RollupDimension;
+import com.ecommerce.backend.model.RollupPoint;
+import com.ecommerce.backend.model.RollupTotal;
+import com.ecommerce.backend.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// sales_rollups tablosunu siparişlerle birlikte artımlı günceller. Yazma metotları çağıranın
+// transaction'ında JDBC ile çalışır. Kategori ve satıcı, kalemde sipariş anında saklanan değerlerdir;
+// iptal/silme farkları ürünün sonradan değişen kategorisine yazılmaz. rebuild() özetleri siparişlerden
+// gün aralıklarına bölünmüş paralel işlerle bir ara tabloda oluşturur ve tek transaction'da yerine koyar;
+// gün aralıkları ayrık olduğu için işler aynı satıra yazmaz, okuyanlar hiçbir zaman yarım tablo görmez.
+// Yeniden oluşturma sırasında gelen artımlı güncellemeler beklemez; dokundukları günler yerine koymadan
+// hemen önce ara tabloda yeniden hesaplanır.
+@Service
+public class SalesRollupService {
+
+    private static final int MAX_RANGE_DAYS = 3660;
+
+    private static final String STAGING_TABLE = "sales_rollups_staging";
+    private static final String ROLLUP_COLUMNS = "dimension, dim_key, sales_day, revenue, units, order_count";
+
+    private static final String APPLY_SQL = "MERGE INTO %s r " +
+            "USING (VALUES (CAST(? AS VARCHAR), CAST(? AS BIGINT), CAST(? AS DATE), " +
+            "CAST(? AS DOUBLE PRECISION), CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+            "AS s(dimension, dim_key, sales_day, revenue, units, order_count) " +
+            "ON r.dimension = s.dimension AND r.dim_key = s.dim_key AND r.sales_day = s.sales_day " +
+            "WHEN MATCHED THEN UPDATE SET r.revenue = r.revenue + s.revenue, r.units = r.units + s.units, " +
+            "r.order_count = r.order_count + s.order_count " +
+            "WHEN NOT MATCHED THEN INSERT (dimension, dim_key, sales_day, revenue, units, order_count) " +
+            "VALUES (s.dimension, s.dim_key, s.sales_day, s.revenue, s.units, s.order_count)";
+
+    // Kayıtlı bir siparişin kalemleri; ürün silinmişse ürün null döner, kategori/satıcı snapshot'tan gelir
+    private static final String ORDER_LINES_SQL = "SELECT CAST(o.order_date AS DATE) AS sales_day, " +
+            "oi.category_id, oi.seller_id, oi.product_id, oi.quantity, oi.unit_price " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id WHERE o.id = ?";
+
+    // Kategori/satıcı snapshot'ı eklenmeden önce yazılmış kalemler ürünün güncel değerleriyle bir kez doldurulur
+    private static final String BACKFILL_SQL = "UPDATE order_items oi SET " +
+            "category_id = (SELECT p.category_id FROM products p WHERE p.id = oi.product_id), " +
+            "seller_id = (SELECT p.seller_id FROM products p WHERE p.id = oi.product_id) " +
+            "WHERE oi.category_id IS NULL AND oi.seller_id IS NULL AND oi.product_id IS NOT NULL";
+
+    // Yeniden oluşturma: her kırılım için [from, to) gün aralığındaki siparişler tek INSERT ... SELECT ile toplanır
+    private static final String REBUILD_SELECT = " CAST(o.order_date AS DATE), SUM(oi.quantity * oi.unit_price), " +
+            "SUM(oi.quantity), COUNT(DISTINCT o.id) FROM orders o JOIN order_items oi ON oi.order_id = o.id ";
+    private static final String REBUILD_WHERE = "o.status <> 'IPTAL_EDILDI' AND o.order_date >= ? AND o.order_date < ? ";
+    private static final String REBUILD_INSERT = "INSERT INTO " + STAGING_TABLE + " (" + ROLLUP_COLUMNS + ") ";
+    private static final List<String> REBUILD_SQL = List.of(
+            REBUILD_INSERT + "SELECT 'DAY', 0," + REBUILD_SELECT +
+                    "WHERE " + REBUILD_WHERE + "GROUP BY CAST(o.order_date AS DATE)",
+            REBUILD_INSERT + "SELECT 'CATEGORY', oi.category_id," + REBUILD_SELECT +
+                    "WHERE oi.category_id IS NOT NULL AND " + REBUILD_WHERE +
+                    "GROUP BY oi.category_id, CAST(o.order_date AS DATE)",
+            REBUILD_INSERT + "SELECT 'SELLER', oi.seller_id," + REBUILD_SELECT +
+                    "WHERE oi.seller_id IS NOT NULL AND " + REBUILD_WHERE +
+                    "GROUP BY oi.seller_id, CAST(o.order_date AS DATE)",
+            REBUILD_INSERT + "SELECT 'PRODUCT', oi.product_id," + REBUILD_SELECT +
+                    "WHERE oi.product_id IS NOT NULL AND " + REBUILD_WHERE +
+                    "GROUP BY oi.product_id, CAST(o.order_date AS DATE)"
+    );
+
+    private final SalesRollupRepository rollupRepository;
+    private final OrderArchiveService orderArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildThreads;
+    // Artımlı güncellemeler transaction bitene kadar okuma kilidini tutar; rebuild yazma kilidini yalnızca
+    // başlarken ve yerine koyarken kısa süre alır, böylece commit edilmemiş bir artış kaybolmaz
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Rebuild sürerken artımlı güncellemelerin dokunduğu satış günleri; rebuild çalışmıyorsa null
+    private volatile Set<LocalDate> touchedDays;
+
+    public SalesRollupService(SalesRollupRepository rollupRepository,
+                              OrderArchiveService orderArchive,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${analytics.rebuild.threads:0}") int rebuildThreads) {
+        this.rollupRepository = rollupRepository;
+        this.orderArchive = orderArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    // Yeni siparişin kalemleri henüz flush edilmediği için toplamlar entity'den hesaplanır
+    public void recordOrder(Order order) {
+        recordOrder(order, "sales_rollups");
+    }
+
+    private void recordOrder(Order order, String table) {
+        if (!counts(order.getStatus()) || order.getOrderItems() == null) return;
+        apply(linesOf(order), 1, table);
+    }
+
+    private static List<Line> linesOf(Order order) {
+        LocalDate day = order.getOrderDate().toLocalDate();
+        List<Line> lines = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            lines.add(new Line(day, item.getCategoryId(), item.getSellerId(),
+                    product != null ? product.getId() : null,
+                    item.getQuantity(), item.getUnitPrice()));
+        }
+        return lines;
+    }
+
+    // Toplamlar yalnızca iptale girişte ve iptalden çıkışta değişir
+    public void onStatusChange(Long orderId, OrderStatus oldStatus, OrderStatus newStatus) {
+        if (counts(oldStatus) == counts(newStatus)) return;
+        apply(loadLines(orderId), counts(newStatus) ? 1 : -1, "sales_rollups");
+    }
+
+    // Sipariş silinmeden önce çağrılmalı
+    public void removeOrder(Long orderId, OrderStatus status) {
+        if (!counts(status)) return;
+        apply(loadLines(orderId), -1, "sales_rollups");
+    }
+
+    // Arşivdeki siparişin kalemleri order_items'ta yoktur; arşiv bloğundan okunan siparişten hesaplanır
+    public void removeArchivedOrder(Order order) {
+        if (!counts(order.getStatus()) || order.getOrderItems() == null) return;
+        apply(linesOf(order), -1, "sales_rollups");
+    }
+
+    public List<RollupPoint> getDailySeries(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepository.findDailySeries(from, to);
+    }
+
+    public List<RollupTotal> getTotals(RollupDimension dimension, LocalDate from, LocalDate to, Long key, int limit) {
+        checkRange(from, to);
+        return rollupRepository.findTotals(dimension, from, to, dimension == RollupDimension.DAY ? null : key,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+    }
+
+    // Tüm özetleri siparişlerden yeniden oluşturur. Çalışırken gelen artımlı güncellemeler sales_rollups'a
+    // yazılmaya devam eder ve dokundukları günü bildirir; bu günler yerine koyma anında, artımlı güncellemeler
+    // kısa süre bekletilerek güncel siparişlerden yeniden hesaplanır. Okumalar eski özetleri görür. Arşivleme
+    // turuyla aynı anda çalışmaz; taşınmakta olan bir sipariş atlanmaz ya da iki kez sayılmaz. Yarıda hata
+    // alırsa sales_rollups'a dokunulmamış olur.
+    public Map<String, Object> rebuild() {
+        return orderArchive.runExclusive(() -> {
+            long start = System.currentTimeMillis();
+            prepareStaging();
+            Set<LocalDate> touched = ConcurrentHashMap.newKeySet();
+            // Başlamadan önce süren artımlı güncellemeler commit edilene kadar beklenir
+            rebuildLock.writeLock().lock();
+            touchedDays = touched;
+            rebuildLock.writeLock().unlock();
+            try {
+                Map<String, Object> result = new LinkedHashMap<>();
+                rebuildHotOrders(result);
+                // Arşivdeki siparişler blok blok, yeni siparişlerle aynı yoldan eklenir
+                AtomicLong archivedOrders = new AtomicLong();
+                orderArchive.forEachArchivedBlock(orders -> transactionTemplate.executeWithoutResult(status -> {
+                    orders.forEach(order -> recordOrder(order, STAGING_TABLE));
+                    archivedOrders.addAndGet(orders.size());
+                }));
+                rebuildLock.writeLock().lock();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        touched.forEach(this::rebuildDay);
+                        jdbcTemplate.update("DELETE FROM sales_rollups");
+                        jdbcTemplate.update("INSERT INTO sales_rollups (" + ROLLUP_COLUMNS + ") SELECT " + ROLLUP_COLUMNS +
+                                " FROM " + STAGING_TABLE);
+                    });
+                } finally {
+                    touchedDays = null;
+                    rebuildLock.writeLock().unlock();
+                }
+                jdbcTemplate.execute("TRUNCATE TABLE " + STAGING_TABLE);
+                result.put("archivedOrders", archivedOrders.get());
+                result.put("replayedDays", touched.size());
+                result.put("rows", rollupRepository.count());
+                result.put("durationMs", System.currentTimeMillis() - start);
+                return result;
+            } finally {
+                touchedDays = null;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        jdbcTemplate.update(BACKFILL_SQL);
+        if (rollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    // Ara tablo sales_rollups ile aynı kolonlara sahiptir; MERGE'ler için anahtar indeksi vardır
+    private void prepareStaging() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + STAGING_TABLE + " AS SELECT " + ROLLUP_COLUMNS +
+                " FROM sales_rollups WITH NO DATA");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_sales_rollups_staging_key ON " + STAGING_TABLE +
+                " (dimension, dim_key, sales_day)");
+        jdbcTemplate.execute("TRUNCATE TABLE " + STAGING_TABLE);
+    }
+
+    private void rebuildHotOrders(Map<String, Object> result) {
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT MIN(CAST(order_date AS DATE)) AS first_day, MAX(CAST(order_date AS DATE)) AS last_day FROM orders");
+        if (range.get("first_day") == null) {
+            result.put("slices", 0);
+            return;
+        }
+        LocalDate first = ((Date) range.get("first_day")).toLocalDate();
+        LocalDate end = ((Date) range.get("last_day")).toLocalDate().plusDays(1);
+        long days = ChronoUnit.DAYS.between(first, end);
+        int slices = (int) Math.min(days, rebuildThreads * 4L);
+        long sliceDays = (days + slices - 1) / slices;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(rebuildThreads, slices), runnable -> {
+            Thread thread = new Thread(runnable, "sales-rollup-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (LocalDate sliceStart = first; sliceStart.isBefore(end); sliceStart = sliceStart.plusDays(sliceDays)) {
+                LocalDate from = sliceStart;
+                LocalDate to = sliceStart.plusDays(sliceDays).isBefore(end) ? sliceStart.plusDays(sliceDays) : end;
+                futures.add(CompletableFuture.runAsync(() -> rebuildSlice(from, to), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            result.put("slices", futures.size());
+        } finally {
+            executor.shutdown();
+        }
+        result.put("days", days);
+    }
+
+    private void rebuildSlice(LocalDate from, LocalDate to) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String sql : REBUILD_SQL) {
+                jdbcTemplate.update(sql, from.atStartOfDay(), to.atStartOfDay());
+            }
+        });
+    }
+
+    // Rebuild sırasında artımlı güncelleme alan bir günün ara tablodaki satırları güncel siparişlerden yeniden
+    // yazılır; dilim sorgusunun o artışı görüp görmediği önemli değildir. Arşiv rebuild boyunca değişmez.
+    private void rebuildDay(LocalDate day) {
+        jdbcTemplate.update("DELETE FROM " + STAGING_TABLE + " WHERE sales_day = ?", Date.valueOf(day));
+        for (String sql : REBUILD_SQL) {
+            jdbcTemplate.update(sql, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        }
+        orderArchive.forEachArchivedBlock(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null,
+                orders -> orders.forEach(order -> recordOrder(order, STAGING_TABLE)));
+    }
+
+    private List<Line> loadLines(Long orderId) {
+        return jdbcTemplate.query(ORDER_LINES_SQL, (rs, rowNum) -> new Line(
+                rs.getDate("sales_day").toLocalDate(),
+                rs.getObject("category_id", Long.class),
+                rs.getObject("seller_id", Long.class),
+                rs.getObject("product_id", Long.class),
+                rs.getInt("quantity"),
+                rs.getDouble("unit_price")), orderId);
+    }
+
+    // Kalemleri kırılım anahtarlarına göre toplayıp tek batch'te yazar; sipariş her anahtarda bir kez sayılır
+    private void apply(List<Line> lines, int sign, String table) {
+        if (lines.isEmpty()) return;
+        Map<RollupKey, double[]> totals = new HashMap<>();
+        for (Line line : lines) {
+            double revenue = line.quantity * line.unitPrice;
+            add(totals, new RollupKey(RollupDimension.DAY, 0L, line.day), revenue, line.quantity);
+            if (line.categoryId != null) add(totals, new RollupKey(RollupDimension.CATEGORY, line.categoryId, line.day), revenue, line.quantity);
+            if (line.sellerId != null) add(totals, new RollupKey(RollupDimension.SELLER, line.sellerId, line.day), revenue, line.quantity);
+            if (line.productId != null) add(totals, new RollupKey(RollupDimension.PRODUCT, line.productId, line.day), revenue, line.quantity);
+        }
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, value) -> rows.add(new Object[]{
+                key.dimension.name(), key.dimKey, Date.valueOf(key.day),
+                sign * value[0], sign * (long) value[1], (long) sign
+        }));
+
+        lockUntilCompletion();
+        Set<LocalDate> touched = touchedDays;
+        if (touched != null && !STAGING_TABLE.equals(table)) {
+            lines.forEach(line -> touched.add(line.day));
+        }
+        jdbcTemplate.batchUpdate(String.format(APPLY_SQL, table), rows);
+    }
+
+    private void lockUntilCompletion() {
+        rebuildLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Transaction yoksa ifade hemen kalıcıdır
+            rebuildLock.readLock().unlock();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+
+    private static void add(Map<RollupKey, double[]> totals, RollupKey key, double revenue, int units) {
+        double[] value = totals.computeIfAbsent(key, k -> new double[2]);
+        value[0] += revenue;
+        value[1] += units;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Başlangıç tarihi bitiş tarihinden sonra olamaz");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Tarih aralığı en fazla " + MAX_RANGE_DAYS + " gün olabilir");
+        }
+    }
+
+    private static boolean counts(OrderStatus status) {
+        return status != OrderStatus.IPTAL_EDILDI;
+    }
+
+    private static final class Line {
+        private final LocalDate day;
+        private final Long categoryId;
+        private final Long sellerId;
+        private final Long productId;
+        private final int quantity;
+        private final double unitPrice;
+
+        private Line(LocalDate day, Long categoryId, Long sellerId, Long productId, int quantity, double unitPrice) {
+            this.day = day;
+            this.categoryId = categoryId;
+            this.sellerId = sellerId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+        }
+    }
+
+    private static final class RollupKey {
+        private final RollupDimension dimension;
+        private final Long dimKey;
+        private final LocalDate day;
+
+        private RollupKey(RollupDimension dimension, Long dimKey, LocalDate day) {
+            this.dimension = dimension;
+            this.dimKey = dimKey;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RollupKey other)) return false;
+            return dimension == other.dimension && dimKey.equals(other.dimKey) && day.equals(other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dimension, dimKey, day);
+        }
+    }
+}
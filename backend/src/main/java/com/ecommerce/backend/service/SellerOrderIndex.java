@@ -0,0 +1,148 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.Entity.OrderItem;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.Entity.SellerOrderLine;
+import com.ecommerce.backend.Entity.SellerRevenue;
+import com.ecommerce.backend.model.CursorPage;
+import com.ecommerce.backend.model.OrderStatus;
+import com.ecommerce.backend.model.PageCursor;
+import com.ecommerce.backend.model.SellerOrderPage;
+import com.ecommerce.backend.repository.SellerOrderLineRepository;
+import com.ecommerce.backend.repository.SellerRevenueRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// seller_order_lines ve seller_revenue tablolarını siparişlerle birlikte günceller. Yazma metotları
+// çağıranın transaction'ında JDBC ile çalışır; sipariş geri alınırsa satıcı kayıtları da geri alınır.
+@Service
+public class SellerOrderIndex {
+
+    private static final String PAGE_CURSOR = "ORDER_DATE";
+
+    private static final String INSERT_SQL = "INSERT INTO seller_order_lines " +
+            "(id, seller_id, order_id, product_id, product_name, product_image_url, quantity, unit_price, " +
+            "line_total, customer_name, order_date, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Siparişin satıcı başına toplamlarını işaretle (+1 ekle, -1 çıkar) seller_revenue'ya yansıtır
+    private static final String APPLY_SQL = "MERGE INTO seller_revenue r " +
+            "USING (SELECT seller_id, CAST(? AS INT) AS sign, COUNT(DISTINCT order_id) AS order_count, " +
+            "SUM(quantity) AS units, SUM(line_total) AS revenue " +
+            "FROM seller_order_lines WHERE order_id = ? GROUP BY seller_id) AS s " +
+            "ON r.seller_id = s.seller_id " +
+            "WHEN MATCHED THEN UPDATE SET r.order_count = r.order_count + s.sign * s.order_count, " +
+            "r.units_sold = r.units_sold + s.sign * s.units, r.revenue = r.revenue + s.sign * s.revenue " +
+            "WHEN NOT MATCHED THEN INSERT (seller_id, order_count, units_sold, revenue) " +
+            "VALUES (s.seller_id, s.sign * s.order_count, s.sign * s.units, s.sign * s.revenue)";
+    private static final String STATUS_SQL = "UPDATE seller_order_lines SET status = ? WHERE order_id = ?";
+    private static final String DELETE_SQL = "DELETE FROM seller_order_lines WHERE order_id = ?";
+
+    // Tablo boşsa mevcut siparişlerden doldurulur (ürünün bugünkü satıcısına göre)
+    private static final String BACKFILL_SQL = "INSERT INTO seller_order_lines " +
+            "(id, seller_id, order_id, product_id, product_name, product_image_url, quantity, unit_price, " +
+            "line_total, customer_name, order_date, status) " +
+            "SELECT oi.id, p.seller_id, o.id, p.id, COALESCE(oi.product_name, p.name), oi.product_image_url, " +
+            "oi.quantity, oi.unit_price, oi.quantity * oi.unit_price, u.username, o.order_date, o.status " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN products p ON p.id = oi.product_id " +
+            "LEFT JOIN users u ON u.id = o.user_id WHERE p.seller_id IS NOT NULL";
+    // Müşteri adı kolonundan önce yazılmış satırlar
+    private static final String BACKFILL_CUSTOMER_SQL = "UPDATE seller_order_lines l SET customer_name = " +
+            "(SELECT u.username FROM orders o JOIN users u ON u.id = o.user_id WHERE o.id = l.order_id) " +
+            "WHERE l.customer_name IS NULL";
+    private static final String REBUILD_TOTALS_SQL = "INSERT INTO seller_revenue (seller_id, order_count, units_sold, revenue) " +
+            "SELECT seller_id, COUNT(DISTINCT order_id), SUM(quantity), SUM(line_total) " +
+            "FROM seller_order_lines WHERE status <> 'IPTAL_EDILDI' GROUP BY seller_id";
+
+    private final SellerOrderLineRepository lineRepository;
+    private final SellerRevenueRepository revenueRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SellerOrderIndex(SellerOrderLineRepository lineRepository,
+                            SellerRevenueRepository revenueRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.lineRepository = lineRepository;
+        this.revenueRepository = revenueRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Yeni siparişin kalemleri persist edilip id almış olmalı. Satıcısı olmayan ürünler atlanır.
+    public void recordOrder(Order order) {
+        Timestamp orderDate = Timestamp.valueOf(order.getOrderDate());
+        List<Object[]> rows = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            // Proxy'de getId() satıcıyı yüklemez
+            if (product == null || product.getSeller() == null) continue;
+            rows.add(new Object[]{
+                    item.getId(), product.getSeller().getId(), order.getId(), product.getId(),
+                    item.getProductName(), item.getProductImageUrl(), item.getQuantity(), item.getUnitPrice(),
+                    item.getQuantity() * item.getUnitPrice(),
+                    order.getUser() != null ? order.getUser().getUsername() : null,
+                    orderDate, order.getStatus().name()
+            });
+        }
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        if (counts(order.getStatus())) {
+            jdbcTemplate.update(APPLY_SQL, 1, order.getId());
+        }
+    }
+
+    public void onStatusChange(Long orderId, OrderStatus oldStatus, OrderStatus newStatus) {
+        if (oldStatus == newStatus) return;
+        jdbcTemplate.update(STATUS_SQL, newStatus.name(), orderId);
+        // Toplamlar yalnızca iptale girişte ve iptalden çıkışta değişir
+        if (counts(oldStatus) != counts(newStatus)) {
+            jdbcTemplate.update(APPLY_SQL, counts(newStatus) ? 1 : -1, orderId);
+        }
+    }
+
+    public void removeOrder(Long orderId, OrderStatus status) {
+        if (counts(status)) {
+            jdbcTemplate.update(APPLY_SQL, -1, orderId);
+        }
+        jdbcTemplate.update(DELETE_SQL, orderId);
+    }
+
+    public SellerOrderPage getPage(Long sellerId, String cursor, int pageSize) {
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, PAGE_CURSOR) : null;
+        List<SellerOrderLine> fetched = after == null
+                ? lineRepository.findFirstPageBySellerId(sellerId, PageRequest.of(0, pageSize + 1))
+                : lineRepository.findNextPageBySellerId(sellerId, after.getValueAsDateTime(), after.getId(),
+                        PageRequest.of(0, pageSize + 1));
+        CursorPage<SellerOrderLine> page = CursorPage.of(fetched, pageSize,
+                last -> PageCursor.encode(PAGE_CURSOR, last.getId(), last.getOrderDate()));
+        SellerRevenue totals = revenueRepository.findById(sellerId).orElseGet(() -> SellerRevenue.empty(sellerId));
+        return SellerOrderPage.of(page, totals);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long lines = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seller_order_lines", Long.class);
+            if (lines != null && lines > 0) {
+                jdbcTemplate.update(BACKFILL_CUSTOMER_SQL);
+                return;
+            }
+            jdbcTemplate.update(BACKFILL_SQL);
+            jdbcTemplate.update("DELETE FROM seller_revenue");
+            jdbcTemplate.update(REBUILD_TOTALS_SQL);
+        });
+    }
+
+    private static boolean counts(OrderStatus status) {
+        return status != OrderStatus.IPTAL_EDILDI;
+    }
+}
@@ -0,0 +1,181 @@
+package com.ecommerce.backend.util;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// Okuma -> paralel dönüştürme/doğrulama -> sıralı yazma hattı.
+// Okuyucu iş parçacığı CsvReader ile kayıtları parçalar halinde toplar, her parça işçi havuzunda
+// (varsayılan: ForkJoinPool.commonPool) dönüştürülür. Parçaların future'ları sınırlı bir FIFO
+// kuyruğa okunma sırasıyla konur; çağıran iş parçacığı bunları aynı sırayla bekleyip yazar.
+// Böylece doğrulama tüm çekirdeklere yayılırken yazma sırası ve satır numaraları korunur.
+public final class CsvPipeline<T> {
+
+    public interface RowMapper<T> {
+        // Geçersiz satırlar için açıklayıcı mesajla RuntimeException fırlatılmalı
+        T map(String[] fields);
+    }
+
+    public interface ChunkHandler<T> {
+        // false dönerse hat durdurulur (örneğin iptal)
+        boolean handle(Chunk<T> chunk) throws Exception;
+    }
+
+    public static final class Row<T> {
+        private final long line;
+        private final T value;
+        private final String error;
+
+        private Row(long line, T value, String error) {
+            this.line = line;
+            this.value = value;
+            this.error = error;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+    }
+
+    public static final class Chunk<T> {
+        private final List<Row<T>> rows;
+        private final long lastLine;
+
+        private Chunk(List<Row<T>> rows, long lastLine) {
+            this.rows = rows;
+            this.lastLine = lastLine;
+        }
+
+        public List<Row<T>> getRows() {
+            return rows;
+        }
+
+        // Parçadaki son kaydın bittiği fiziksel satır (checkpoint için)
+        public long getLastLine() {
+            return lastLine;
+        }
+    }
+
+    private static final class RawChunk {
+        private final List<String[]> records;
+        private final long[] lines;
+        private long lastLine;
+
+        private RawChunk(int size) {
+            this.records = new ArrayList<>(size);
+            this.lines = new long[size];
+        }
+    }
+
+    private static final CompletableFuture<?> END = CompletableFuture.completedFuture(null);
+
+    private final int chunkSize;
+    private final Executor workers;
+    private final int maxChunksInFlight;
+
+    public CsvPipeline(int chunkSize) {
+        this(chunkSize, ForkJoinPool.commonPool(), Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 2));
+    }
+
+    public CsvPipeline(int chunkSize, Executor workers, int maxChunksInFlight) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.workers = workers;
+        this.maxChunksInFlight = Math.max(1, maxChunksInFlight);
+    }
+
+    // İlk kayıt header kabul edilir; başlangıç satırı skipThroughLine'a kadar olan kayıtlar atlanır.
+    // Handler hattı durdurursa false döner
+    public boolean run(Reader input, long skipThroughLine, RowMapper<T> mapper, ChunkHandler<T> handler) throws Exception {
+        BlockingQueue<CompletableFuture<?>> inFlight = new ArrayBlockingQueue<>(maxChunksInFlight);
+        Thread readerThread = new Thread(() -> read(input, skipThroughLine, mapper, inFlight), "csv-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        try {
+            while (true) {
+                CompletableFuture<?> future = inFlight.take();
+                if (future == END) return true;
+                @SuppressWarnings("unchecked")
+                Chunk<T> chunk = (Chunk<T>) join(future);
+                if (!handler.handle(chunk)) return false;
+            }
+        } finally {
+            readerThread.interrupt();
+            readerThread.join();
+        }
+    }
+
+    private void read(Reader input, long skipThroughLine, RowMapper<T> mapper,
+                      BlockingQueue<CompletableFuture<?>> inFlight) {
+        try (CsvReader reader = new CsvReader(input)) {
+            boolean header = true;
+            RawChunk raw = new RawChunk(chunkSize);
+            while (reader.next()) {
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                if (reader.recordLine() <= skipThroughLine) continue;
+
+                raw.lines[raw.records.size()] = reader.recordLine();
+                raw.records.add(reader.fields());
+                raw.lastLine = reader.lastLine();
+                if (raw.records.size() == chunkSize) {
+                    inFlight.put(submit(raw, mapper));
+                    raw = new RawChunk(chunkSize);
+                }
+            }
+            if (!raw.records.isEmpty()) {
+                inFlight.put(submit(raw, mapper));
+            }
+            inFlight.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Okuma hatası tüketiciye sıradaki parça olarak iletilir
+            inFlight.clear();
+            inFlight.offer(CompletableFuture.failedFuture(e));
+        }
+    }
+
+    private CompletableFuture<Chunk<T>> submit(RawChunk raw, RowMapper<T> mapper) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Row<T>> rows = new ArrayList<>(raw.records.size());
+            for (int i = 0; i < raw.records.size(); i++) {
+                try {
+                    rows.add(new Row<>(raw.lines[i], mapper.map(raw.records.get(i)), null));
+                } catch (RuntimeException e) {
+                    rows.add(new Row<>(raw.lines[i], null, e.getMessage()));
+                }
+            }
+            return new Chunk<>(rows, raw.lastLine);
+        }, workers);
+    }
+
+    private static Object join(CompletableFuture<?> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+}
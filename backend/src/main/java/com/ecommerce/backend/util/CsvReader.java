@@ -0,0 +1,177 @@
+package com.ecommerce.backend.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// RFC 4180 uyumlu, az nesne üreten CSV okuyucu. Girdi sabit bir char tamponundan okunur,
+// alanlar kayıtlar arasında yeniden kullanılan StringBuilder'larda biriktirilir.
+// Tırnaklı alanlar virgül, satır sonu ve kaçışlı tırnak ("") içerebilir.
+// recordLine() kaydın başladığı fiziksel satırı (1'den başlar) döner; hata mesajları bununla üretilir.
+public final class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final List<StringBuilder> fields = new ArrayList<>();
+    private int fieldCount;
+
+    private long line = 1;
+    private long recordLine;
+    private long endLine;
+    private boolean firstRead = true;
+    private boolean eof;
+
+    public CsvReader(Reader reader) {
+        this(reader, ',');
+    }
+
+    public CsvReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    // Bir sonraki kaydı okur; dosya sonunda false döner
+    public boolean next() throws IOException {
+        if (eof && position >= limit) return false;
+        int c = read();
+        if (c < 0) return false;
+
+        recordLine = line;
+        fieldCount = 0;
+        StringBuilder field = nextField();
+        boolean quoted = false;
+        boolean afterQuote = false;
+
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    // Kapanmayan tırnak: dosya sonuna kadar olan kısım alan kabul edilir
+                    endLine = line;
+                    return true;
+                }
+                if (c == '"') {
+                    int peek = read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                        c = peek;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peekChar() != '\n')) line++;
+                    field.append((char) c);
+                }
+            } else {
+                if (c < 0) {
+                    endLine = line;
+                    return true;
+                }
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r' && peekChar() == '\n') read();
+                    endLine = line++;
+                    return true;
+                }
+                if (c == delimiter) {
+                    field = nextField();
+                    afterQuote = false;
+                } else if (c == '"' && field.length() == 0 && !afterQuote) {
+                    quoted = true;
+                } else if (c == '"' && isBlank(field) && !afterQuote) {
+                    // Tırnaktan önceki boşluklar yok sayılır: ,  "değer",
+                    field.setLength(0);
+                    quoted = true;
+                } else if (!afterQuote || !Character.isWhitespace(c)) {
+                    field.append((char) c);
+                }
+            }
+            c = read();
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public String field(int index) {
+        return fields.get(index).toString();
+    }
+
+    public String[] fields() {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = fields.get(i).toString();
+        }
+        return values;
+    }
+
+    public long recordLine() {
+        return recordLine;
+    }
+
+    // Son okunan kaydın bittiği fiziksel satır
+    public long lastLine() {
+        return endLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StringBuilder nextField() {
+        if (fieldCount == fields.size()) {
+            fields.add(new StringBuilder(64));
+        }
+        StringBuilder field = fields.get(fieldCount++);
+        field.setLength(0);
+        return field;
+    }
+
+    private int read() throws IOException {
+        if (position >= limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peekChar() throws IOException {
+        if (position >= limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) return false;
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        // UTF-8 BOM varsa atla
+        if (firstRead) {
+            firstRead = false;
+            if (buffer[0] == '\uFEFF') position = 1;
+        }
+        return position < limit || fill();
+    }
+
+    private static boolean isBlank(StringBuilder field) {
+        for (int i = 0; i < field.length(); i++) {
+            if (!Character.isWhitespace(field.charAt(i))) return false;
+        }
+        return true;
+    }
+}
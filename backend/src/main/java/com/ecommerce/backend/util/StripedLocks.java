@@ -0,0 +1,43 @@
+package com.ecommerce.backend.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Anahtar başına kilit tutmadan, sabit sayıda kilidi anahtarın hash'ine göre paylaştırır.
+// Aynı anahtar her zaman aynı kilide düşer; farklı anahtarlar nadiren çakışır.
+public final class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLocks(int stripes) {
+        // Maske ile indeks hesaplamak için 2'nin kuvvetine yuvarlanır
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(Object key, Supplier<T> action) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return locks.length;
+    }
+
+    private ReentrantLock lockFor(Object key) {
+        int hash = key.hashCode();
+        // HashMap'teki gibi yüksek bitler alt bitlere karıştırılır
+        hash ^= (hash >>> 16);
+        return locks[hash & mask];
+    }
+}
@@ -0,0 +1,231 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Cart;
+import com.ecommerce.backend.Entity.CartItem;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.Entity.User;
+import com.ecommerce.backend.repository.CartItemRepository;
+import com.ecommerce.backend.repository.CartRepository;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Aynı sepete çok sayıda iş parçacığından yazılır; son miktarların kayıpsız olduğu doğrulanır
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-concurrency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "product.import.resume-on-startup=false"
+})
+class CartServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 50;
+
+    @Autowired
+    private CartService cartService;
+
+    @MockitoSpyBean
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentAddsKeepEveryQuantity() throws Exception {
+        User user = createUser();
+        List<Product> products = List.of(createProduct(), createProduct(), createProduct());
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                Product product = products.get((thread + i) % products.size());
+                cartService.addToCartForUser(user.getId(), product.getId(), 1);
+            }
+            return null;
+        });
+
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                expected.merge(products.get((thread + i) % products.size()).getId(), 1, Integer::sum);
+            }
+        }
+
+        Cart cart = loadCart(user);
+        Map<Long, Integer> actual = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            actual.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        assertEquals(expected, actual);
+        assertEquals(products.size(), cart.getItems().size());
+        assertEquals(THREADS * ADDS_PER_THREAD, cart.getVersion());
+    }
+
+    @Test
+    void concurrentCartCreationYieldsSingleCart() throws Exception {
+        User user = createUser();
+        Set<Long> cartIds = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(thread -> {
+            cartIds.add(cartService.getCartByUserId(user.getId()).getId());
+            return null;
+        });
+
+        assertEquals(1, cartIds.size());
+        assertEquals(1, cartRepository.findAll().stream()
+                .filter(cart -> cartIds.contains(cart.getId()))
+                .count());
+    }
+
+    @Test
+    void concurrentAddsAndRemovesSettleOnRemainingQuantity() throws Exception {
+        User user = createUser();
+        Product kept = createProduct();
+        Product removed = createProduct();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                cartService.addToCartForUser(user.getId(), kept.getId(), 2);
+                cartService.addToCartForUser(user.getId(), removed.getId(), 1);
+            }
+            cartService.removeItemByProductId(user.getId(), removed.getId());
+            return null;
+        });
+        // Son kaldırma işleminden sonra çalışan eklemeler kalmış olabilir; temizleyip tekrar kontrol et
+        cartService.removeItemByProductId(user.getId(), removed.getId());
+
+        Cart cart = loadCart(user);
+        assertEquals(1, cart.getItems().size());
+        assertEquals(kept.getId(), cart.getItems().get(0).getProduct().getId());
+        assertEquals(THREADS * ADDS_PER_THREAD * 2, cart.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void versionConflictWithoutStripeLockIsRetried() {
+        User user = createUser();
+        Product product = createProduct();
+        Long cartId = cartService.getCartByUserId(user.getId()).getId();
+        cartService.addToCart(cartId, product.getId(), 1);
+
+        // İlk denemede sepet okunduktan sonra başka bir transaction aynı satırı günceller; kaydetme sürüm çakışmasına düşer
+        TransactionTemplate concurrentWriter = new TransactionTemplate(transactionManager);
+        concurrentWriter.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean conflictInjected = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Optional<Cart> cart = cartRepository.findByIdWithItems(cartId);
+            if (conflictInjected.compareAndSet(false, true)) {
+                concurrentWriter.executeWithoutResult(status -> cartItemRepository.updateQuantity(cartId, product.getId(), 5));
+            }
+            return cart;
+        }).when(cartRepository).findById(cartId);
+        clearInvocations(cartRepository);
+
+        cartService.addToCart(cartId, product.getId(), 2);
+
+        verify(cartRepository, times(2)).findById(cartId);
+        Cart cart = loadCart(user);
+        assertEquals(1, cart.getItems().size());
+        assertEquals(7, cart.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void nonOptimisticFailureIsNotRetried() {
+        User user = createUser();
+        Product product = createProduct();
+        Long cartId = cartService.getCartByUserId(user.getId()).getId();
+
+        doThrow(new DataIntegrityViolationException("kısıt ihlali")).when(cartRepository).findById(cartId);
+        clearInvocations(cartRepository);
+
+        assertThrows(DataIntegrityViolationException.class, () -> cartService.addToCart(cartId, product.getId(), 1));
+        verify(cartRepository, times(1)).findById(cartId);
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadIndex = thread;
+                Callable<Void> callable = () -> {
+                    start.await();
+                    return task.run(threadIndex);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                // Herhangi bir iş parçacığındaki hata testi düşürür
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Cart loadCart(User user) {
+        return cartRepository.findByIdWithItems(cartRepository.findIdByUserId(user.getId()).orElseThrow())
+                .orElseThrow();
+    }
+
+    private User createUser() {
+        String name = "cart-test-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+
+    private Product createProduct() {
+        Product product = new Product();
+        product.setName("Eşzamanlılık Ürünü " + UUID.randomUUID());
+        product.setPrice(10.0);
+        return productRepository.save(product);
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        Void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checkout flush'ı, başka bir iş parçacığının aldığı ama henüz commit etmediği farkı beklemeli
+class CartWriteBehindStoreTest {
+
+    private final CountDownLatch writeStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseWrite = new CountDownLatch(1);
+    private final AtomicInteger committedUpserts = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private CartWriteBehindStore store;
+
+    @BeforeEach
+    void setUp() {
+        // İlk upsert batch'i serbest bırakılana kadar bekler; transaction'lar yalnızca sayılır
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                if (sql.startsWith("MERGE INTO cart_items")) {
+                    writeStarted.countDown();
+                    try {
+                        releaseWrite.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    committedUpserts.addAndGet(batchArgs.size());
+                }
+                return new int[batchArgs.size()];
+            }
+        };
+        store = new CartWriteBehindStore(jdbcTemplate, noOpTransactionManager(), "memory", 100, 1800, 3_600_000, 200);
+    }
+
+    private static PlatformTransactionManager noOpTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWrite.countDown();
+        executor.shutdownNow();
+        store.shutdown();
+    }
+
+    @Test
+    void flushWaitsForSnapshotTakenByAnotherWriter() throws Exception {
+        CartWriteBehindStore.CartState state = store.get(1L, userId -> new CartWriteBehindStore.CartState(10L, Map.of(), 0));
+        state.add(5L, 2);
+
+        Future<?> backgroundWrite = executor.submit(() -> store.flush(1L));
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        // Fark artık arka plandaki yazmada; sepet kirli görünmüyor ama commit edilmedi
+        Future<?> checkoutFlush = executor.submit(() -> store.flush(1L));
+        assertThrows(TimeoutException.class, () -> checkoutFlush.get(300, TimeUnit.MILLISECONDS));
+
+        releaseWrite.countDown();
+        checkoutFlush.get(5, TimeUnit.SECONDS);
+        backgroundWrite.get(5, TimeUnit.SECONDS);
+        assertEquals(1, committedUpserts.get());
+    }
+
+    @Test
+    void failingCartDoesNotBlockOtherCartsInItsGroup() {
+        Set<Long> writtenCarts = ConcurrentHashMap.newKeySet();
+        // Sepet 13 her zaman reddedilir; aynı batch'teki diğer sepetler de geri alınır
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                if (sql.startsWith("MERGE INTO cart_items")
+                        && batchArgs.stream().anyMatch(args -> Long.valueOf(13L).equals(args[0]))) {
+                    throw new DataIntegrityViolationException("bozuk sepet");
+                }
+                if (sql.startsWith("UPDATE cart SET version")) {
+                    batchArgs.forEach(args -> writtenCarts.add((Long) args[0]));
+                }
+                return new int[batchArgs.size()];
+            }
+        };
+        CartWriteBehindStore failingStore = new CartWriteBehindStore(
+                jdbcTemplate, noOpTransactionManager(), "memory", 100, 1800, 3_600_000, 200);
+        CartWriteBehindStore.CartState bad = failingStore.get(1L, userId -> new CartWriteBehindStore.CartState(13L, Map.of(), 0));
+        CartWriteBehindStore.CartState good = failingStore.get(2L, userId -> new CartWriteBehindStore.CartState(20L, Map.of(), 0));
+        bad.add(5L, 1);
+        good.add(5L, 1);
+
+        // Kapanış flush'ı tek grupta ikisini birden dener; grup düşünce sepetler tek tek yazılır
+        failingStore.shutdown();
+
+        assertEquals(Set.of(20L), writtenCarts);
+        assertFalse(good.isDirty());
+        assertTrue(bad.isDirty());
+    }
+}
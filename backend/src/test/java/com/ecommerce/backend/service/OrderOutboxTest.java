@@ -0,0 +1,165 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Outbox kaydı ancak tüm aboneler onaylayınca yayınlanmış sayılır; denemeleri tükenen abone olay kaybetmez
+class OrderOutboxTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private OrderEventBus eventBus;
+    private OrderOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:outbox-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE order_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_id BIGINT NOT NULL, " +
+                "user_id BIGINT, old_status VARCHAR(32), new_status VARCHAR(32) NOT NULL, " +
+                "created_at TIMESTAMP NOT NULL, published_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE order_event_cursors (subscriber VARCHAR(64) PRIMARY KEY, " +
+                "last_event_id BIGINT NOT NULL)");
+        eventBus = new OrderEventBus(4, 2, 2, 5);
+        outbox = new OrderOutbox(null, eventBus, jdbcTemplate, 3, 20, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outbox.shutdown();
+        eventBus.shutdown();
+    }
+
+    @Test
+    void failingSubscriberHoldsBackPublishingWithoutLosingEvents() throws Exception {
+        List<Long> fast = new CopyOnWriteArrayList<>();
+        List<Long> flaky = new CopyOnWriteArrayList<>();
+        AtomicInteger failuresLeft = new AtomicInteger(5);
+        eventBus.subscribe("fast", batch -> batch.forEach(event -> fast.add(event.getId())));
+        eventBus.subscribe("flaky", batch -> {
+            // max-attempts 2: ilk batch iki tur boyunca reddedilir
+            if (failuresLeft.getAndDecrement() > 0) throw new IllegalStateException("geçici hata");
+            batch.forEach(event -> flaky.add(event.getId()));
+        });
+        outbox.start();
+        for (long orderId = 1; orderId <= 10; orderId++) {
+            outbox.record(orderId, 1L, null, OrderStatus.HAZIRLANIYOR);
+        }
+
+        awaitCount(fast, 10);
+        assertEquals(0L, publishedCount());
+
+        awaitCount(flaky, 10);
+        awaitPublished(10);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), fast);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), flaky.stream().distinct().toList());
+        assertEquals(10L, jdbcTemplate.queryForObject(
+                "SELECT last_event_id FROM order_event_cursors WHERE subscriber = 'flaky'", Long.class));
+    }
+
+    @Test
+    void nothingIsPublishedWithoutSubscribers() throws Exception {
+        outbox.start();
+        outbox.record(1L, 1L, null, OrderStatus.HAZIRLANIYOR);
+        Thread.sleep(200);
+        assertEquals(0L, publishedCount());
+    }
+
+    @Test
+    void eventCommittedAfterHigherIdIsDeliveredInOrder() throws Exception {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        eventBus.subscribe("ordered", batch -> batch.forEach(event -> received.add(event.getId())));
+        outbox.start();
+        // İmleç yüklenmiş olsun diye önce bir olay teslim edilir
+        inTransaction(() -> outbox.record(1L, 1L, null, OrderStatus.HAZIRLANIYOR));
+        awaitCount(received, 1);
+
+        // Kimlik 2'yi alan transaction, kimlik 3'ü alan transaction commit edilene kadar açık kalır
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> inTransaction(() -> {
+            outbox.record(2L, 1L, null, OrderStatus.HAZIRLANIYOR);
+            firstInserted.countDown();
+            await(releaseFirst);
+        }));
+        firstInserted.await(5, TimeUnit.SECONDS);
+        inTransaction(() -> outbox.record(3L, 1L, null, OrderStatus.HAZIRLANIYOR));
+
+        Thread.sleep(200);
+        assertEquals(List.of(1L), received);
+        assertEquals(1L, publishedCount());
+
+        releaseFirst.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        awaitCount(received, 3);
+        assertEquals(List.of(1L, 2L, 3L), received);
+        awaitPublished(3);
+    }
+
+    @Test
+    void rolledBackIdIsSkippedAfterGracePeriod() throws Exception {
+        outbox = new OrderOutbox(null, eventBus, jdbcTemplate, 3, 20, 300);
+        List<Long> received = new CopyOnWriteArrayList<>();
+        eventBus.subscribe("gaps", batch -> batch.forEach(event -> received.add(event.getId())));
+        outbox.start();
+        inTransaction(() -> outbox.record(1L, 1L, null, OrderStatus.HAZIRLANIYOR));
+        awaitCount(received, 1);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.record(2L, 1L, null, OrderStatus.HAZIRLANIYOR);
+            status.setRollbackOnly();
+        });
+        inTransaction(() -> outbox.record(3L, 1L, null, OrderStatus.HAZIRLANIYOR));
+
+        awaitCount(received, 2);
+        assertEquals(List.of(1L, 3L), received);
+        awaitPublished(2);
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> action.run());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long publishedCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_events WHERE published_at IS NOT NULL", Long.class);
+    }
+
+    private void awaitPublished(long expected) throws InterruptedException {
+        for (int i = 0; i < 500 && publishedCount() < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, publishedCount());
+    }
+
+    private static void awaitCount(List<Long> received, int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && received.stream().distinct().count() < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, received.stream().distinct().count());
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Fiyatlandırma sıcak yolu için mikro ölçüm: tüm fiyatlar önbellekteyken 20 kalemlik sipariş
+// sorgusuz ve (JIT ısındıktan sonra) nesne oluşturmadan fiyatlanmalı. Süre yalnızca test raporuna yazılır.
+// Varsayılan test çalıştırmasında yer almaz: mvn test -Pbenchmark
+@Tag("benchmark")
+class OrderPricingBenchmarkTest {
+
+    private static final int LINES = 20;
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    private static final long MAX_BYTES_PER_ORDER = 64;
+
+    private OrderPricingService pricingService;
+    private List<OrderLine> lines;
+    private long expectedCents;
+
+    @BeforeEach
+    void setUp() {
+        // Önbellek tam isabette veritabanına gitmez; depo gerekmez
+        PriceCache priceCache = new PriceCache(null, 1000);
+        pricingService = new OrderPricingService(priceCache);
+        lines = new ArrayList<>(LINES);
+        for (long id = 1; id <= LINES; id++) {
+            double price = 10 + id * 1.99;
+            priceCache.put(id, PriceCache.toCents(price), 0);
+            int quantity = (int) (id % 3) + 1;
+            lines.add(new OrderLine(id, quantity, price));
+            expectedCents += PriceCache.toCents(price) * quantity;
+        }
+    }
+
+    @Test
+    void pricesCachedOrderWithoutAllocating(TestReporter reporter) {
+        Double submittedTotal = expectedCents / 100.0;
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checksum += pricingService.price(lines, submittedTotal);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            checksum += pricingService.price(lines, submittedTotal);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytesPerOrder = (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / MEASURED_ITERATIONS;
+
+        reporter.publishEntry("nsPerOrder", String.format("%.1f", (double) elapsed / MEASURED_ITERATIONS));
+        reporter.publishEntry("bytesPerOrder", String.valueOf(bytesPerOrder));
+        assertEquals(expectedCents * (WARMUP_ITERATIONS + MEASURED_ITERATIONS), checksum);
+        assertTrue(bytesPerOrder <= MAX_BYTES_PER_ORDER, "Sipariş başına ayrılan bellek: " + bytesPerOrder);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Önbellekteki fiyatlarla sipariş doğrulaması ve fiyat önbelleğinin dolunca yer açması
+class OrderPricingServiceTest {
+
+    private static final int LINES = 20;
+
+    private OrderPricingService pricingService;
+    private List<OrderLine> lines;
+    private long expectedCents;
+
+    @BeforeEach
+    void setUp() {
+        // Önbellek tam isabette veritabanına gitmez; depo gerekmez
+        PriceCache priceCache = new PriceCache(null, 1000);
+        pricingService = new OrderPricingService(priceCache);
+        lines = new ArrayList<>(LINES);
+        for (long id = 1; id <= LINES; id++) {
+            double price = 10 + id * 1.99;
+            priceCache.put(id, PriceCache.toCents(price), 0);
+            int quantity = (int) (id % 3) + 1;
+            lines.add(new OrderLine(id, quantity, price));
+            expectedCents += PriceCache.toCents(price) * quantity;
+        }
+    }
+
+    @Test
+    void rejectsTamperedPrice() {
+        OrderLine first = lines.get(0);
+        lines.set(0, new OrderLine(first.productId, first.quantity, 0.01));
+
+        OrderPricingService.PriceMismatchException e = assertThrows(OrderPricingService.PriceMismatchException.class,
+                () -> pricingService.price(lines, null));
+        assertEquals(PriceCache.toCents(first.submittedPrice) / 100.0, e.getPrices().get(first.productId));
+        assertEquals(expectedCents / 100.0, e.getTotalAmount());
+    }
+
+    @Test
+    void rejectsTamperedTotal() {
+        assertThrows(OrderPricingService.PriceMismatchException.class,
+                () -> pricingService.price(lines, (expectedCents - 1) / 100.0));
+    }
+
+    @Test
+    void fullCacheEvictsEntryNotReadSinceLastSweep() {
+        PriceCache priceCache = new PriceCache(null, 2);
+        priceCache.put(1L, 100, 0);
+        priceCache.put(2L, 200, 0);
+        priceCache.getCents(1L);
+
+        priceCache.put(3L, 300, 0);
+
+        assertEquals(100, priceCache.getCents(1L));
+        assertEquals(PriceCache.MISSING, priceCache.getCents(2L));
+        assertEquals(300, priceCache.getCents(3L));
+        assertEquals(1L, priceCache.stats().get("evictions"));
+        assertEquals(2, priceCache.stats().get("size"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Order;
+import com.ecommerce.backend.Entity.OrderItem;
+import com.ecommerce.backend.Entity.Product;
+import com.ecommerce.backend.model.RankedProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sıralamalar transaction dışında hemen uygulanır; veritabanı gerekmez. Top-K süresi yalnızca test raporuna
+// yazılır ve ölçüm varsayılan test çalıştırmasında yer almaz: mvn test -Pbenchmark
+class ProductLeaderboardTest {
+
+    private static final int WINDOW_HOURS = 168;
+
+    private ProductLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new ProductLeaderboard(null, 10, 3, WINDOW_HOURS, 0);
+    }
+
+    @Test
+    void fewReviewsDoNotOutrankManyGoodOnes() {
+        Product single = product(1L, 7L);
+        Product popular = product(2L, 7L);
+        Product otherCategory = product(3L, 8L);
+        leaderboard.reviewAdded(single, 5);
+        for (int i = 0; i < 20; i++) {
+            leaderboard.reviewAdded(popular, i % 2 == 0 ? 4 : 5);
+        }
+        leaderboard.reviewAdded(otherCategory, 5);
+
+        assertEquals(List.of(2L, 1L), List.copyOf(leaderboard.topRated(7L, 10).keySet()));
+        assertEquals(List.of(2L, 1L, 3L), List.copyOf(leaderboard.topRated(null, 10).keySet()));
+        assertEquals(4.5, leaderboard.topRated(7L, 1).get(2L).getAverageRating());
+
+        leaderboard.ratingChanged(single, 5, 1);
+        leaderboard.reviewRemoved(otherCategory, 5, LocalDateTime.now());
+        assertEquals(List.of(2L, 1L), List.copyOf(leaderboard.topRated(null, 10).keySet()));
+        assertTrue(leaderboard.topRated(8L, 10).isEmpty());
+    }
+
+    @Test
+    void activityLeavesTheWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        Product shoes = product(1L, 7L);
+        Product hat = product(2L, 7L);
+        leaderboard.recordOrder(order(now.minusHours(2), shoes, 2));
+        leaderboard.recordOrder(order(now.minusHours(WINDOW_HOURS - 10), hat, 5));
+
+        Map<Long, RankedProduct> trending = leaderboard.trending(7L, 10, now);
+        assertEquals(List.of(2L, 1L), List.copyOf(trending.keySet()));
+        assertEquals(5, trending.get(2L).getRecentActivity());
+
+        // Şapka siparişi pencereden çıktı, ayakkabınınki hâlâ içinde
+        assertEquals(List.of(1L), List.copyOf(leaderboard.trending(7L, 10, now.plusHours(12)).keySet()));
+        assertTrue(leaderboard.trending(null, 10, now.plusHours(WINDOW_HOURS)).isEmpty());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void topKIsServedFromMemory(TestReporter reporter) {
+        int products = 100_000;
+        for (long id = 1; id <= products; id++) {
+            leaderboard.reviewAdded(product(id, id % 50), (int) (id % 5) + 1);
+        }
+        int iterations = 100_000;
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            checksum += leaderboard.topRated(i % 50L, 10).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += leaderboard.topRated(i % 50L, 10).size();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        reporter.publishEntry("microsPerQuery", String.format("%.2f", elapsed / 1000.0 / iterations));
+        assertEquals(2L * iterations * 10, checksum);
+    }
+
+    private static Product product(Long id, Long categoryId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Ürün " + id);
+        product.setCategoryId(categoryId);
+        return product;
+    }
+
+    private static Order order(LocalDateTime orderDate, Product product, int quantity) {
+        Order order = new Order();
+        order.setOrderDate(orderDate);
+        order.setOrderItems(List.of(new OrderItem(order, product, quantity, 10.0)));
+        return order;
+    }
+}
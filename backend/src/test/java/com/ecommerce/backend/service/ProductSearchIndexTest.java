@@ -0,0 +1,76 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.Entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// İndeks bellekte kurulur; veritabanı gerekmez
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null);
+        index.rebuild(List.of(
+                product(1L, "IŞIKLI Ayna", "Banyo için", 7L),
+                product(2L, "İğne Seti", "Dikiş", 7L),
+                product(3L, "Kalemlik", "Masa düzenleyici", 8L),
+                product(4L, "Kalem", "Mavi tükenmez", 8L),
+                product(5L, "Tükenmezkalem", "Siyah", 8L),
+                product(6L, "Defter", "Kalem ile uyumlu çizgili sayfalar", 8L),
+                product(7L, "Çanta", "Deri omuz çantası", 9L),
+                product(8L, "Kasa", "Çakmaklı para kasası", 9L)));
+    }
+
+    @Test
+    void turkishCaseAndAccentsAreFolded() {
+        assertEquals(List.of(1L), index.search("ışıklı", null, 10));
+        assertEquals(List.of(1L), index.search("ISIKLI", null, 10));
+        assertEquals(List.of(1L), index.search("isikli ayna", null, 10));
+        assertEquals(List.of(2L), index.search("iğne", null, 10));
+        assertEquals(List.of(2L), index.search("IGNE", null, 10));
+        assertEquals(List.of(7L), index.search("canta", null, 10));
+    }
+
+    @Test
+    void shortTermsMatchWordPrefixesOnly() {
+        // "ça" çanta ve çakmaklı kelimelerinin başıdır; kasa'daki "as" kelime ortasında olduğu için eşleşmez
+        assertEquals(List.of(7L, 8L), index.search("ça", null, 10));
+        assertTrue(index.search("as", null, 10).isEmpty());
+        assertEquals(List.of(7L), index.search("ç", 9L, 1));
+    }
+
+    @Test
+    void resultsAreRankedAndLimited() {
+        // Tam ad > ad başı > ad ortası > yalnızca açıklama
+        assertEquals(List.of(4L, 3L, 5L, 6L), index.search("kalem", null, 10));
+        assertEquals(List.of(4L, 3L), index.search("kalem", null, 2));
+        assertEquals(List.of(4L, 3L, 5L, 6L), index.search("KALEM", 8L, 10));
+        assertTrue(index.search("kalem", 7L, 10).isEmpty());
+    }
+
+    @Test
+    void updatesReplaceTheIndexedDocument() {
+        index.index(product(4L, "Fırça", "Boya", 8L));
+        assertEquals(List.of(3L, 5L, 6L), index.search("kalem", null, 10));
+        assertEquals(List.of(4L), index.search("firca", null, 10));
+
+        index.remove(3L);
+        assertEquals(List.of(5L, 6L), index.search("kalem", null, 10));
+    }
+
+    private static Product product(Long id, String name, String description, Long categoryId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategoryId(categoryId);
+        return product;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+
+    @Test
+    void quotedFieldsKeepDelimitersAndEscapedQuotes() throws IOException {
+        List<String[]> records = readAll(new StringReader(
+                "name,description\n\"Kalem, mavi\",\"15\"\" ekran \"\"HD\"\"\"\n"));
+
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"Kalem, mavi", "15\" ekran \"HD\""}, records.get(1));
+    }
+
+    @Test
+    void quotedFieldsMaySpanLines() throws IOException {
+        List<String[]> records = readAll(new StringReader(
+                "a,\"satır 1\nsatır 2\",b\n\"x\r\ny\",z\n"));
+
+        assertArrayEquals(new String[]{"a", "satır 1\nsatır 2", "b"}, records.get(0));
+        assertArrayEquals(new String[]{"x\r\ny", "z"}, records.get(1));
+    }
+
+    @Test
+    void crlfEndsRecordsAndBomIsSkipped() throws IOException {
+        List<String[]> records = readAll(new StringReader("\uFEFFname,price\r\nKalem,10\r\nDefter,20"));
+
+        assertEquals(3, records.size());
+        assertArrayEquals(new String[]{"name", "price"}, records.get(0));
+        assertArrayEquals(new String[]{"Kalem", "10"}, records.get(1));
+        assertArrayEquals(new String[]{"Defter", "20"}, records.get(2));
+    }
+
+    @Test
+    void trailingDelimiterYieldsEmptyField() throws IOException {
+        List<String[]> records = readAll(new StringReader("a,b,\n,\n"));
+
+        assertArrayEquals(new String[]{"a", "b", ""}, records.get(0));
+        assertArrayEquals(new String[]{"", ""}, records.get(1));
+    }
+
+    @Test
+    void recordLineCountsPhysicalLinesOfMultiLineRecords() throws IOException {
+        String csv = "h1,h2\r\n\"çok\r\nsatırlı\nalan\",x\r\nson,y\r\n";
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            assertTrue(reader.next());
+            assertEquals(1, reader.recordLine());
+            assertEquals(1, reader.lastLine());
+
+            assertTrue(reader.next());
+            assertEquals(2, reader.recordLine());
+            assertEquals(4, reader.lastLine());
+
+            assertTrue(reader.next());
+            assertEquals(5, reader.recordLine());
+            assertEquals("son", reader.field(0));
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void bufferBoundariesDoNotChangeTheResult() throws IOException {
+        // Her read çağrısı tek karakter döner: CRLF, "" kaçışı ve BOM okuma sınırlarına bölünür
+        String csv = "\uFEFFa,\"b\"\"c\"\r\n\"d\r\ne\",f,\r\n";
+        List<String[]> records = readAll(new OneCharReader(csv));
+
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"a", "b\"c"}, records.get(0));
+        assertArrayEquals(new String[]{"d\r\ne", "f", ""}, records.get(1));
+    }
+
+    private static List<String[]> readAll(Reader input) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(input)) {
+            while (reader.next()) {
+                records.add(reader.fields());
+            }
+        }
+        return records;
+    }
+
+    private static final class OneCharReader extends Reader {
+        private final String text;
+        private int position;
+
+        private OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= text.length()) return -1;
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,3 +1,4 @@
 import { api } from '../config/api';
 
-export const getAllProducts = api.getAllProducts;
\ No newline at end of file
+export const getProductsPage = api.getProductsPage;
+export const searchProductsPage = api.searchProductsPage;
\ No newline at end of file
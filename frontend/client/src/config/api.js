@@ -25,14 +25,14 @@ export const apiClient = axios.create({
 // API methods
 export const api = {
     // Products
-    getAllProducts: async () => {
-        try {
-            const response = await apiClient.get('/products');
-            return response.data;
-        } catch (error) {
-            console.error('Error fetching products:', error);
-            return [];
-        }
+    // Keyset sayfalı: { items, nextCursor, hasMore }
+    getProductsPage: async (params = {}) => {
+        const response = await apiClient.get('/products', { params });
+        return response.data;
+    },
+    searchProductsPage: async (params = {}) => {
+        const response = await apiClient.get('/products/search', { params });
+        return response.data;
     },
 
     // Cart
@@ -40,6 +40,12 @@ export const api = {
         const response = await apiClient.get(`/cart/${userId}`);
         return response.data;
     },
+
+    // Sepet sayfası için sade görünüm (tek sorgu)
+    getCartView: async (userId) => {
+        const response = await apiClient.get(`/cart/${userId}/view`);
+        return response.data;
+    },
     
     addToCart: async (userId, productId, quantity = 1) => {
         const response = await apiClient.post(`/cart/${userId}/add`, null, {
@@ -78,6 +84,14 @@ export const api = {
         return response.data;
     },
     
+    // Ürün grid'indeki kalpler için toplu kontrol: { "3": true, "5": false }
+    favoritesContain: async (userId, productIds) => {
+        const response = await apiClient.get(`/favorites/user/${userId}/contains`, {
+            params: { productIds: productIds.join(',') }
+        });
+        return response.data;
+    },
+    
     addToFavorites: async (userId, productId) => {
         const response = await apiClient.post(`/favorites/user/${userId}`, { 
             product: { id: productId } 
@@ -100,9 +114,23 @@ export const api = {
         const response = await apiClient.get(`/orders/user/${userId}`);
         return response.data;
     },
+
+    // Özet satırlarla sayfalı geçmiş: { items, nextCursor, hasMore }
+    getOrderHistoryPage: async (userId, cursor, size = 20) => {
+        const response = await apiClient.get(`/orders/user/${userId}/history`, { params: { cursor, size } });
+        return response.data;
+    },
+
+    getOrderItems: async (orderId) => {
+        const response = await apiClient.get(`/orders/${orderId}/items`);
+        return response.data;
+    },
     
-    createOrder: async (userId, orderData) => {
-        const response = await apiClient.post(`/orders/user/${userId}`, orderData);
+    // Aynı idempotencyKey ile yapılan tekrar denemeler yeni sipariş oluşturmaz
+    createOrder: async (userId, orderData, idempotencyKey) => {
+        const response = await apiClient.post(`/orders/user/${userId}`, orderData, {
+            headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}
+        });
         return response.data;
     },
 
@@ -128,9 +156,9 @@ export const api = {
     },
 
     // Admin
-    getAllProductsAdmin: async () => {
+    getAllProductsAdmin: async (cursor) => {
         try {
-            const response = await apiClient.get('/admin/products');
+            const response = await apiClient.get('/admin/products', { params: { cursor } });
             return response.data;
         } catch (error) {
             console.error('Admin products fetch error:', error);
@@ -204,6 +232,16 @@ export const api = {
             throw error;
         }
     },
+    // Arşivlenmiş siparişler özet satırlarla sayfalı: { items, nextCursor, hasMore }
+    getArchivedOrdersAdmin: async (cursor) => {
+        try {
+            const response = await apiClient.get('/admin/orders/archived', { params: { cursor } });
+            return response.data;
+        } catch (error) {
+            console.error('Get archived orders error:', error);
+            throw error;
+        }
+    },
     deleteOrderAdmin: async (id) => {
         try {
             const response = await apiClient.delete(`/admin/orders/${id}`);
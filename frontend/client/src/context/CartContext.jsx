@@ -21,15 +21,14 @@ export function CartProvider({ children }) {
         }
 
         // Backend'den kullanıcının sepetini yükle
-        api.getCart(user.id).then((cart) => {
+        api.getCartView(user.id).then((cart) => {
             if (cart && cart.items) {
-                // Backend Cart formatını frontend formatına çevir
+                // Backend CartView formatını frontend formatına çevir
                 const items = cart.items.map(item => ({
-                    id: item.product.id,
-                    name: item.product.name,
-                    price: item.product.price,
-                    image: item.product.imageUrl,
-                    description: item.product.description,
+                    id: item.productId,
+                    name: item.name,
+                    price: item.price,
+                    image: item.imageUrl,
                     quantity: item.quantity
                 }));
                 setCartItems(items);
@@ -1,12 +1,15 @@
-import { createContext, useState, useContext, useEffect } from "react";
+import { createContext, useState, useContext, useEffect, useCallback } from "react";
 import { api } from "../config/api";
 import { useAuth } from "./AuthContext";
 
 const FavoritesContext = createContext();
+const MEMBERSHIP_BATCH = 200;
 
 export const FavoritesProvider = ({ children }) => {
     const [favorites, setFavorites] = useState([]);
     const [loading, setLoading] = useState(true);
+    // Grid sayfaları için /contains'ten gelen ürün id -> favori mi bilgisi
+    const [membership, setMembership] = useState({});
     const { user, isAuthenticated, loading: authLoading } = useAuth();
 
     useEffect(() => {
@@ -15,6 +18,8 @@ export const FavoritesProvider = ({ children }) => {
             return;
         }
 
+        setMembership({});
+
         if (!isAuthenticated || !user?.id) {
             setFavorites([]);
             setLoading(false);
@@ -38,6 +43,21 @@ export const FavoritesProvider = ({ children }) => {
         });
     }, [isAuthenticated, user?.id, authLoading]);
 
+    // Yalnızca verilen ürünler sorulur; tam favori listesi ve ürün nesneleri beklenmez
+    const loadFavoriteMembership = useCallback((productIds) => {
+        if (!isAuthenticated || !user?.id || !productIds?.length) {
+            return;
+        }
+        // Sunucu tek istekte en fazla MEMBERSHIP_BATCH ürün kabul eder
+        for (let i = 0; i < productIds.length; i += MEMBERSHIP_BATCH) {
+            api.favoritesContain(user.id, productIds.slice(i, i + MEMBERSHIP_BATCH)).then((result) => {
+                setMembership(prev => ({ ...prev, ...result }));
+            }).catch((error) => {
+                console.error('Error loading favorite membership:', error);
+            });
+        }
+    }, [isAuthenticated, user?.id]);
+
     const addToFavorites = (product) => {
         if (!product || !product.id) {
             console.error('Invalid product:', product);
@@ -58,6 +78,7 @@ export const FavoritesProvider = ({ children }) => {
                 api.addToFavorites(user.id, product.id).then((newFavorite) => {
                     if (newFavorite) {
                         setFavorites(prev => [...prev, newFavorite]);
+                        setMembership(prev => ({ ...prev, [product.id]: true }));
                     }
                 }).catch((error) => {
                     console.error('Error adding favorites:', error);
@@ -89,6 +110,7 @@ export const FavoritesProvider = ({ children }) => {
                     setFavorites(prev => prev.filter(fav => 
                         fav && fav.product && fav.product.id !== productId
                     ));
+                    setMembership(prev => ({ ...prev, [productId]: false }));
                 }).catch((error) => {
                     console.error('Error removing favorites:', error);
                 });
@@ -99,7 +121,13 @@ export const FavoritesProvider = ({ children }) => {
     };
 
     const isFavorite = (productId) => {
-        if (!productId || !Array.isArray(favorites)) {
+        if (!productId) {
+            return false;
+        }
+        if (productId in membership) {
+            return membership[productId];
+        }
+        if (!Array.isArray(favorites)) {
             return false;
         }
         return favorites.some(fav => 
@@ -116,6 +144,7 @@ export const FavoritesProvider = ({ children }) => {
         try {
             api.clearFavorites().then(() => {
                 setFavorites([]);
+                setMembership({});
             }).catch((error) => {
                 console.error('Error clearing favorites:', error);
             });
@@ -132,6 +161,7 @@ export const FavoritesProvider = ({ children }) => {
                 addToFavorites,
                 removeFromFavorites,
                 isFavorite,
+                loadFavoriteMembership,
                 clearFavorites
             }}
         >
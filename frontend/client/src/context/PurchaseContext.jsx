@@ -1,12 +1,37 @@
-import { createContext, useState ,useEffect, useContext} from "react";
-import { api } from "../config/api";
+import { createContext, useState ,useEffect, useContext, useRef} from "react";
+import { api, API_ENDPOINTS } from "../config/api";
 import { useAuth } from "./AuthContext";
 
 const PurchaseContext = createContext();
 
+// Fiyat çakışmasında (409) sunucu fiyatlarıyla en fazla bu kadar yeniden denenir
+const MAX_PRICE_RETRIES = 2;
+
+const buildOrderData = (cartItems, totalAmount) => ({
+    // Backend Order entity'sine uygun format
+    orderDate: new Date().toISOString(),
+    totalAmount: totalAmount ?? cartItems.reduce((sum, item) => sum + (item.price * item.quantity), 0),
+    orderItems: cartItems.map(item => ({
+        product: { id: item.id },
+        quantity: item.quantity,
+        price: item.price
+    }))
+});
+
+// Aynı sepet içeriği aynı sipariş denemesidir
+const cartFingerprint = (cartItems) =>
+    cartItems.map(item => `${item.id}:${item.quantity}`).sort().join(',');
+
 export function PurchaseProvider({ children }) {
     const [orders, setOrders] = useState([]);
+    // Sayfalı listeler (sipariş geçmişi) canlı durum değişikliklerini buradan uygular
+    const [lastStatusEvent, setLastStatusEvent] = useState(null);
+    // Sunucu kaçırılan olayların hepsini gönderemezse artar; listeler baştan yüklenir
+    const [statusResync, setStatusResync] = useState(0);
     const { user, isAuthenticated, loading: authLoading } = useAuth();
+    // Sonuçlanmamış sipariş denemesinin anahtarı: istek başarısız olup kullanıcı tekrar denerse
+    // (yanıt kaybolmuş olsa bile) aynı anahtar gider ve ikinci sipariş oluşmaz
+    const pendingCheckout = useRef(null);
 
     useEffect(() => {
         // AuthContext loading'i bitene kadar bekle
@@ -25,30 +50,58 @@ export function PurchaseProvider({ children }) {
             console.error('Error loading orders:', error);
             setOrders([]); // Error durumunda boş array
         });
-    }, [isAuthenticated, user?.id, authLoading]); // User değiştiğinde yeniden yükle
+    }, [isAuthenticated, user?.id, authLoading, statusResync]); // User değiştiğinde yeniden yükle
 
-    const addOrder = (cartItems) => {
-        if (!isAuthenticated || !user?.id) {
-            console.error('User not authenticated');
+    // Sipariş durum değişikliklerini canlı dinle; EventSource koparsa Last-Event-ID ile kendisi yeniden bağlanır
+    useEffect(() => {
+        if (authLoading || !isAuthenticated || !user?.id) {
             return;
         }
 
-        const orderData = {
-            // Backend Order entity'sine uygun format
-            orderDate: new Date().toISOString(),
-            totalAmount: cartItems.reduce((sum, item) => sum + (item.price * item.quantity), 0),
-            orderItems: cartItems.map(item => ({
-                product: { id: item.id },
-                quantity: item.quantity,
-                price: item.price
-            }))
-        };
-        
-        api.createOrder(user.id, orderData).then((newOrder) => {
-            setOrders((prev) => [...prev, newOrder]);
-        }).catch((error) => {
-            console.error('Error adding order:', error);
+        const source = new EventSource(`${API_ENDPOINTS.ORDERS}/user/${user.id}/status-stream`);
+        source.addEventListener('status', (message) => {
+            const event = JSON.parse(message.data);
+            setLastStatusEvent(event);
+            setOrders((prev) => prev.map((order) =>
+                order.id === event.orderId ? { ...order, status: event.newStatus } : order
+            ));
         });
+        source.addEventListener('resync', () => setStatusResync((count) => count + 1));
+        return () => source.close();
+    }, [isAuthenticated, user?.id, authLoading]);
+
+    // Sipariş oluşunca çözülür, oluşmazsa hata fırlatır; çağıran sepeti ancak başarıda temizler
+    const addOrder = async (cartItems) => {
+        if (!isAuthenticated || !user?.id) {
+            throw new Error('User not authenticated');
+        }
+
+        // Her sipariş denemesi için tek anahtar; sepet değişmeden tekrar denenirse aynı anahtar kullanılır
+        const fingerprint = cartFingerprint(cartItems);
+        if (pendingCheckout.current?.userId !== user.id || pendingCheckout.current?.fingerprint !== fingerprint) {
+            pendingCheckout.current = { userId: user.id, fingerprint, idempotencyKey: crypto.randomUUID() };
+        }
+        const { idempotencyKey } = pendingCheckout.current;
+        let items = cartItems;
+        let totalAmount;
+
+        for (let attempt = 0; ; attempt++) {
+            try {
+                const newOrder = await api.createOrder(user.id, buildOrderData(items, totalAmount), idempotencyKey);
+                pendingCheckout.current = null;
+                setOrders((prev) => [...prev, newOrder]);
+                return newOrder;
+            } catch (error) {
+                const conflict = error.response?.status === 409 ? error.response.data : null;
+                if (!conflict?.prices || attempt >= MAX_PRICE_RETRIES) {
+                    console.error('Error adding order:', error);
+                    throw error;
+                }
+                // Fiyatlar değişmiş: sunucunun döndüğü fiyat ve tutarla aynı anahtarla tekrar dene
+                items = items.map(item => ({ ...item, price: conflict.prices[item.id] ?? item.price }));
+                totalAmount = conflict.totalAmount;
+            }
+        }
     };
 
     const removeOrder = (orderId) => {
@@ -60,7 +113,7 @@ export function PurchaseProvider({ children }) {
     };
 
     return (
-        <PurchaseContext.Provider value={{ orders, addOrder, removeOrder }}>
+        <PurchaseContext.Provider value={{ orders, addOrder, removeOrder, lastStatusEvent, statusResync }}>
             {children}
         </PurchaseContext.Provider>
     );
@@ -45,6 +45,7 @@ const resources = {
             continue_shopping: "Alışverişe Devam Et",
             purchase: "Satın Al",
             purchase_success: "Satın alma işlemi başarılı bir şekilde gerçekleştirildi.",
+            purchase_error: "Sipariş oluşturulamadı. Sepetiniz korundu, lütfen tekrar deneyin.",
             empty_cart_title: "Sepetiniz boş",
             empty_cart_description: "Henüz ürün eklememişsiniz. Hemen alışverişe başlayın!",
             cart_tip: "💡 İpucu: Beğendiğiniz ürünleri favorilere ekleyerek daha sonra sepete ekleyebilirsiniz.",
@@ -66,6 +67,9 @@ const resources = {
             order_items: "Sipariş İçeriği",
             order_date: "Sipariş Tarihi",
             order_contents: "Sipariş İçeriği",
+            load_more_orders: "Daha Fazla Sipariş Göster",
+            load_more_reviews: "Daha Fazla Yorum Göster",
+            load_more_products: "Daha Fazla Ürün Göster",
             detailed_order_tracking: "Detaylı Sipariş Takibi",
             no_orders_yet_title: "Henüz siparişiniz bulunmuyor",
             start_shopping: "Alışverişe Başla",
@@ -248,6 +252,7 @@ const resources = {
             continue_shopping: "Continue Shopping",
             purchase: "Purchase",
             purchase_success: "Purchase successful.",
+            purchase_error: "Order could not be placed. Your cart was kept, please try again.",
             empty_cart_title: "Your cart is empty",
             empty_cart_description: "You haven't added any products yet. Start shopping now!",
             cart_tip: "💡 Tip: Add products you like to favorites to add them to cart later.",
@@ -269,6 +274,9 @@ const resources = {
             order_items: "Order Items",
             order_date: "Order Date",
             order_contents: "Order Contents",
+            load_more_orders: "Show More Orders",
+            load_more_reviews: "Show More Reviews",
+            load_more_products: "Show More Products",
             detailed_order_tracking: "Detailed Order Tracking",
             no_orders_yet_title: "You don't have any orders yet",
             start_shopping: "Start Shopping",
@@ -78,6 +78,8 @@ export default function AdminPanel() {
     
     // Products State
     const [products, setProducts] = useState([]);
+    const [productsCursor, setProductsCursor] = useState(null);
+    const [hasMoreProducts, setHasMoreProducts] = useState(false);
     const [productsLoading, setProductsLoading] = useState(false);
     
     // Users State
@@ -87,6 +89,9 @@ export default function AdminPanel() {
     // Orders State
     const [orders, setOrders] = useState([]);
     const [ordersLoading, setOrdersLoading] = useState(false);
+    const [archivedOrders, setArchivedOrders] = useState([]);
+    const [archivedCursor, setArchivedCursor] = useState(null);
+    const [hasMoreArchived, setHasMoreArchived] = useState(false);
     
     // Product Form State
     const [openProductDialog, setOpenProductDialog] = useState(false);
@@ -141,11 +146,14 @@ export default function AdminPanel() {
     }, [loadCategories]);
 
     // ========== PRODUCT MANAGEMENT ==========
-    const fetchProducts = useCallback(async () => {
+    // cursor yoksa liste ilk sayfadan yeniden yüklenir, varsa sonraki sayfa eklenir
+    const fetchProducts = useCallback(async (cursor) => {
         try {
-            setProductsLoading(true);
-            const response = await api.getAllProductsAdmin();
-            setProducts(response || []);
+            if (!cursor) setProductsLoading(true);
+            const page = await api.getAllProductsAdmin(cursor);
+            setProducts((prev) => cursor ? [...prev, ...page.items] : page.items);
+            setProductsCursor(page.nextCursor);
+            setHasMoreProducts(page.hasMore);
         } catch (error) {
             console.error('Ürünler yüklenirken hata:', error);
             setSnackbar({
@@ -153,7 +161,7 @@ export default function AdminPanel() {
                 message: t('error_loading_products') || 'Ürünler yüklenirken hata oluştu',
                 severity: 'error'
             });
-            setProducts([]);
+            if (!cursor) setProducts([]);
         } finally {
             setProductsLoading(false);
         }
@@ -395,6 +403,19 @@ export default function AdminPanel() {
         }
     }, []);
 
+    // Arşivdekiler ayrı ve sayfalı gelir; cursor yoksa ilk sayfadan yeniden yüklenir
+    const fetchArchivedOrders = useCallback(async (cursor) => {
+        try {
+            const page = await api.getArchivedOrdersAdmin(cursor);
+            setArchivedOrders((prev) => cursor ? [...prev, ...page.items] : page.items);
+            setArchivedCursor(page.nextCursor);
+            setHasMoreArchived(page.hasMore);
+        } catch (error) {
+            console.error('Arşivlenmiş siparişler yüklenirken hata:', error);
+            if (!cursor) setArchivedOrders([]);
+        }
+    }, []);
+
     const handleDeleteOrder = async (orderId) => {
         if (window.confirm('Bu siparişi silmek istediğinizden emin misiniz?')) {
             try {
@@ -404,7 +425,7 @@ export default function AdminPanel() {
                     message: 'Sipariş başarıyla silindi',
                     severity: 'success'
                 });
-                await fetchOrders();
+                await Promise.all([fetchOrders(), fetchArchivedOrders()]);
             } catch (error) {
                 console.error('Sipariş silinirken hata:', error);
                 setSnackbar({
@@ -437,9 +458,12 @@ export default function AdminPanel() {
         if (user && user.role === 'ADMIN') {
             if (currentTab === 0) fetchProducts();
             else if (currentTab === 1) fetchUsers();
-            else if (currentTab === 2) fetchOrders();
+            else if (currentTab === 2) {
+                fetchOrders();
+                fetchArchivedOrders();
+            }
         }
-    }, [user, currentTab, fetchProducts, fetchUsers, fetchOrders]);
+    }, [user, currentTab, fetchProducts, fetchUsers, fetchOrders, fetchArchivedOrders]);
 
     // Admin kontrolü
     if (!user || user.role !== 'ADMIN') {
@@ -599,6 +623,13 @@ export default function AdminPanel() {
                                 </TableBody>
                             </Table>
                         </TableContainer>
+                        {hasMoreProducts && (
+                            <Box sx={{ display: 'flex', justifyContent: 'center', py: 2 }}>
+                                <Button variant="outlined" onClick={() => fetchProducts(productsCursor)}>
+                                    {t('load_more_products')}
+                                </Button>
+                            </Box>
+                        )}
                     </Card>
                 )}
             </TabPanel>
@@ -737,6 +768,61 @@ export default function AdminPanel() {
                         </TableContainer>
                     </Card>
                 )}
+
+                {archivedOrders.length > 0 && (
+                    <>
+                        <Typography variant="h6" sx={{ mt: 4, mb: 2 }}>Arşivlenmiş Siparişler</Typography>
+                        <Card>
+                            <TableContainer>
+                                <Table>
+                                    <TableHead>
+                                        <TableRow>
+                                            <TableCell>Sipariş ID</TableCell>
+                                            <TableCell>Tarih</TableCell>
+                                            <TableCell>Durum</TableCell>
+                                            <TableCell>Toplam Tutar</TableCell>
+                                            <TableCell>Ürün Sayısı</TableCell>
+                                            <TableCell align="center">İşlemler</TableCell>
+                                        </TableRow>
+                                    </TableHead>
+                                    <TableBody>
+                                        {archivedOrders.map((order) => (
+                                            <TableRow key={order.id}>
+                                                <TableCell>{order.id}</TableCell>
+                                                <TableCell>{formatDate(order.orderDate)}</TableCell>
+                                                <TableCell>{order.status}</TableCell>
+                                                <TableCell>₺{order.totalAmount}</TableCell>
+                                                <TableCell>
+                                                    <Chip 
+                                                        label={`${order.itemCount} ürün`}
+                                                        size="small"
+                                                        variant="outlined"
+                                                    />
+                                                </TableCell>
+                                                <TableCell align="center">
+                                                    <IconButton 
+                                                        color="error" 
+                                                        onClick={() => handleDeleteOrder(order.id)}
+                                                        title="Siparişi Sil"
+                                                    >
+                                                        <Delete />
+                                                    </IconButton>
+                                                </TableCell>
+                                            </TableRow>
+                                        ))}
+                                    </TableBody>
+                                </Table>
+                            </TableContainer>
+                            {hasMoreArchived && (
+                                <Box sx={{ display: 'flex', justifyContent: 'center', py: 2 }}>
+                                    <Button variant="outlined" onClick={() => fetchArchivedOrders(archivedCursor)}>
+                                        Daha Fazla Göster
+                                    </Button>
+                                </Box>
+                            )}
+                        </Card>
+                    </>
+                )}
             </TabPanel>
 
             {/* CATEGORIES TAB */}
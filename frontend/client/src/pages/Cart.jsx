@@ -29,11 +29,23 @@ export default function Cart() {
     const { cartItems, removeFromCart, changeQuantity, clearCart, total } = useCart();
     const { addOrder } = usePurchase();
     const [showSuccess, setShowSuccess] = useState(false);
+    const [purchaseError, setPurchaseError] = useState(false);
+    const [purchasing, setPurchasing] = useState(false);
     const navigate = useNavigate();
 
     const handlePurchase = async () => {
-        if (cartItems.length === 0) return; 
-        addOrder(cartItems);
+        if (cartItems.length === 0 || purchasing) return;
+        setPurchasing(true);
+        setPurchaseError(false);
+        try {
+            await addOrder(cartItems);
+        } catch {
+            // Sipariş oluşmadıysa sepet korunur, kullanıcı tekrar deneyebilir
+            setPurchaseError(true);
+            return;
+        } finally {
+            setPurchasing(false);
+        }
         await clearCart();
         setShowSuccess(true);
         setTimeout(() => {
@@ -67,6 +79,23 @@ export default function Cart() {
                     {t("purchase_success")}
                 </Alert>
             )}
+
+            {purchaseError && (
+                <Alert 
+                    severity="error" 
+                    onClose={() => setPurchaseError(false)}
+                    sx={{ 
+                        position: 'fixed', 
+                        top: 20, 
+                        left: '50%',
+                        transform: 'translateX(-50%)',
+                        zIndex: 1000,
+                        borderRadius: 2
+                    }}
+                >
+                    {t("purchase_error")}
+                </Alert>
+            )}
             
             <Container maxWidth="lg" sx={{ py: 4, pb: { xs: 20, md: 4 } }}>
                 <Typography variant="h4" gutterBottom sx={{ color: '#243E36', fontWeight: 600 }}>
@@ -304,6 +333,7 @@ export default function Cart() {
                                                     variant="contained" 
                                                     fullWidth
                                                     onClick={handlePurchase}
+                                                    disabled={purchasing}
                                                     startIcon={<CreditCard />}
                                                     sx={{
                                                         backgroundColor: '#C2A83E',
@@ -390,6 +420,7 @@ export default function Cart() {
                                 variant="contained" 
                                 fullWidth
                                 onClick={handlePurchase}
+                                disabled={purchasing}
                                 startIcon={<CreditCard />}
                                 sx={{
                                     backgroundColor: '#C2A83E',
@@ -1,5 +1,7 @@
 import React, { useContext, useEffect, useState } from "react";
 import { usePurchase } from "../context/PurchaseContext";
+import { useAuth } from "../context/AuthContext";
+import { api } from "../config/api";
 import { 
     Container, 
     Typography, 
@@ -34,11 +36,65 @@ import {
 import { useTranslation } from 'react-i18next';
 
 const Orders = () => {
-    const { orders } = usePurchase();
+    const { lastStatusEvent, statusResync } = usePurchase();
+    const { user } = useAuth();
+    // Geçmiş özet satırlarla sayfa sayfa yüklenir; kalemler sipariş açılınca alınır
+    const [orders, setOrders] = useState(null);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [hasMore, setHasMore] = useState(false);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [itemsByOrder, setItemsByOrder] = useState({});
     const { t } = useTranslation();
     const theme = useTheme();
     const isMobile = useMediaQuery(theme.breakpoints.down('md'));
 
+    useEffect(() => {
+        if (!user?.id) {
+            setOrders([]);
+            return;
+        }
+        api.getOrderHistoryPage(user.id).then((page) => {
+            setOrders(page.items);
+            setNextCursor(page.nextCursor);
+            setHasMore(page.hasMore);
+        }).catch((error) => {
+            console.error('Error loading orders:', error);
+            setOrders([]);
+        });
+    }, [user?.id, statusResync]);
+
+    // Canlı durum değişikliği yüklenmiş satıra uygulanır
+    useEffect(() => {
+        if (!lastStatusEvent) return;
+        setOrders((prev) => prev && prev.map((order) =>
+            order.id === lastStatusEvent.orderId ? { ...order, status: lastStatusEvent.newStatus } : order
+        ));
+    }, [lastStatusEvent]);
+
+    const loadMore = async () => {
+        if (!hasMore || loadingMore) return;
+        setLoadingMore(true);
+        try {
+            const page = await api.getOrderHistoryPage(user.id, nextCursor);
+            setOrders((prev) => [...prev, ...page.items]);
+            setNextCursor(page.nextCursor);
+            setHasMore(page.hasMore);
+        } catch (error) {
+            console.error('Error loading orders:', error);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
+    const loadItems = (orderId, expanded) => {
+        if (!expanded || itemsByOrder[orderId]) return;
+        api.getOrderItems(orderId).then((items) => {
+            setItemsByOrder((prev) => ({ ...prev, [orderId]: items }));
+        }).catch((error) => {
+            console.error('Error loading order items:', error);
+        });
+    };
+
     // Sipariş adımları tanımı
     const orderSteps = [
         { 
@@ -280,16 +336,21 @@ const Orders = () => {
                             <Divider sx={{ my: 3 }} />
 
                             {/* Ürün Listesi */}
-                            <Accordion>
+                            <Accordion onChange={(event, expanded) => loadItems(order.id, expanded)}>
                                 <AccordionSummary expandIcon={<ExpandMore />}>
                                     <Typography variant="subtitle1" fontWeight={600}>
-                                        {t("order_contents")} ({order.orderItems?.length || 0} {t("products")})
+                                        {t("order_contents")} ({order.itemCount || 0} {t("products")})
                                     </Typography>
                                 </AccordionSummary>
                                 <AccordionDetails>
-                                    {order.orderItems?.map((item) => {
-                                        const productName = item.productName || item.product?.name || t("product");
-                                        const isProductDeleted = !item.product;
+                                    {!itemsByOrder[order.id] && (
+                                        <Box display="flex" justifyContent="center" py={2}>
+                                            <CircularProgress size={24} />
+                                        </Box>
+                                    )}
+                                    {itemsByOrder[order.id]?.map((item) => {
+                                        const productName = item.productName || t("product");
+                                        const isProductDeleted = !item.productId;
                                         
                                         return (
                                             <ListItem 
@@ -338,6 +399,19 @@ const Orders = () => {
                 );
             })}
 
+            {hasMore && (
+                <Box display="flex" justifyContent="center" mb={4}>
+                    <Button 
+                        variant="outlined" 
+                        onClick={loadMore}
+                        disabled={loadingMore}
+                        sx={{ borderColor: '#C2A83E', color: '#243E36' }}
+                    >
+                        {loadingMore ? <CircularProgress size={20} /> : t("load_more_orders")}
+                    </Button>
+                </Box>
+            )}
+
             {orders.length === 0 && (
                 <Box 
                     display="flex" 
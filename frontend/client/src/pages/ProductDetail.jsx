@@ -62,7 +62,11 @@ export default function ProductDetail() {
     const [error, setError] = useState(null);
     const [quantity, setQuantity] = useState(1);
     const [relatedProducts, setRelatedProducts] = useState([]);
+    // Yorumlar hafif satırlarla sayfa sayfa gelir; ortalama ve sayı özet tablosundan okunur
     const [reviews, setReviews] = useState([]);
+    const [reviewsCursor, setReviewsCursor] = useState(null);
+    const [hasMoreReviews, setHasMoreReviews] = useState(false);
+    const [reviewStats, setReviewStats] = useState({ averageRating: 0, reviewCount: 0 });
     const [newReview, setNewReview] = useState({
         rating: 5,
         comment: ''
@@ -79,10 +83,10 @@ export default function ProductDetail() {
                 // Aynı kategorideki diğer ürünleri getir (benzer ürünler)
                 if (response.data.category?.id) {
                     const relatedResponse = await apiClient.get('/products/search', {
-                        params: { categoryId: response.data.category.id }
+                        params: { categoryId: response.data.category.id, size: 5 }
                     });
                     // Mevcut ürünü çıkar ve ilk 4'ünü al
-                    const filtered = relatedResponse.data
+                    const filtered = relatedResponse.data.items
                         .filter(p => p.id !== parseInt(id))
                         .slice(0, 4);
                     setRelatedProducts(filtered);
@@ -102,23 +106,37 @@ export default function ProductDetail() {
         }
     }, [id]);
 
-    // Yorumları ve istatistikleri yükle
-    useEffect(() => {
-        const fetchReviews = async () => {
-            if (product?.id) {
-                try {
-                    // Yorumları getir
-                    const reviewsResponse = await apiClient.get(`/reviews/product/${product.id}`);
-                    setReviews(reviewsResponse.data);
-                } catch (error) {
-                    console.error('Yorumlar yüklenirken hata:', error);
-                    // Hata durumunda boş liste kullan
-                    setReviews([]);
-                }
-            }
-        };
+    const fetchReviewStats = async (productId) => {
+        try {
+            const statsResponse = await apiClient.get(`/reviews/product/${productId}/stats`);
+            setReviewStats(statsResponse.data);
+        } catch (error) {
+            console.error('Yorum istatistikleri yüklenirken hata:', error);
+        }
+    };
 
-        fetchReviews();
+    const fetchReviewPage = async (productId, cursor) => {
+        try {
+            const reviewsResponse = await apiClient.get(`/reviews/product/${productId}`, {
+                params: { cursor }
+            });
+            const page = reviewsResponse.data;
+            setReviews((prev) => cursor ? [...prev, ...page.items] : page.items);
+            setReviewsCursor(page.nextCursor);
+            setHasMoreReviews(page.hasMore);
+        } catch (error) {
+            console.error('Yorumlar yüklenirken hata:', error);
+            // Hata durumunda boş liste kullan
+            if (!cursor) setReviews([]);
+        }
+    };
+
+    // Yorumların ilk sayfasını ve istatistikleri yükle
+    useEffect(() => {
+        if (product?.id) {
+            fetchReviewPage(product.id);
+            fetchReviewStats(product.id);
+        }
     }, [product]);
 
     const handleAddToCart = () => {
@@ -157,8 +175,16 @@ export default function ProductDetail() {
 
             const response = await apiClient.post('/reviews', reviewData);
             
-            // Yeni yorumu listeye ekle
-            setReviews([response.data, ...reviews]);
+            // Yeni yorumu listeye ekle (akıştaki satır biçiminde)
+            const created = response.data;
+            setReviews([{
+                id: created.id,
+                rating: created.rating,
+                comment: created.comment,
+                reviewDate: created.reviewDate,
+                reviewerName: created.user?.username || user.username
+            }, ...reviews]);
+            fetchReviewStats(product.id);
             setNewReview({ rating: 5, comment: '' });
             
             alert('Yorumunuz başarıyla eklendi!');
@@ -219,9 +245,7 @@ export default function ProductDetail() {
         );
     }
 
-    const averageRating = reviews.length > 0 
-        ? reviews.reduce((sum, review) => sum + review.rating, 0) / reviews.length 
-        : 0;
+    const averageRating = reviewStats.averageRating || 0;
 
     return (
         <Container maxWidth="lg" sx={{ py: 4 }}>
@@ -281,7 +305,7 @@ export default function ProductDetail() {
                             <Box display="flex" alignItems="center" gap={0.5}>
                                 <Rating value={averageRating} readOnly precision={0.1} size="small" />
                                 <Typography variant="body2" color="text.secondary">
-                                    ({reviews.length} değerlendirme)
+                                    ({reviewStats.reviewCount} değerlendirme)
                                 </Typography>
                             </Box>
                         </Box>
@@ -413,7 +437,7 @@ export default function ProductDetail() {
             {/* Yorumlar Bölümü */}
             <Box sx={{ mb: 6 }}>
                 <Typography variant="h5" gutterBottom sx={{ color: '#243E36', fontWeight: 600 }}>
-                            {t("customer_reviews")} ({reviews.length})
+                            {t("customer_reviews")} ({reviewStats.reviewCount})
                         </Typography>
                 
                 {/* Yeni Yorum Ekleme */}
@@ -454,14 +478,14 @@ export default function ProductDetail() {
                         <ListItem key={review.id} alignItems="flex-start" sx={{ px: 0 }}>
                             <ListItemAvatar>
                                 <Avatar sx={{ bgcolor: '#C2A83E' }}>
-                                    {(review.user?.username || 'A').charAt(0).toUpperCase()}
+                                    {(review.reviewerName || 'A').charAt(0).toUpperCase()}
                                 </Avatar>
                             </ListItemAvatar>
                             <ListItemText
                                 primary={
                                     <Box display="flex" alignItems="center" gap={2}>
                                         <Typography variant="subtitle1" fontWeight={600}>
-                                            {review.user?.username || 'Anonim'}
+                                            {review.reviewerName || 'Anonim'}
                                         </Typography>
                                         <Rating value={review.rating} readOnly size="small" />
                                         <Typography variant="caption" color="text.secondary">
@@ -481,6 +505,13 @@ export default function ProductDetail() {
                         </ListItem>
                     ))}
                 </List>
+                {hasMoreReviews && (
+                    <Box display="flex" justifyContent="center">
+                        <Button variant="outlined" onClick={() => fetchReviewPage(product.id, reviewsCursor)}>
+                            {t("load_more_reviews")}
+                        </Button>
+                    </Box>
+                )}
             </Box>
 
             <Divider sx={{ my: 4 }} />
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useMemo } from 'react';
 import { Navigate } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
 import { useCategory } from '../context/CategoryContext';
@@ -9,7 +9,11 @@ const SellerPanel = () => {
     const { user } = useAuth();
     const { categories } = useCategory();
     const [products, setProducts] = useState([]);
-    const [orders, setOrders] = useState([]);
+    // Satıcının kalemleri sayfa sayfa gelir; ekranda siparişe göre gruplanır
+    const [orderLines, setOrderLines] = useState([]);
+    const [ordersCursor, setOrdersCursor] = useState(null);
+    const [hasMoreOrders, setHasMoreOrders] = useState(false);
+    const [orderTotals, setOrderTotals] = useState(null);
     const [activeTab, setActiveTab] = useState('products');
     const [newProduct, setNewProduct] = useState({
         name: '',
@@ -40,15 +44,41 @@ const SellerPanel = () => {
         }
     };
 
-    const fetchSellerOrders = async () => {
+    const fetchSellerOrders = async (cursor) => {
         try {
-            const response = await apiClient.get(`/orders/seller/${user.id}`);
-            setOrders(response.data);
+            const response = await apiClient.get(`/orders/seller/${user.id}/lines`, { params: { cursor, size: 50 } });
+            const page = response.data;
+            setOrderLines((prev) => cursor ? [...prev, ...page.items] : page.items);
+            setOrdersCursor(page.nextCursor);
+            setHasMoreOrders(page.hasMore);
+            setOrderTotals(page.totals);
         } catch (error) {
             console.error('Siparişler yüklenirken hata:', error);
         }
     };
 
+    // Sayfa sınırında bölünen sipariş bir sonraki sayfanın kalemleriyle birleşir
+    const orders = useMemo(() => {
+        const byId = new Map();
+        for (const line of orderLines) {
+            let order = byId.get(line.orderId);
+            if (!order) {
+                order = {
+                    id: line.orderId,
+                    orderDate: line.orderDate,
+                    status: line.status,
+                    customerName: line.customerName,
+                    totalAmount: 0,
+                    lines: []
+                };
+                byId.set(line.orderId, order);
+            }
+            order.lines.push(line);
+            order.totalAmount += line.lineTotal;
+        }
+        return [...byId.values()];
+    }, [orderLines]);
+
     const handleAddProduct = async (e) => {
         e.preventDefault();
         
@@ -89,7 +119,12 @@ const SellerPanel = () => {
     const updateOrderStatus = async (orderId, newStatus) => {
         try {
             await apiClient.put(`/orders/${orderId}/status`, { status: newStatus });
-            fetchSellerOrders();
+            // Yüklenen sayfalar korunur; iptal toplamları değiştirebileceği için yalnızca toplamlar yenilenir
+            setOrderLines((prev) => prev.map((line) =>
+                line.orderId === orderId ? { ...line, status: newStatus } : line
+            ));
+            const response = await apiClient.get(`/orders/seller/${user.id}/lines`, { params: { size: 1 } });
+            setOrderTotals(response.data.totals);
             alert('Sipariş durumu güncellendi!');
         } catch (error) {
             console.error('Sipariş durumu güncellenirken hata:', error);
@@ -110,6 +145,7 @@ const SellerPanel = () => {
         const formData = new FormData();
         formData.append('file', bulkUploadFile);
         formData.append('sellerId', user.id);
+        formData.append('mode', 'streaming');
 
         try {
             const response = await apiClient.post('/products/bulk-upload', formData, {
@@ -407,7 +443,10 @@ const SellerPanel = () => {
 
             {activeTab === 'orders' && (
                 <div className="orders-section">
-                    <h2>{t("my_orders")} ({orders.length})</h2>
+                    <h2>{t("my_orders")} ({orderTotals?.orderCount ?? orders.length})</h2>
+                    {orderTotals && (
+                        <p><strong>{t("total")}:</strong> ₺{orderTotals.revenue.toFixed(2)}</p>
+                    )}
                     
                     {orders.length === 0 ? (
                         <div className="empty-state">
@@ -427,13 +466,13 @@ const SellerPanel = () => {
                                     </div>
                                     <div className="order-details">
                                         <p><strong>{t("date")}:</strong> {new Date(order.orderDate).toLocaleDateString('tr-TR')}</p>
-                                        <p><strong>{t("total")}:</strong> ₺{order.totalAmount}</p>
-                                        <p><strong>{t("customer")}:</strong> {order.user?.username || t("unknown")}</p>
+                                        <p><strong>{t("total")}:</strong> ₺{order.totalAmount.toFixed(2)}</p>
+                                        <p><strong>{t("customer")}:</strong> {order.customerName || t("unknown")}</p>
                                         <div className="order-items">
                                             <h4>{t("products")}:</h4>
-                                            {order.orderItems?.map(item => (
+                                            {order.lines.map(item => (
                                                 <div key={item.id} className="order-item">
-                                                    <span>{item.productName || item.product?.name || t("product")} × {item.quantity}</span>
+                                                    <span>{item.productName || t("product")} × {item.quantity}</span>
                                                     <span><strong>₺{item.unitPrice}</strong></span>
                                                 </div>
                                             ))}
@@ -455,6 +494,20 @@ const SellerPanel = () => {
                                     </div>
                                 </div>
                             ))}
+                            {hasMoreOrders && (
+                                <button 
+                                    onClick={() => fetchSellerOrders(ordersCursor)}
+                                    style={{
+                                        padding: '10px 20px',
+                                        border: '1px solid #C2A83E',
+                                        borderRadius: '4px',
+                                        background: 'white',
+                                        cursor: 'pointer'
+                                    }}
+                                >
+                                    {t("load_more_orders")}
+                                </button>
+                            )}
                         </div>
                     )}
                 </div>
@@ -1,17 +1,21 @@
-import { Grid, Container, Typography, Box, Paper, IconButton, useTheme, useMediaQuery } from "@mui/material";
+import { Grid, Container, Typography, Box, Paper, IconButton, Button, useTheme, useMediaQuery } from "@mui/material";
 import { useTranslation } from 'react-i18next';
 import ProductCard from "../components/ProductCard";
 import { useEffect, useState, useRef } from "react";
 import { useLocation, useSearchParams } from "react-router-dom";
 import { Search, FilterList, ChevronLeft, ChevronRight, Star } from "@mui/icons-material";
-import { apiClient } from "../config/api";
+import { api } from "../config/api";
 import { useCategory } from "../context/CategoryContext";
+import { useFavorites } from "../context/FavoritesContext";
 
 export default function Shop() {
     const { t } = useTranslation();
     const [products, setProducts] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [hasMore, setHasMore] = useState(false);
     const [featuredProducts, setFeaturedProducts] = useState([]);
     const [searchParams] = useSearchParams();
+    const { loadFavoriteMembership } = useFavorites();
     const autoScrollRef = useRef(null);
     
     // Query string'ten parametreleri al
@@ -21,34 +25,44 @@ export default function Shop() {
     // Öne çıkanlar carousel için state - her zaman 0'dan başla
     const [currentIndex, setCurrentIndex] = useState(0);
 
-    useEffect(() => {
-        const fetchProducts = async () => {
-            try {
-                if (query || category) {
-                    // Arama veya kategori filtresi varsa
-                    const response = await apiClient.get('/products/search', {
-                        params: {
-                            query: query || '',
-                            category: category || ''
-                        }
-                    });
-                    setProducts(response.data);
-                } else {
-                    // Arama yoksa tüm ürünleri getir
-                    const data = await apiClient.get('/products/all');
-                    setProducts(data.data);
-                    
+    // Ürünler sayfa sayfa yüklenir; cursor yoksa ilk sayfa
+    const fetchProducts = async (cursor) => {
+        try {
+            let page;
+            if (query || category) {
+                // Arama veya kategori filtresi varsa
+                page = await api.searchProductsPage({
+                    query: query || undefined,
+                    categoryId: category || undefined,
+                    cursor
+                });
+            } else {
+                // Arama yoksa tüm ürünleri getir
+                page = await api.getProductsPage({ cursor });
+                if (!cursor) {
                     // Öne çıkanlar için ilk 5 ürünü al (en çok satılan simülasyonu)
-                    setFeaturedProducts(data.data.slice(0, 5));
+                    setFeaturedProducts(page.items.slice(0, 5));
                 }
-            } catch (error) {
-                console.error('Ürünler yüklenirken hata:', error);
             }
-        };
+            setProducts((prev) => cursor ? [...prev, ...page.items] : page.items);
+            setNextCursor(page.nextCursor);
+            setHasMore(page.hasMore);
+            // Kalpler için yalnızca bu sayfadaki ürünler tek istekte sorulur
+            loadFavoriteMembership(page.items.map((product) => product.id));
+        } catch (error) {
+            console.error('Ürünler yüklenirken hata:', error);
+        }
+    };
 
+    useEffect(() => {
         fetchProducts();
     }, [query, category]);
 
+    // Oturum sonradan açılırsa ya da kullanıcı değişirse yüklü ürünlerin kalpleri yeniden sorulur
+    useEffect(() => {
+        loadFavoriteMembership(products.map((product) => product.id));
+    }, [loadFavoriteMembership]);
+
     // Auto scroll için useEffect
     useEffect(() => {
         if (featuredProducts.length > 0) {
@@ -257,6 +271,14 @@ export default function Shop() {
                         ))}
                     </Grid>
                 )}
+
+                {hasMore && (
+                    <Box display="flex" justifyContent="center" sx={{ mt: 4 }}>
+                        <Button variant="outlined" onClick={() => fetchProducts(nextCursor)}>
+                            {t("load_more_products")}
+                        </Button>
+                    </Box>
+                )}
             </Box>
         </Container>
     );